@@ -0,0 +1,221 @@
+package svgcreator.persistence;
+
+import svgcreator.shapes.Figure;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * An {@link SvgFilePersistenceService} that can also load and save asynchronously.
+ * Files are read and written through an {@link AsynchronousFileChannel} bound to a dedicated
+ * executor, which also runs the parsing of loaded documents; no thread is blocked waiting for I/O.
+ * The blocking methods inherited from {@link SvgFilePersistenceService} remain available.
+ */
+public class AsyncSvgFilePersistenceService extends SvgFilePersistenceService implements AsyncSvgPersistenceService {
+
+    /**
+     * Default number of threads performing I/O and parsing.
+     */
+    public static final int DEFAULT_THREAD_COUNT = 2;
+
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a service with {@link #DEFAULT_THREAD_COUNT} I/O threads.
+     */
+    public AsyncSvgFilePersistenceService() {
+        this(DEFAULT_THREAD_COUNT);
+    }
+
+    /**
+     * Constructs a service with the given number of I/O threads.
+     *
+     * @param threadCount The number of threads performing I/O and parsing.
+     * @throws IllegalArgumentException if the thread count is not positive.
+     */
+    public AsyncSvgFilePersistenceService(int threadCount) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive, got " + threadCount + ".");
+        }
+        this.executor = Executors.newFixedThreadPool(threadCount, task -> {
+            Thread thread = new Thread(task, "svg-persistence");
+            thread.setDaemon(true); // Never keeps the application alive on its own
+            return thread;
+        });
+    }
+
+    /**
+     * Loads figures from an SVG file without blocking. The file is read in full through an
+     * {@link AsynchronousFileChannel} and then parsed on the service's executor; malformed lines
+     * are skipped with a warning, as in {@link #loadFigures(Path)}.
+     *
+     * @param filePath The {@link Path} to the SVG file to load figures from.
+     * @return A future completed with the parsed figures, or with an empty list if the file does not exist.
+     *         It completes exceptionally with an {@link IOException} if the file cannot be read or is not
+     *         valid UTF-8.
+     */
+    @Override
+    public CompletableFuture<List<Figure>> loadFiguresAsync(Path filePath) {
+        LoadFiguresEvent event = LoadFiguresEvent.start(filePath);
+        return readFile(filePath).<List<Figure>>thenApplyAsync(bytes -> {
+            if (bytes == null) {
+                return new ArrayList<>(); // The file does not exist
+            }
+            try {
+                long size = bytes.remaining();
+                String svgContent = StandardCharsets.UTF_8.newDecoder().decode(bytes).toString();
+                event.read(size);
+                List<Figure> figures = parseFigures(svgContent, filePath);
+                event.parsed(figures.size());
+                return figures;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor).exceptionallyCompose(AsyncSvgFilePersistenceService::unwrapIOException);
+    }
+
+    /**
+     * Saves figures to an SVG file without blocking. The document is rendered on the calling thread,
+     * so it reflects the figures exactly as they are when this method is called, and is then written
+     * through an {@link AsynchronousFileChannel}. The file is overwritten.
+     *
+     * @param figures The {@link List} of {@link Figure} objects to save.
+     *                If {@code null} or empty, an empty SVG structure will be written.
+     * @param filePath The {@link Path} to the SVG file where the figures will be saved.
+     * @return A future completed once the file is written, or completed exceptionally with an
+     *         {@link IOException} if writing fails.
+     */
+    @Override
+    public CompletableFuture<Void> saveFiguresAsync(List<Figure> figures, Path filePath) {
+        SaveFiguresEvent event = SaveFiguresEvent.start(filePath);
+        StringWriter document = new StringWriter();
+        try (PrintWriter writer = new PrintWriter(document)) {
+            event.rendered(writeFigures(figures, null, writer));
+        }
+        ByteBuffer encoded = StandardCharsets.UTF_8.encode(document.toString());
+        long size = encoded.remaining();
+        return writeFile(filePath, encoded).thenRun(() -> event.written(size));
+    }
+
+    /**
+     * Stops the service's executor, waiting for pending loads and saves to finish.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    /**
+     * Reads a whole file asynchronously.
+     *
+     * @return A future completed with the file's bytes, or with {@code null} if the file does not exist.
+     */
+    private CompletableFuture<ByteBuffer> readFile(Path filePath) {
+        CompletableFuture<ByteBuffer> result = new CompletableFuture<>();
+        AsynchronousFileChannel channel = null;
+        try {
+            channel = AsynchronousFileChannel.open(filePath, Set.of(StandardOpenOption.READ), executor);
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IOException("File is too large to load: " + filePath);
+            }
+            AsynchronousFileChannel openChannel = channel;
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            channel.read(buffer, 0, buffer, new CompletionHandler<>() {
+                @Override
+                public void completed(Integer bytesRead, ByteBuffer target) {
+                    if (bytesRead >= 0 && target.hasRemaining()) {
+                        openChannel.read(target, target.position(), target, this); // Continue where the short read ended
+                        return;
+                    }
+                    closeQuietly(openChannel);
+                    result.complete(target.flip());
+                }
+
+                @Override
+                public void failed(Throwable error, ByteBuffer target) {
+                    closeQuietly(openChannel);
+                    result.completeExceptionally(error);
+                }
+            });
+        } catch (NoSuchFileException e) {
+            result.complete(null);
+        } catch (IOException e) {
+            if (channel != null) {
+                closeQuietly(channel);
+            }
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Writes bytes to a file asynchronously, replacing its content.
+     */
+    private CompletableFuture<Void> writeFile(Path filePath, ByteBuffer content) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            AsynchronousFileChannel channel = AsynchronousFileChannel.open(filePath, Set.of(StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING), executor);
+            channel.write(content, 0, content, new CompletionHandler<>() {
+                @Override
+                public void completed(Integer bytesWritten, ByteBuffer source) {
+                    if (source.hasRemaining()) {
+                        channel.write(source, source.position(), source, this); // Continue after a partial write
+                        return;
+                    }
+                    try {
+                        channel.close();
+                        result.complete(null);
+                    } catch (IOException e) {
+                        result.completeExceptionally(e);
+                    }
+                }
+
+                @Override
+                public void failed(Throwable error, ByteBuffer source) {
+                    closeQuietly(channel);
+                    result.completeExceptionally(error);
+                }
+            });
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private static void closeQuietly(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Warning: Could not close file channel - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Completes a failed load with the {@link IOException} itself rather than its unchecked wrapper.
+     */
+    private static <T> CompletableFuture<T> unwrapIOException(Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        if (cause instanceof UncheckedIOException unchecked) {
+            cause = unchecked.getCause();
+        }
+        return CompletableFuture.failedFuture(cause);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package svgcreator.persistence;
+
+import svgcreator.shapes.Figure;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Extends {@link SvgPersistenceService} with non-blocking variants of loading and saving.
+ * The I/O runs on an executor owned by the service, so the calling thread can continue
+ * (e.g. keep showing the menu) while a large drawing is read or written.
+ * Unlike the blocking methods, which report problems on {@code System.err}, the returned
+ * futures complete exceptionally when the I/O fails, so callers can react to the failure.
+ */
+public interface AsyncSvgPersistenceService extends SvgPersistenceService, AutoCloseable {
+
+    /**
+     * Loads a list of {@link Figure} objects without blocking the calling thread.
+     *
+     * @param filePath The {@link Path} to the data source (e.g., an SVG file)
+     *                 from which to load the figures.
+     * @return A future completed with the loaded figures, or with an empty list if the data source
+     *         does not exist. It completes exceptionally with the underlying
+     *         {@link java.io.IOException} if the data source cannot be read.
+     */
+    CompletableFuture<List<Figure>> loadFiguresAsync(Path filePath);
+
+    /**
+     * Saves a list of {@link Figure} objects without blocking the calling thread.
+     * The figures are captured before this method returns, so the caller may keep editing them
+     * while the data is written.
+     *
+     * @param figures The {@link List} of {@link Figure} objects to be saved.
+     * @param filePath The {@link Path} to the data destination (e.g., an SVG file)
+     *                 where the figures will be saved.
+     * @return A future completed once the data is written, or completed exceptionally with the
+     *         underlying {@link java.io.IOException} if writing fails.
+     */
+    CompletableFuture<Void> saveFiguresAsync(List<Figure> figures, Path filePath); // Overwrites
+
+    /**
+     * Stops the service's executor after the pending operations have finished.
+     */
+    @Override
+    void close();
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package svgcreator.app;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event for {@link Drawing#getFiguresWithinBoundary}, recording the boundary,
+ * how many figures were tested and how many were found within it.
+ * The event is disabled by default; {@link svgcreator.Main#main} describes how to enable it.
+ */
+@Name("svgcreator.BoundaryQuery")
+@Label("Figures Within Boundary")
+@Category({"SVG Creator", "Drawing"})
+@Description("A query for the figures completely within a rectangle or circle")
+@Enabled(false)
+@StackTrace(false)
+final class BoundaryQueryEvent extends Event {
+
+    @Label("Boundary Type")
+    String boundaryType;
+
+    @Label("X")
+    int bx;
+
+    @Label("Y")
+    int by;
+
+    @Label("Width or Radius")
+    int bParam1;
+
+    @Label("Height")
+    int bParam2;
+
+    @Label("Scanned Figures")
+    @Description("The number of figures tested against the boundary")
+    int scannedCount;
+
+    @Label("Found Figures")
+    int resultCount;
+
+    /**
+     * Creates the event and starts timing the query.
+     *
+     * @return The started event.
+     */
+    static BoundaryQueryEvent start() {
+        BoundaryQueryEvent event = new BoundaryQueryEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the query and commits the event, if it exceeds the recording's threshold.
+     *
+     * @param type     The type of boundary ("rectangle" or "circle").
+     * @param x        The x-coordinate of the boundary's reference point.
+     * @param y        The y-coordinate of the boundary's reference point.
+     * @param param1   Primary dimension of the boundary (width or radius).
+     * @param param2   Secondary dimension of the boundary (height, or unused for circle).
+     * @param scanned  The number of figures tested.
+     * @param found    The number of figures within the boundary.
+     */
+    void finish(String type, int x, int y, int param1, int param2, int scanned, int found) {
+        end();
+        if (shouldCommit()) {
+            boundaryType = type;
+            bx = x;
+            by = y;
+            bParam1 = param1;
+            bParam2 = param2;
+            scannedCount = scanned;
+            resultCount = found;
+            commit();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package svgcreator.utils;
+
+/**
+ * An axis-aligned bounding box with inclusive integer edges.
+ * Used to prefilter figures cheaply before running exact geometric tests.
+ *
+ * @param minX The x-coordinate of the left edge.
+ * @param minY The y-coordinate of the top edge.
+ * @param maxX The x-coordinate of the right edge.
+ * @param maxY The y-coordinate of the bottom edge.
+ */
+public record BoundingBox(int minX, int minY, int maxX, int maxY) {
+
+    /**
+     * Checks whether this box and another box share at least one point.
+     * Boxes that only touch along an edge are considered intersecting.
+     *
+     * @param other The other bounding box.
+     * @return {@code true} if the boxes intersect, {@code false} otherwise.
+     */
+    public boolean intersects(BoundingBox other) {
+        return minX <= other.maxX && other.minX <= maxX
+                && minY <= other.maxY && other.minY <= maxY;
+    }
+
+    /**
+     * Checks whether another box lies completely inside this box.
+     *
+     * @param other The other bounding box.
+     * @return {@code true} if {@code other} is contained in this box, {@code false} otherwise.
+     */
+    public boolean contains(BoundingBox other) {
+        return other.minX >= minX && other.maxX <= maxX
+                && other.minY >= minY && other.maxY <= maxY;
+    }
+
+    /**
+     * Returns the smallest box covering both this box and another box.
+     *
+     * @param other The other bounding box.
+     * @return The union of the two boxes.
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY));
+    }
+
+    /**
+     * Returns this box shifted by the given deltas.
+     *
+     * @param dx The horizontal shift.
+     * @param dy The vertical shift.
+     * @return The translated box.
+     */
+    public BoundingBox translate(int dx, int dy) {
+        return new BoundingBox(minX + dx, minY + dy, maxX + dx, maxY + dy);
+    }
+}
\ No newline at end of file
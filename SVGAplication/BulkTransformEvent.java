@@ -0,0 +1,111 @@
+package svgcreator.app;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A JDK Flight Recorder event for an operation translating or transforming many figures at once
+ * ({@link Drawing#translateAllFigures}, {@link Drawing#translateFigures}, {@link Drawing#translateFiguresIf},
+ * {@link Drawing#transformAllFigures} and {@link Drawing#transformFiguresIf}), split into waiting for locks,
+ * selecting the figures and applying the change, which includes updating the spatial index, standing
+ * queries and history.
+ * The event is disabled by default; {@link svgcreator.Main#main} describes how to enable it.
+ */
+@Name("svgcreator.BulkTransform")
+@Label("Bulk Transform")
+@Category({"SVG Creator", "Drawing"})
+@Description("Translating or transforming many figures of a drawing at once")
+@Enabled(false)
+@StackTrace(false)
+final class BulkTransformEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Figures")
+    @Description("The number of figures in the drawing")
+    int figureCount;
+
+    @Label("Affected Figures")
+    int affectedCount;
+
+    @Label("Lock Wait Time")
+    @Description("Time spent waiting for the drawing's locks; zero for drawings without locks")
+    @Timespan
+    long lockWaitDuration;
+
+    @Label("Select Time")
+    @Description("Time spent selecting the figures to change")
+    @Timespan
+    long selectDuration;
+
+    @Label("Apply Time")
+    @Description("Time spent changing the figures and updating the index, standing queries and history")
+    @Timespan
+    long applyDuration;
+
+    private transient long phaseStart;
+
+    /**
+     * Creates the event and starts timing the wait for locks.
+     *
+     * @param operation The name of the {@link Drawing} method performing the operation.
+     * @return The started event.
+     */
+    static BulkTransformEvent start(String operation) {
+        BulkTransformEvent event = new BulkTransformEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.phaseStart = System.nanoTime();
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the wait for locks and starts timing the selection.
+     */
+    void locked() {
+        if (isEnabled()) {
+            lockWaitDuration = lap();
+        }
+    }
+
+    /**
+     * Ends the selection and starts timing the change.
+     */
+    void selected() {
+        if (isEnabled()) {
+            selectDuration = lap();
+        }
+    }
+
+    /**
+     * Ends the change and commits the event, if it exceeds the recording's threshold.
+     *
+     * @param figures  The number of figures in the drawing.
+     * @param affected The number of figures changed.
+     */
+    void finish(int figures, int affected) {
+        end();
+        if (shouldCommit()) {
+            applyDuration = lap();
+            figureCount = figures;
+            affectedCount = affected;
+            commit();
+        }
+    }
+
+    private long lap() {
+        long now = System.nanoTime();
+        long elapsed = now - phaseStart;
+        phaseStart = now;
+        return elapsed;
+    }
+}
\ No newline at end of file
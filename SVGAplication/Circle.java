@@ -27,12 +27,13 @@ public class Circle extends Figure {
     /**
      * Generates the SVG string representation for this circle.
      * The format is {@code <circle cx='...' cy='...' r='...' fill='...' />}.
+     * A {@code transform='matrix(...)'} attribute is added if the figure has a transform.
      *
      * @return A string representing the SVG element for this circle.
      */
     @Override
     public String drawFigure() {
-        return "<circle cx='" + getXAxis() + "' cy='" + getYAxis() + "' r='" + radius + "' fill='" + getColor() + "' />";
+        return "<circle cx='" + getXAxis() + "' cy='" + getYAxis() + "' r='" + radius + "' fill='" + getColor() + "'" + transformAttribute() + " />";
     }
 
     /**
@@ -43,4 +44,16 @@ public class Circle extends Figure {
     public int getRadius() {
         return radius;
     }
+
+    /**
+     * Sets the radius of this circle.
+     *
+     * @param radius The new radius for the circle. Must be a non-negative value.
+     */
+    public void setRadius(int radius) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("Radius cannot be negative.");
+        }
+        this.radius = radius;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,834 @@
+package svgcreator.app;
+
+import svgcreator.persistence.SvgPersistenceService;
+import svgcreator.shapes.Figure;
+import svgcreator.utils.BoundingBox;
+import svgcreator.utils.GeometryUtils;
+import svgcreator.utils.Transform;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Thread-safe implementation of the {@link Drawing} interface, for serving concurrent readers
+ * while writers edit the drawing.
+ * <p>
+ * Figures are kept in an array whose occupied slots are never overwritten: appends write past
+ * the current size, while removals and reloads build a new array. {@link #getFigure},
+ * {@link #getFigureCount} and {@link #getFiguresWithinBoundary} therefore run as optimistic
+ * reads on a {@link StampedLock}, which never block and are only retried under a read lock if a
+ * write happened meanwhile. {@link #getAllFigures} returns a read-only view of the current
+ * array instead of copying it. Mutations hold the write lock only while changing the array and
+ * the figures; files are read outside of it. Since edits change figures in place, saves and
+ * viewport exports render the figures under the read lock, which holds up writers, but not
+ * readers, until the file is written.
+ * </p>
+ * <p>
+ * Standing query listeners are notified while the write lock is held, so they must not call
+ * back into the drawing. A transaction spans the edits of every thread until it ends.
+ * </p>
+ */
+public class ConcurrentDrawing implements Drawing {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Computes a result from a consistent view of the figure array.
+     */
+    @FunctionalInterface
+    private interface SnapshotReader<T> {
+        T read(Figure[] figures, int size);
+    }
+
+    private final StampedLock lock = new StampedLock();
+    private final Object saveLock = new Object(); // Keeps concurrent saves from interleaving in the file
+    private Figure[] figures; // Slots below size are never overwritten; a removal copies into a new array
+    private int size;
+    private final List<StandingQuery> standingQueries;
+    private SpatialGridIndex index; // Built lazily by the first intersection query
+    private List<DrawingChange> transactionLog; // Non-null while a transaction is open
+    private boolean savePending; // Whether saveToFile was requested inside the open transaction
+    private final SvgPersistenceService persistenceService;
+    private final Path filePath;
+
+    /**
+     * Constructs a ConcurrentDrawing instance.
+     * @param persistenceService The service used for file operations.
+     * @param filePath The path to the SVG file.
+     */
+    public ConcurrentDrawing(SvgPersistenceService persistenceService, Path filePath) {
+        this.figures = new Figure[INITIAL_CAPACITY];
+        this.standingQueries = new ArrayList<>();
+        this.persistenceService = persistenceService;
+        this.filePath = filePath;
+    }
+
+    @Override
+    public void addFigure(Figure figure) {
+        if (figure == null) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            append(figure);
+            record(new DrawingChange.Added(this.size - 1, List.of(figure)));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void addFigures(Collection<? extends Figure> figuresToAdd) {
+        List<Figure> added = new ArrayList<>(figuresToAdd.size());
+        for (Figure figure : figuresToAdd) {
+            if (figure != null) {
+                added.add(figure);
+            }
+        }
+        if (added.isEmpty()) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            int position = this.size;
+            for (Figure figure : added) {
+                append(figure);
+            }
+            record(new DrawingChange.Added(position, added));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean removeFigure(int displayIndex) {
+        long stamp = lock.writeLock();
+        try {
+            if (displayIndex <= 0 || displayIndex > this.size) {
+                return false;
+            }
+            removeAt(displayIndex - 1);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int removeFigures(Set<Integer> displayIndices) {
+        long stamp = lock.writeLock();
+        try {
+            BitSet selected = toPositions(displayIndices);
+            return compact(selected::get, selected.cardinality());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int removeFiguresIf(Predicate<? super Figure> filter) {
+        long stamp = lock.writeLock();
+        try {
+            Figure[] current = this.figures;
+            return compact(position -> filter.test(current[position]), 0);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Figure getFigure(int displayIndex) {
+        return optimisticRead((current, count) ->
+                displayIndex > 0 && displayIndex <= count ? current[displayIndex - 1] : null);
+    }
+
+    /**
+     * Gets a list of all figures currently in the drawing.
+     * The returned list is a read-only view of the figures at the time of the call; it is not
+     * copied and does not change when figures are later added or removed.
+     * @return A list of all figures.
+     */
+    @Override
+    public List<Figure> getAllFigures() {
+        return optimisticRead(ConcurrentDrawing::view);
+    }
+
+    /**
+     * Gets a range of the figures in the drawing.
+     * Like {@link #getAllFigures()}, the returned list is a read-only view of the figures at the
+     * time of the call rather than a copy.
+     * @param offset The 0-based position of the first figure.
+     * @param limit The maximum number of figures to return.
+     * @return The figures from {@code offset} on, at most {@code limit} of them.
+     * @throws IllegalArgumentException if the offset or limit is negative.
+     */
+    @Override
+    public List<Figure> getFigures(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit cannot be negative.");
+        }
+        return optimisticRead((current, count) -> view(current, count)
+                .subList(Math.min(offset, count), (int) Math.min(count, (long) offset + limit)));
+    }
+
+    @Override
+    public void translateAllFigures(int dx, int dy) {
+        BulkTransformEvent event = BulkTransformEvent.start("translateAllFigures");
+        long stamp = lock.writeLock();
+        try {
+            event.locked();
+            for (int position = 0; position < this.size; position++) {
+                GeometryUtils.translateFigure(this.figures[position], dx, dy);
+            }
+            if (this.index != null) {
+                this.index.translateAll(dx, dy);
+            }
+            reevaluateAll();
+            record(new DrawingChange.Translated(null, dx, dy));
+            event.finish(this.size, this.size);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean translateSingleFigure(int displayIndex, int dx, int dy) {
+        long stamp = lock.writeLock();
+        try {
+            if (displayIndex <= 0 || displayIndex > this.size) {
+                return false;
+            }
+            int[] positions = {displayIndex - 1};
+            translateAt(positions, dx, dy);
+            record(new DrawingChange.Translated(positions, dx, dy));
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int translateFigures(Set<Integer> displayIndices, int dx, int dy) {
+        BulkTransformEvent event = BulkTransformEvent.start("translateFigures");
+        long stamp = lock.writeLock();
+        try {
+            event.locked();
+            BitSet selected = toPositions(displayIndices);
+            event.selected();
+            int translated = translateFigures(selected, dx, dy);
+            event.finish(this.size, translated);
+            return translated;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int translateFiguresIf(Predicate<? super Figure> filter, int dx, int dy) {
+        BulkTransformEvent event = BulkTransformEvent.start("translateFiguresIf");
+        long stamp = lock.writeLock();
+        try {
+            event.locked();
+            BitSet selected = new BitSet(this.size);
+            for (int position = 0; position < this.size; position++) {
+                if (filter.test(this.figures[position])) {
+                    selected.set(position);
+                }
+            }
+            event.selected();
+            int translated = translateFigures(selected, dx, dy);
+            event.finish(this.size, translated);
+            return translated;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void transformAllFigures(Transform transform) {
+        requireInvertible(transform);
+        BulkTransformEvent event = BulkTransformEvent.start("transformAllFigures");
+        long stamp = lock.writeLock();
+        try {
+            event.locked();
+            transformAt(null, transform);
+            record(new DrawingChange.Transformed(null, transform));
+            event.finish(this.size, this.size);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean transformSingleFigure(int displayIndex, Transform transform) {
+        requireInvertible(transform);
+        long stamp = lock.writeLock();
+        try {
+            if (displayIndex <= 0 || displayIndex > this.size) {
+                return false;
+            }
+            int[] positions = {displayIndex - 1};
+            transformAt(positions, transform);
+            record(new DrawingChange.Transformed(positions, transform));
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int transformFiguresIf(Predicate<? super Figure> filter, Transform transform) {
+        requireInvertible(transform);
+        BulkTransformEvent event = BulkTransformEvent.start("transformFiguresIf");
+        long stamp = lock.writeLock();
+        try {
+            event.locked();
+            BitSet selected = new BitSet(this.size);
+            for (int position = 0; position < this.size; position++) {
+                if (filter.test(this.figures[position])) {
+                    selected.set(position);
+                }
+            }
+            event.selected();
+            int[] positions = selected.stream().toArray();
+            if (positions.length > 0) {
+                transformAt(positions, transform);
+                record(new DrawingChange.Transformed(positions, transform));
+            }
+            event.finish(this.size, positions.length);
+            return positions.length;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public List<Figure> getFiguresWithinBoundary(String boundaryType, int bx, int by, int bParam1, int bParam2) {
+        BoundaryQueryEvent event = BoundaryQueryEvent.start();
+        int[] scanned = new int[1]; // The size of the snapshot the result was taken from
+        List<Figure> result = optimisticRead((current, count) -> {
+            List<Figure> figuresWithin = new ArrayList<>();
+            for (int position = 0; position < count; position++) {
+                Figure figure = current[position];
+                if (GeometryUtils.isFigureWithinBoundary(figure, boundaryType, bx, by, bParam1, bParam2)) {
+                    figuresWithin.add(figure);
+                }
+            }
+            scanned[0] = count;
+            return figuresWithin;
+        });
+        event.finish(boundaryType, bx, by, bParam1, bParam2, scanned[0], result.size());
+        return result;
+    }
+
+    @Override
+    public List<Figure> getFiguresIntersecting(int x, int y, int width, int height) {
+        BoundingBox area = new BoundingBox(x, y, x + width, y + height);
+        long stamp = lockIndexed();
+        try {
+            return this.index.query(area);
+        } finally {
+            lock.unlock(stamp);
+        }
+    }
+
+    @Override
+    public void exportViewport(Path targetPath, int x, int y, int width, int height) {
+        BoundingBox viewport = new BoundingBox(x, y, x + width, y + height);
+        long stamp = lockIndexed();
+        try {
+            // Rendered under the lock, so that no edit changes a figure while it is written
+            persistenceService.saveFigures(this.index.query(viewport), targetPath, viewport);
+        } finally {
+            lock.unlock(stamp);
+        }
+    }
+
+    @Override
+    public StandingQuery registerStandingQuery(String boundaryType, int bx, int by, int bParam1, int bParam2,
+                                               StandingQueryListener listener) {
+        StandingQuery query = new StandingQuery(boundaryType, bx, by, bParam1, bParam2, listener);
+        long stamp = lock.writeLock();
+        try {
+            query.reset(view(this.figures, this.size));
+            this.standingQueries.add(query);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return query;
+    }
+
+    @Override
+    public boolean unregisterStandingQuery(StandingQuery query) {
+        long stamp = lock.writeLock();
+        try {
+            return this.standingQueries.remove(query);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void loadFromFile() {
+        List<Figure> loaded = persistenceService.loadFigures(this.filePath); // Parsed outside the lock
+        long stamp = lock.writeLock();
+        try {
+            List<Figure> previous = this.transactionLog != null ? view(this.figures, this.size) : null;
+            replaceContent(loaded.toArray(new Figure[0]));
+            if (previous != null) {
+                record(new DrawingChange.Replaced(previous, view(this.figures, this.size)));
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void saveToFile() {
+        long stamp = lock.writeLock();
+        try {
+            if (this.transactionLog != null) {
+                this.savePending = true; // Written once when the transaction commits
+                return;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        writeFile();
+    }
+
+    @Override
+    public void beginTransaction() {
+        long stamp = lock.writeLock();
+        try {
+            if (this.transactionLog != null) {
+                throw new IllegalStateException("A transaction is already active.");
+            }
+            this.transactionLog = new ArrayList<>();
+            this.savePending = false;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void commitTransaction() {
+        commitTransaction(true);
+    }
+
+    @Override
+    public void commitTransaction(boolean persist) {
+        boolean save;
+        long stamp = lock.writeLock();
+        try {
+            if (this.transactionLog == null) {
+                throw new IllegalStateException("No transaction is active.");
+            }
+            save = (persist && !this.transactionLog.isEmpty()) || this.savePending;
+            this.transactionLog = null;
+            this.savePending = false;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (save) {
+            writeFile();
+        }
+    }
+
+    @Override
+    public void rollbackTransaction() {
+        long stamp = lock.writeLock();
+        try {
+            if (this.transactionLog == null) {
+                throw new IllegalStateException("No transaction is active.");
+            }
+            List<DrawingChange> log = this.transactionLog;
+            this.transactionLog = null; // Stops the reverts below from being recorded
+            for (int i = log.size() - 1; i >= 0; i--) {
+                revert(log.get(i));
+            }
+            this.savePending = false;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean isInTransaction() {
+        long stamp = lock.tryOptimisticRead();
+        boolean active = this.transactionLog != null;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                active = this.transactionLog != null;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return active;
+    }
+
+    @Override
+    public int getFigureCount() {
+        long stamp = lock.tryOptimisticRead();
+        int count = this.size;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                count = this.size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Runs a read against the figure array without locking, retrying under a read lock if a
+     * write intervened. A write racing with the optimistic attempt can leave the reader looking
+     * at a half-updated figure or array, so any exception it throws is treated like a failed
+     * validation.
+     */
+    private <T> T optimisticRead(SnapshotReader<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.read(this.figures, this.size);
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // Inconsistent state observed; fall through to a locked read
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.read(this.figures, this.size);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Saves the drawing under the read lock, so that no edit changes a figure while it is written.
+     * Saves are serialized so that the file always ends up holding the most recent state.
+     */
+    private void writeFile() {
+        synchronized (this.saveLock) {
+            long stamp = lock.readLock();
+            try {
+                persistenceService.saveFigures(view(this.figures, this.size), this.filePath);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * Acquires a lock under which the spatial index exists, building the index first if needed.
+     * This is the read lock, or the write lock if the index had to be built.
+     *
+     * @return The stamp to release with {@link StampedLock#unlock}.
+     */
+    private long lockIndexed() {
+        long stamp = lock.readLock();
+        if (this.index == null) {
+            long writeStamp = lock.tryConvertToWriteLock(stamp);
+            if (writeStamp == 0) { // Other readers hold the lock, so wait for exclusive access
+                lock.unlockRead(stamp);
+                writeStamp = lock.writeLock();
+            }
+            stamp = writeStamp;
+            if (this.index == null) {
+                try {
+                    this.index = new SpatialGridIndex(view(this.figures, this.size));
+                } catch (RuntimeException e) {
+                    lock.unlockWrite(stamp);
+                    throw e;
+                }
+            }
+        }
+        return stamp;
+    }
+
+    /**
+     * Wraps the occupied part of a figure array as a read-only list.
+     */
+    private static List<Figure> view(Figure[] figures, int size) {
+        return Collections.unmodifiableList(Arrays.asList(figures).subList(0, size));
+    }
+
+    /**
+     * Appends a figure, growing the array into a new copy when it is full.
+     * Must be called with the write lock held.
+     */
+    private void append(Figure figure) {
+        if (this.size == this.figures.length) {
+            this.figures = Arrays.copyOf(this.figures, Math.max(INITIAL_CAPACITY, this.size * 2));
+        }
+        this.figures[this.size++] = figure;
+        figureAdded(figure);
+    }
+
+    /**
+     * Converts 1-based display indices into a set of 0-based positions, ignoring indices that
+     * are out of range. Must be called with the write lock held.
+     */
+    private BitSet toPositions(Set<Integer> displayIndices) {
+        BitSet positions = new BitSet(this.size);
+        for (Integer displayIndex : displayIndices) {
+            if (displayIndex != null && displayIndex > 0 && displayIndex <= this.size) {
+                positions.set(displayIndex - 1);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Removes the figure at a 0-based position by copying the figures around it into a new array,
+     * leaving the old array intact for readers still holding a view of it. Must be called with the
+     * write lock held.
+     */
+    private void removeAt(int position) {
+        Figure[] current = this.figures;
+        Figure[] kept = new Figure[current.length];
+        System.arraycopy(current, 0, kept, 0, position);
+        System.arraycopy(current, position + 1, kept, position, this.size - position - 1);
+        Figure removed = current[position];
+        this.figures = kept;
+        this.size--;
+        figureRemoved(removed);
+        record(new DrawingChange.Removed(new int[]{position}, List.of(removed)));
+    }
+
+    /**
+     * Copies the figures whose positions are not selected into a new array, leaving the old
+     * array intact for readers still holding a view of it. Must be called with the write lock held.
+     * @param expected The number of figures expected to be selected, used to size the scratch space; 0 if unknown.
+     * @return The number of figures removed.
+     */
+    private int compact(IntPredicate selected, int expected) {
+        Figure[] current = this.figures;
+        List<Figure> removed = new ArrayList<>(expected);
+        int[] removedPositions = new int[Math.max(expected, 8)];
+        Figure[] kept = null; // Allocated once the first selected figure is found
+        int count = 0;
+        for (int position = 0; position < this.size; position++) {
+            if (selected.test(position)) {
+                if (kept == null) {
+                    kept = new Figure[Math.max(INITIAL_CAPACITY, current.length)];
+                    System.arraycopy(current, 0, kept, 0, position);
+                    count = position;
+                }
+                if (removed.size() == removedPositions.length) {
+                    removedPositions = Arrays.copyOf(removedPositions, removedPositions.length * 2);
+                }
+                removedPositions[removed.size()] = position;
+                removed.add(current[position]);
+            } else if (kept != null) {
+                kept[count++] = current[position];
+            }
+        }
+        if (removed.isEmpty()) {
+            return 0;
+        }
+        this.figures = kept;
+        this.size = count;
+        if (removed.size() > 1) {
+            this.index = null; // Rebuilding on the next query beats removing each figure from its cells
+        }
+        for (Figure figure : removed) {
+            figureRemoved(figure);
+        }
+        record(new DrawingChange.Removed(Arrays.copyOf(removedPositions, removed.size()), removed));
+        return removed.size();
+    }
+
+    /**
+     * Re-inserts removed figures at the positions they occupied before removal, into a new array.
+     * Must be called with the write lock held.
+     */
+    private void insertAt(int[] positions, List<Figure> inserted) {
+        int total = this.size + inserted.size();
+        Figure[] merged = new Figure[Math.max(INITIAL_CAPACITY, total)];
+        int next = 0;
+        int source = 0;
+        for (int position = 0; position < total; position++) {
+            merged[position] = next < positions.length && positions[next] == position
+                    ? inserted.get(next++)
+                    : this.figures[source++];
+        }
+        this.figures = merged;
+        this.size = total;
+        this.index = null; // Insertion order changed, so the index is rebuilt on the next query
+        for (Figure figure : inserted) {
+            for (StandingQuery query : this.standingQueries) {
+                query.evaluate(figure);
+            }
+        }
+    }
+
+    /**
+     * Replaces every figure in the drawing. Must be called with the write lock held.
+     */
+    private void replaceContent(Figure[] content) {
+        this.figures = content.length < INITIAL_CAPACITY ? Arrays.copyOf(content, INITIAL_CAPACITY) : content;
+        this.size = content.length;
+        this.index = null; // Rebuilt on the next intersection query
+        for (StandingQuery query : this.standingQueries) {
+            query.reset(view(this.figures, this.size));
+        }
+    }
+
+    /**
+     * Translates the figures at the given 0-based positions. Must be called with the write lock held.
+     */
+    private void translateAt(int[] positions, int dx, int dy) {
+        for (int position : positions) {
+            Figure figure = this.figures[position];
+            GeometryUtils.translateFigure(figure, dx, dy);
+            figureMoved(figure);
+        }
+    }
+
+    /**
+     * Translates the figures at the selected 0-based positions and records the change.
+     * Must be called with the write lock held.
+     * @return The number of figures translated.
+     */
+    private int translateFigures(BitSet selected, int dx, int dy) {
+        int[] positions = selected.stream().toArray();
+        translateAt(positions, dx, dy);
+        if (positions.length > 0) {
+            record(new DrawingChange.Translated(positions, dx, dy));
+        }
+        return positions.length;
+    }
+
+    /**
+     * Transforms the figures at the given 0-based positions, or every figure if positions is null.
+     * Figures that shared a transform before share the composed one afterwards.
+     * Must be called with the write lock held.
+     */
+    private void transformAt(int[] positions, Transform transform) {
+        Map<Transform, Transform> composed = new IdentityHashMap<>();
+        int count = positions == null ? this.size : positions.length;
+        for (int i = 0; i < count; i++) {
+            Figure figure = this.figures[positions == null ? i : positions[i]];
+            Transform current = figure.getTransform();
+            figure.setTransform(current == null ? transform : composed.computeIfAbsent(current, t -> t.then(transform)));
+            if (positions != null) {
+                figureMoved(figure);
+            }
+        }
+        if (positions == null) {
+            this.index = null; // Every box changed, so rebuilding on the next query beats updating each entry
+            reevaluateAll();
+        }
+    }
+
+    /**
+     * Rejects transforms that cannot be reverted, such as a scaling by zero.
+     */
+    private static void requireInvertible(Transform transform) {
+        if (transform == null || transform.determinant() == 0) {
+            throw new IllegalArgumentException("Transform must be invertible.");
+        }
+    }
+
+    /**
+     * Applies the inverse of a recorded change. Must be called with the write lock held.
+     */
+    private void revert(DrawingChange change) {
+        if (change instanceof DrawingChange.Added added) {
+            int from = added.position();
+            int to = from + added.figures().size();
+            compact(position -> position >= from && position < to, to - from);
+        } else if (change instanceof DrawingChange.Removed removed) {
+            insertAt(removed.positions(), removed.figures());
+        } else if (change instanceof DrawingChange.Translated translated) {
+            if (translated.positions() == null) {
+                for (int position = 0; position < this.size; position++) {
+                    GeometryUtils.translateFigure(this.figures[position], -translated.dx(), -translated.dy());
+                }
+                if (this.index != null) {
+                    this.index.translateAll(-translated.dx(), -translated.dy());
+                }
+                reevaluateAll();
+            } else {
+                translateAt(translated.positions(), -translated.dx(), -translated.dy());
+            }
+        } else if (change instanceof DrawingChange.Transformed transformed) {
+            transformAt(transformed.positions(), transformed.transform().inverse());
+        } else if (change instanceof DrawingChange.Replaced replaced) {
+            replaceContent(replaced.previous().toArray(new Figure[0]));
+        }
+    }
+
+    /**
+     * Appends a change to the open transaction's log, if any. Must be called with the write lock held.
+     */
+    private void record(DrawingChange change) {
+        if (this.transactionLog != null) {
+            this.transactionLog.add(change);
+        }
+    }
+
+    /**
+     * Re-evaluates every standing query against every figure.
+     */
+    private void reevaluateAll() {
+        for (StandingQuery query : this.standingQueries) {
+            for (int position = 0; position < this.size; position++) {
+                query.evaluate(this.figures[position]);
+            }
+        }
+    }
+
+    /**
+     * Brings the index and standing queries up to date after a figure was added.
+     */
+    private void figureAdded(Figure figure) {
+        if (this.index != null) {
+            this.index.insert(figure);
+        }
+        for (StandingQuery query : this.standingQueries) {
+            query.evaluate(figure);
+        }
+    }
+
+    /**
+     * Brings the index and standing queries up to date after a figure was removed.
+     */
+    private void figureRemoved(Figure figure) {
+        if (this.index != null) {
+            this.index.remove(figure);
+        }
+        for (StandingQuery query : this.standingQueries) {
+            query.discard(figure);
+        }
+    }
+
+    /**
+     * Brings the index and standing queries up to date after a figure was translated or transformed.
+     */
+    private void figureMoved(Figure figure) {
+        if (this.index != null) {
+            this.index.update(figure);
+        }
+        for (StandingQuery query : this.standingQueries) {
+            query.evaluate(figure);
+        }
+    }
+}
\ No newline at end of file
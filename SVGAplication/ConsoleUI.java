@@ -2,10 +2,15 @@ package svgcreator.ui;
 
 import svgcreator.shapes.Circle; // Required for instanceof and casting
 import svgcreator.shapes.Figure; // Required for List<Figure> and instanceof
+import svgcreator.shapes.FigureGroup; // Required for instanceof and casting
 import svgcreator.shapes.Line;   // Required for instanceof and casting
 import svgcreator.shapes.Rectangle; // Required for instanceof and casting
 
-import java.util.ArrayList;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +25,7 @@ import java.util.Scanner;
 public class ConsoleUI implements AutoCloseable {
 
     private final Scanner scanner;
+    private final Writer out; // Buffers figure listings; flushed after each one
 
     /**
      * Constructs a new {@code ConsoleUI} instance.
@@ -27,6 +33,7 @@ public class ConsoleUI implements AutoCloseable {
      */
     public ConsoleUI() {
         this.scanner = new Scanner(System.in);
+        this.out = new BufferedWriter(new OutputStreamWriter(System.out, System.out.charset()), 1 << 16);
     }
 
     // --- Display Methods ---
@@ -47,59 +54,94 @@ public class ConsoleUI implements AutoCloseable {
     }
 
     /**
-     * Displays a list of figures to the console, preceded by a header.
+     * Displays a list of figures to the console, preceded by a header and numbered from 1.
      * If the list is null or empty, a "No figures to display." message is shown.
-     * This method now handles the formatting of figures.
      *
      * @param header  The header string to display before the list of figures.
      * @param figures A {@link List} of {@link Figure} objects to display.
      */
     public void displayFigures(String header, List<Figure> figures) {
-        System.out.println("\n" + header);
-        if (figures == null || figures.isEmpty()) {
-            System.out.println("No figures to display.");
-        } else {
-            List<String> formattedFigures = formatFiguresForDisplay(figures);
-            for (String figureString : formattedFigures) {
-                System.out.println(figureString);
+        displayFigures(header, figures, 1);
+    }
+
+    /**
+     * Displays a list of figures to the console, preceded by a header, e.g. one page of a longer listing.
+     * The figures are formatted straight into a large buffer that is flushed once at the end,
+     * so no formatted copy of the list is built and the console is not written line by line.
+     * If the list is null or empty, a "No figures to display." message is shown.
+     *
+     * @param header     The header string to display before the list of figures.
+     * @param figures    A {@link List} of {@link Figure} objects to display.
+     * @param firstIndex The display index of the first figure in the list.
+     */
+    public void displayFigures(String header, List<Figure> figures, int firstIndex) {
+        try {
+            out.write("\n" + header + "\n");
+            if (figures == null || figures.isEmpty()) {
+                out.write("No figures to display.\n");
+            } else {
+                writeFigures(out, figures, firstIndex);
             }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
     /**
-     * Formats a list of {@link Figure} objects into a list of strings for display.
-     * Each string includes an index and the figure's details.
+     * Writes figures one per line, each preceded by its display index, in the format used by
+     * {@link #displayFigures}, e.g. {@code 3. circle 10 10 5 red}.
+     * Each line is formatted into a reused buffer, so no strings are created per figure.
      *
-     * @param figures The list of figures to format.
-     * @return A list of formatted strings representing the figures.
+     * @param target     The writer to write to; it should be buffered.
+     * @param figures    The figures to write.
+     * @param firstIndex The display index of the first figure.
+     * @throws IOException if writing fails.
      */
-    private List<String> formatFiguresForDisplay(List<Figure> figures) {
-        List<String> formatted = new ArrayList<>();
+    public static void writeFigures(Writer target, List<Figure> figures, int firstIndex) throws IOException {
+        StringBuilder line = new StringBuilder(128);
+        char[] chars = new char[128];
         for (int i = 0; i < figures.size(); i++) {
-            formatted.add(formatSingleFigure(figures.get(i), i + 1));
+            line.setLength(0);
+            line.append(firstIndex + i).append(". ");
+            appendFigure(line, figures.get(i));
+            line.append('\n');
+            if (chars.length < line.length()) {
+                chars = new char[line.length() * 2];
+            }
+            line.getChars(0, line.length(), chars, 0);
+            target.write(chars, 0, line.length());
         }
-        return formatted;
     }
 
     /**
-     * Formats a single {@link Figure} object into a displayable string.
+     * Appends the displayable form of a single {@link Figure}, without its index.
      *
-     * @param shape The figure to format.
-     * @param index The display index for the figure.
-     * @return A string representation of the figure for display.
+     * @param target The buffer to append to.
+     * @param shape  The figure to format.
      */
-    private String formatSingleFigure(Figure shape, int index) {
-        String output = index + ". ";
+    private static void appendFigure(StringBuilder target, Figure shape) {
         if (shape instanceof Circle c) {
-            output += "circle " + c.getXAxis() + " " + c.getYAxis() + " " + c.getRadius() + " " + c.getColor();
+            target.append("circle ").append(c.getXAxis()).append(' ').append(c.getYAxis()).append(' ')
+                    .append(c.getRadius()).append(' ').append(c.getColor());
         } else if (shape instanceof Rectangle r) {
-            output += "rectangle " + r.getXAxis() + " " + r.getYAxis() + " " + r.getWidth() + " " + r.getHeight() + " " + r.getColor();
+            target.append("rectangle ").append(r.getXAxis()).append(' ').append(r.getYAxis()).append(' ')
+                    .append(r.getWidth()).append(' ').append(r.getHeight()).append(' ').append(r.getColor());
         } else if (shape instanceof Line l) {
-            output += "line " + l.getXAxis() + " " + l.getYAxis() + " " + l.getX2() + " " + l.getY2() + " " + l.getColor();
+            target.append("line ").append(l.getXAxis()).append(' ').append(l.getYAxis()).append(' ')
+                    .append(l.getX2()).append(' ').append(l.getY2()).append(' ').append(l.getColor());
+        } else if (shape instanceof FigureGroup g) {
+            target.append("group ").append(g.getXAxis()).append(' ').append(g.getYAxis())
+                    .append(" (").append(g.getChildren().size()).append(" figures)");
+            if (g.getName() != null) {
+                target.append(' ').append(g.getName());
+            }
         } else {
-            output += "<Unknown shape type>";
+            target.append("<Unknown shape type>");
+        }
+        if (shape != null && shape.getTransform() != null) {
+            target.append(" transform ").append(shape.getTransform().toSvg());
         }
-        return output;
     }
 
 
@@ -121,8 +163,27 @@ public class ConsoleUI implements AutoCloseable {
     }
 
     public static record ShapeData(int x, int y, String color, int param1, int param2) {}
-    public static record TranslateData(int index, int dx, int dy) {}
+    public static record OffsetData(int dx, int dy) {}
     public static record BoundaryData(String type, int x, int y, int param1, int param2) {}
+    public static record TransformData(String type, double param1, double param2, int cx, int cy) {}
+
+    /**
+     * The ways of selecting the figures an action applies to, in the order they are offered.
+     */
+    public enum SelectionMode {
+        NUMBER("A single figure, by number"),
+        LISTED_NUMBER("A single figure, by number, after listing the figures"),
+        REGION("All figures within a region"),
+        TYPE("All figures of a type"),
+        COLOR("All figures of a color"),
+        ALL("All figures"); // Only offered by actions that support it; must stay last
+
+        private final String label;
+
+        SelectionMode(String label) {
+            this.label = label;
+        }
+    }
 
     public ShapeData getCircleDetails() {
         showMessage("--- Create Circle ---");
@@ -173,10 +234,17 @@ public class ConsoleUI implements AutoCloseable {
         }
     }
 
-    public int getDeleteIndex(int maxIndex) {
+    /**
+     * Asks for the number of a single figure.
+     *
+     * @param verb     What will be done to the figure, e.g. "delete", for the prompt.
+     * @param maxIndex The number of figures in the drawing.
+     * @return The 1-based index of the figure, or 0 if the user cancelled.
+     */
+    public int getFigureIndex(String verb, int maxIndex) {
         int index;
         while (true) {
-            System.out.print("Enter the number of the figure to delete (1-" + maxIndex + "), or 0 to cancel: ");
+            System.out.print("Enter the number of the figure to " + verb + " (1-" + maxIndex + "), or 0 to cancel: ");
             if (scanner.hasNextInt()) {
                 index = scanner.nextInt();
                 scanner.nextLine();
@@ -192,29 +260,119 @@ public class ConsoleUI implements AutoCloseable {
         }
     }
 
-    public TranslateData getTranslateParams(int maxIndex) {
-        int targetIndex;
+    /**
+     * Asks how to select the figures an action applies to, so large drawings do not have to be
+     * listed in full. Listing the figures is one of the options rather than a fixed first step.
+     *
+     * @param verb     What will be done to the figures, e.g. "delete", for the prompt.
+     * @param offerAll Whether selecting all figures at once is offered.
+     * @return The chosen {@link SelectionMode}, or null if the user cancelled.
+     */
+    public SelectionMode getSelectionMode(String verb, boolean offerAll) {
+        SelectionMode[] modes = SelectionMode.values();
+        int optionCount = offerAll ? modes.length : modes.length - 1; // ALL is last
+        System.out.println("Select the figures to " + verb + ":");
+        for (int option = 1; option <= optionCount; option++) {
+            System.out.println("  " + option + ". " + modes[option - 1].label);
+        }
+        System.out.println("  0. Cancel");
         while (true) {
-            System.out.print("Enter the number of the figure to translate (1-" + maxIndex + "), or 0 to translate all: ");
+            System.out.print("Choose a selection: ");
             if (scanner.hasNextInt()) {
-                targetIndex = scanner.nextInt();
+                int option = scanner.nextInt();
                 scanner.nextLine();
-                if (targetIndex >= 0 && targetIndex <= maxIndex) {
-                    break;
-                } else {
-                    showError("Invalid index. Must be between 0 and " + maxIndex + ".");
+                if (option >= 0 && option <= optionCount) {
+                    return option == 0 ? null : modes[option - 1];
                 }
+                showError("Invalid selection. Must be between 0 and " + optionCount + ".");
             } else {
                 showError("Invalid input. Please enter a number.");
                 scanner.next();
             }
         }
+    }
+
+    /**
+     * Asks for the type of figures to select.
+     *
+     * @return "circle", "rectangle", "line" or "group".
+     */
+    public String getFigureType() {
+        while (true) {
+            System.out.print("Enter figure type (circle, rectangle, line or group): ");
+            String type = scanner.next().toLowerCase();
+            scanner.nextLine();
+            if (type.equals("circle") || type.equals("rectangle") || type.equals("line") || type.equals("group")) {
+                return type;
+            }
+            showError("Invalid type. Please enter 'circle', 'rectangle', 'line' or 'group'.");
+        }
+    }
+
+    /**
+     * Asks for the color of figures to select.
+     *
+     * @return The color as entered.
+     */
+    public String getColor() {
+        System.out.print("Enter color: ");
+        String color = scanner.next();
+        scanner.nextLine();
+        return color;
+    }
 
+    /**
+     * Asks for a translation.
+     *
+     * @return The horizontal and vertical offsets, or null if the input was not numeric.
+     */
+    public OffsetData getTranslationOffsets() {
         try {
             System.out.print("Enter horizontal translation (dx): "); int dx = scanner.nextInt();
             System.out.print("Enter vertical translation (dy): "); int dy = scanner.nextInt();
             scanner.nextLine();
-            return new TranslateData(targetIndex, dx, dy);
+            return new OffsetData(dx, dy);
+        } catch (InputMismatchException e) {
+            handleInputMismatch();
+            return null;
+        }
+    }
+
+    /**
+     * Asks for a scaling or rotation and the center point it keeps fixed.
+     *
+     * @return The transform parameters, or null if the input was invalid.
+     */
+    public TransformData getTransformParams() {
+        String type;
+        while (true) {
+            System.out.print("Enter transform type (scale or rotate): ");
+            type = scanner.next().toLowerCase();
+            scanner.nextLine();
+            if (type.equals("scale") || type.equals("rotate")) {
+                break;
+            } else {
+                showError("Invalid type. Please enter 'scale' or 'rotate'.");
+            }
+        }
+
+        try {
+            if (type.equals("scale")) {
+                System.out.print("Enter scale factors sx sy: ");
+                double sx = scanner.nextDouble(); double sy = scanner.nextDouble();
+                if (sx == 0 || sy == 0) { showError("Scale factors cannot be zero."); scanner.nextLine(); return null; }
+                System.out.print("Enter center point x y: ");
+                int cx = scanner.nextInt(); int cy = scanner.nextInt();
+                scanner.nextLine();
+                return new TransformData(type, sx, sy, cx, cy);
+            } else { // rotate
+                System.out.print("Enter rotation angle in degrees (clockwise): ");
+                double degrees = scanner.nextDouble();
+                System.out.print("Enter center point x y: ");
+                int cx = scanner.nextInt(); int cy = scanner.nextInt();
+                scanner.nextLine();
+                return new TransformData(type, degrees, 0, cx, cy);
+            }
         } catch (InputMismatchException e) {
             handleInputMismatch();
             return null;
@@ -256,6 +414,49 @@ public class ConsoleUI implements AutoCloseable {
         }
     }
 
+    public boolean getConfirmation(String prompt) {
+        while (true) {
+            System.out.print(prompt + " (y/n): ");
+            String answer = scanner.next().toLowerCase();
+            scanner.nextLine();
+            if (answer.equals("y") || answer.equals("yes")) {
+                return true;
+            } else if (answer.equals("n") || answer.equals("no")) {
+                return false;
+            } else {
+                showError("Invalid answer. Please enter 'y' or 'n'.");
+            }
+        }
+    }
+
+    /**
+     * Asks which page of a listing to show next.
+     * Pressing Enter alone moves to the next page, or stops after the last one.
+     *
+     * @param currentPage The 1-based number of the page just shown.
+     * @param pageCount The number of pages in the listing.
+     * @return The 1-based number of the page to show, or 0 to stop.
+     */
+    public int getPageNumber(int currentPage, int pageCount) {
+        while (true) {
+            System.out.print("Page " + currentPage + " of " + pageCount
+                    + ". Enter a page number (1-" + pageCount + "), press Enter for the next page, or 0 to stop: ");
+            String answer = scanner.nextLine().trim();
+            if (answer.isEmpty()) {
+                return currentPage < pageCount ? currentPage + 1 : 0;
+            }
+            try {
+                int page = Integer.parseInt(answer);
+                if (page >= 0 && page <= pageCount) {
+                    return page;
+                }
+                showError("Invalid page. Must be between 0 and " + pageCount + ".");
+            } catch (NumberFormatException e) {
+                showError("Invalid input. Please enter a number.");
+            }
+        }
+    }
+
     private void handleInputMismatch() {
         showError("Invalid numeric input. Please enter numbers where expected.");
         scanner.nextLine();
@@ -4,14 +4,14 @@ import svgcreator.app.Drawing;
 import svgcreator.app.MenuAction;
 import svgcreator.shapes.Figure;
 import svgcreator.ui.ConsoleUI;
-import java.util.List;
 
 /**
- * Represents the action of deleting a figure from the drawing.
+ * Represents the action of deleting figures from the drawing.
  * This class implements the {@link MenuAction} interface and encapsulates
- * the logic for displaying available figures, prompting the user for which
- * figure to delete, removing it from the {@link Drawing}, and persisting
- * the changes.
+ * the logic for prompting the user for which figures to delete (a single figure
+ * by number, or all figures within a region, of a type or of a color), removing
+ * them from the {@link Drawing}, and persisting the changes.
+ * The figures are only listed if the user asks for it.
  */
 public class DeleteFigureAction implements MenuAction {
     private final ConsoleUI ui;
@@ -21,8 +21,8 @@ public class DeleteFigureAction implements MenuAction {
      * Constructs a {@code DeleteFigureAction} instance.
      *
      * @param ui The console user interface used for interacting with the user
-     *           (e.g., displaying figures, getting the index of the figure to delete).
-     * @param drawing The {@link Drawing} model from which the figure will be deleted
+     *           (e.g., selecting the figures to delete).
+     * @param drawing The {@link Drawing} model from which the figures will be deleted
      *                and which will be responsible for saving the changes.
      */
     public DeleteFigureAction(ConsoleUI ui, Drawing drawing) {
@@ -35,21 +35,14 @@ public class DeleteFigureAction implements MenuAction {
      * <p>
      * This method performs the following steps:
      * <ol>
-     *   <li>Retrieves all figures from the {@link Drawing}.</li>
-     *   <li>If no figures are available, displays a message and returns.</li>
-     *   <li>Displays the list of available figures to the user via the {@link ConsoleUI}.</li>
-     *   <li>Prompts the user to enter the 1-based index of the figure to delete, or 0 to cancel.</li>
-     *   <li>If the user cancels (enters 0), displays a cancellation message and returns.</li>
-     *   <li>Attempts to retrieve the figure to be deleted (for display purposes) and then remove it from the {@link Drawing}.</li>
-     *   <li>If removal is successful:
-     *     <ul>
-     *       <li>Displays a confirmation message including the type of the removed figure.</li>
-     *       <li>Instructs the {@link Drawing} to save its current state to the persistent store.</li>
-     *       <li>Displays a message confirming that the drawing was updated and saved.</li>
-     *     </ul>
-     *   </li>
-     *   <li>If removal fails (e.g., due to an invalid index not caught by {@code ui.getDeleteIndex}),
-     *       displays an error message.</li>
+     *   <li>If the {@link Drawing} has no figures, displays a message and returns.</li>
+     *   <li>Prompts the user to select the figures to delete via {@link FigureSelection}.</li>
+     *   <li>If the user cancels, displays a cancellation message and returns.</li>
+     *   <li>For a single figure, retrieves it (for display purposes) and removes it by its 1-based index.</li>
+     *   <li>For several figures, removes every figure matching the selection in one pass with
+     *       {@link Drawing#removeFiguresIf}, and displays how many were removed.</li>
+     *   <li>If anything was removed, instructs the {@link Drawing} to save its current state to the
+     *       persistent store and displays a message confirming that the drawing was updated and saved.</li>
      * </ol>
      *
      * @return {@code true} to indicate that the application should continue running.
@@ -57,32 +50,38 @@ public class DeleteFigureAction implements MenuAction {
      */
     @Override
     public boolean execute() {
-        List<Figure> allFigures = drawing.getAllFigures();
-        if (allFigures.isEmpty()) {
+        if (drawing.getFigureCount() == 0) {
             ui.showMessage("No figures available to delete.");
             return true; // Continue running
         }
 
-        ui.displayFigures("--- Delete Figure --- \nAvailable figures:", allFigures);
-        int indexToDelete = ui.getDeleteIndex(allFigures.size()); // ui.getDeleteIndex handles 1-based indexing and max size
-
-        if (indexToDelete == 0) { // User chose to cancel
+        ui.showMessage("--- Delete Figure(s) ---");
+        FigureSelection.Selection selection = FigureSelection.select(ui, drawing, "delete", false);
+        if (selection == null) { // User chose to cancel
             ui.showMessage("Deletion cancelled.");
             return true; // Continue running
         }
 
-        // Get the figure before removing it, for a more informative message
-        Figure removedFigure = drawing.getFigure(indexToDelete);
+        int removed;
+        if (selection.index() > 0) {
+            // Get the figure before removing it, for a more informative message
+            Figure removedFigure = drawing.getFigure(selection.index());
+            removed = drawing.removeFigure(selection.index()) ? 1 : 0; // Drawing.removeFigure expects a 1-based index
+            if (removed == 1) {
+                ui.showMessage("Removed figure #" + selection.index() + ": " +
+                        (removedFigure != null ? removedFigure.getClass().getSimpleName() : "Unknown type"));
+            } else {
+                // Defensive: the index was validated against the figure count when it was entered
+                ui.showError("Failed to remove figure #" + selection.index() + ". The figure might have been already removed or the index was invalid.");
+            }
+        } else {
+            removed = drawing.removeFiguresIf(selection.filter());
+            ui.showMessage("Removed " + removed + " figure(s) " + selection.description() + ".");
+        }
 
-        if (drawing.removeFigure(indexToDelete)) { // Drawing.removeFigure expects a 1-based index
-            ui.showMessage("Removed figure #" + indexToDelete + ": " +
-                    (removedFigure != null ? removedFigure.getClass().getSimpleName() : "Unknown type"));
+        if (removed > 0) {
             drawing.saveToFile(); // Persist the changes
             ui.showMessage("Drawing updated and saved.");
-        } else {
-            // This case should ideally not be reached if ui.getDeleteIndex and drawing.removeFigure are robust,
-            // but it's good for defensive programming.
-            ui.showError("Failed to remove figure #" + indexToDelete + ". The figure might have been already removed or the index was invalid.");
         }
         return true; // Always continue running after this action
     }
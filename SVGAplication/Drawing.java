@@ -1,8 +1,13 @@
 package svgcreator.app;
 
 import svgcreator.shapes.Figure;
+import svgcreator.utils.Transform;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * Interface for managing a collection of figures in the drawing.
@@ -16,6 +21,14 @@ public interface Drawing {
      */
     void addFigure(Figure figure);
 
+    /**
+     * Adds many figures to the drawing in one call, in iteration order.
+     * Like every bulk operation, this does not persist the drawing; callers apply a whole
+     * batch and then call {@link #saveToFile()} once.
+     * @param figures The figures to add; null elements are skipped.
+     */
+    void addFigures(Collection<? extends Figure> figures);
+
     /**
      * Removes a figure from the drawing based on its 1-based display index.
      * @param displayIndex The 1-based index of the figure to remove.
@@ -23,6 +36,21 @@ public interface Drawing {
      */
     boolean removeFigure(int displayIndex);
 
+    /**
+     * Removes all figures at the given 1-based display indices in a single pass over the drawing.
+     * Indices refer to the drawing as it was before the call; invalid indices are ignored.
+     * @param displayIndices The 1-based indices of the figures to remove.
+     * @return The number of figures removed.
+     */
+    int removeFigures(Set<Integer> displayIndices);
+
+    /**
+     * Removes all figures matching a predicate in a single pass over the drawing.
+     * @param filter The predicate selecting the figures to remove.
+     * @return The number of figures removed.
+     */
+    int removeFiguresIf(Predicate<? super Figure> filter);
+
     /**
      * Retrieves a figure from the drawing based on its 1-based display index.
      * @param displayIndex The 1-based index of the figure.
@@ -37,6 +65,31 @@ public interface Drawing {
      */
     List<Figure> getAllFigures();
 
+    /**
+     * Gets a range of the figures in the drawing, e.g. one page of a listing, without copying the others.
+     * The default implementation retrieves the figures one by one; implementations override it to
+     * copy the range at once.
+     * @param offset The 0-based position of the first figure.
+     * @param limit The maximum number of figures to return.
+     * @return The figures from {@code offset} on, at most {@code limit} of them; empty if the offset is
+     *         past the last figure. Modifications to the list will not affect the drawing.
+     * @throws IllegalArgumentException if the offset or limit is negative.
+     */
+    default List<Figure> getFigures(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit cannot be negative.");
+        }
+        int end = (int) Math.min(getFigureCount(), (long) offset + limit);
+        List<Figure> figures = new ArrayList<>(Math.max(0, end - offset));
+        for (int position = offset; position < end; position++) {
+            Figure figure = getFigure(position + 1);
+            if (figure != null) { // The drawing may have shrunk meanwhile
+                figures.add(figure);
+            }
+        }
+        return figures;
+    }
+
     /**
      * Translates all figures in the drawing by the given deltas.
      * @param dx The horizontal translation amount.
@@ -53,6 +106,52 @@ public interface Drawing {
      */
     boolean translateSingleFigure(int displayIndex, int dx, int dy);
 
+    /**
+     * Translates all figures at the given 1-based display indices by the given deltas.
+     * Invalid indices are ignored.
+     * @param displayIndices The 1-based indices of the figures to translate.
+     * @param dx The horizontal translation amount.
+     * @param dy The vertical translation amount.
+     * @return The number of figures translated.
+     */
+    int translateFigures(Set<Integer> displayIndices, int dx, int dy);
+
+    /**
+     * Translates all figures matching a predicate by the given deltas.
+     * @param filter The predicate selecting the figures to translate.
+     * @param dx The horizontal translation amount.
+     * @param dy The vertical translation amount.
+     * @return The number of figures translated.
+     */
+    int translateFiguresIf(Predicate<? super Figure> filter, int dx, int dy);
+
+    /**
+     * Applies an affine transform (e.g. a scaling or rotation) to all figures in the drawing.
+     * The transform is composed after each figure's current transform; coordinates are not
+     * rewritten, see {@link svgcreator.utils.GeometryUtils#bakeTransform(Figure)}.
+     * @param transform The transform to apply.
+     * @throws IllegalArgumentException if the transform is not invertible.
+     */
+    void transformAllFigures(Transform transform);
+
+    /**
+     * Applies an affine transform (e.g. a scaling or rotation) to a single figure in the drawing.
+     * @param displayIndex The 1-based index of the figure to transform.
+     * @param transform The transform to apply after the figure's current transform.
+     * @return true if the figure was found and transformed, false otherwise.
+     * @throws IllegalArgumentException if the transform is not invertible.
+     */
+    boolean transformSingleFigure(int displayIndex, Transform transform);
+
+    /**
+     * Applies an affine transform (e.g. a scaling or rotation) to all figures matching a predicate.
+     * @param filter The predicate selecting the figures to transform.
+     * @param transform The transform to apply after each figure's current transform.
+     * @return The number of figures transformed.
+     * @throws IllegalArgumentException if the transform is not invertible.
+     */
+    int transformFiguresIf(Predicate<? super Figure> filter, Transform transform);
+
     /**
      * Retrieves a list of figures that are completely within the specified boundary.
      * @param boundaryType The type of boundary ("rectangle" or "circle").
@@ -64,6 +163,52 @@ public interface Drawing {
      */
     List<Figure> getFiguresWithinBoundary(String boundaryType, int bx, int by, int bParam1, int bParam2);
 
+    /**
+     * Retrieves the figures whose bounding boxes intersect the given rectangular region.
+     * Implementations may answer this from a spatial index, so the cost depends on the size of
+     * the region rather than on the size of the drawing.
+     * @param x The x-coordinate of the region's top-left corner.
+     * @param y The y-coordinate of the region's top-left corner.
+     * @param width The width of the region.
+     * @param height The height of the region.
+     * @return A list of the intersecting figures, in drawing order.
+     */
+    List<Figure> getFiguresIntersecting(int x, int y, int width, int height);
+
+    /**
+     * Exports the part of the drawing visible in a viewport to an SVG file.
+     * Only figures intersecting the viewport are written, and the file's {@code viewBox}
+     * matches the viewport. The drawing's own file is not affected.
+     * @param targetPath The path of the SVG file to write.
+     * @param x The x-coordinate of the viewport's top-left corner.
+     * @param y The y-coordinate of the viewport's top-left corner.
+     * @param width The width of the viewport.
+     * @param height The height of the viewport.
+     */
+    void exportViewport(Path targetPath, int x, int y, int width, int height);
+
+    /**
+     * Registers a standing region query that keeps its result set current as the drawing is edited.
+     * The query is evaluated against all figures once at registration, firing an enter event for
+     * every initial match; afterwards only the figures affected by each mutation are re-evaluated.
+     * @param boundaryType The type of boundary ("rectangle" or "circle").
+     * @param bx The x-coordinate of the boundary's reference point.
+     * @param by The y-coordinate of the boundary's reference point.
+     * @param bParam1 Primary dimension of the boundary (width or radius).
+     * @param bParam2 Secondary dimension of the boundary (height, or unused for circle).
+     * @param listener The listener notified of enter/leave events, or null for none.
+     * @return The registered query, whose result set can be read at any time.
+     */
+    StandingQuery registerStandingQuery(String boundaryType, int bx, int by, int bParam1, int bParam2,
+                                        StandingQueryListener listener);
+
+    /**
+     * Unregisters a standing query so it no longer tracks edits to the drawing.
+     * @param query The query to unregister.
+     * @return true if the query was registered on this drawing, false otherwise.
+     */
+    boolean unregisterStandingQuery(StandingQuery query);
+
     /**
      * Loads figures from the associated file path into the drawing.
      * Any existing figures in the drawing are cleared first.
@@ -75,6 +220,43 @@ public interface Drawing {
      */
     void saveToFile();
 
+    /**
+     * Starts a transaction grouping subsequent edits into one unit.
+     * Until the transaction ends, mutations are recorded in a compact change set and
+     * {@link #saveToFile()} is deferred instead of writing the file.
+     * @throws IllegalStateException if a transaction is already active.
+     */
+    void beginTransaction();
+
+    /**
+     * Commits the active transaction, keeping its edits and persisting the drawing once
+     * if anything changed or a save was requested during the transaction.
+     * @throws IllegalStateException if no transaction is active.
+     */
+    void commitTransaction();
+
+    /**
+     * Commits the active transaction, keeping its edits as one unit like {@link #commitTransaction()}.
+     * Without {@code persist}, the edits are not written to the file, e.g. because they were read from
+     * it; the drawing is still saved if a save was requested during the transaction.
+     * @param persist Whether to save the drawing if anything changed.
+     * @throws IllegalStateException if no transaction is active.
+     */
+    void commitTransaction(boolean persist);
+
+    /**
+     * Rolls back the active transaction, reverting every edit made since it began
+     * without writing the file.
+     * @throws IllegalStateException if no transaction is active.
+     */
+    void rollbackTransaction();
+
+    /**
+     * Checks whether a transaction is currently active.
+     * @return true if a transaction has begun and not yet been committed or rolled back.
+     */
+    boolean isInTransaction();
+
     /**
      * Gets the current number of figures in the drawing.
      * @return The count of figures.
@@ -0,0 +1,62 @@
+package svgcreator.app;
+
+import svgcreator.shapes.Figure;
+import svgcreator.utils.Transform;
+
+import java.util.List;
+
+/**
+ * Describes a single mutation applied to a {@link Drawing}.
+ * Changes are recorded compactly: figures are referenced rather than copied, and a translation
+ * stores only the affected positions and its deltas. Each change knows enough to be reverted,
+ * which is how transactions are rolled back. The changes published to subscribers by a
+ * {@link DrawingChangePublisher} carry copies of the figures instead, since they are read later.
+ * <p>
+ * Positions are 0-based list positions in the drawing as it was when the change was applied.
+ * </p>
+ */
+public sealed interface DrawingChange
+        permits DrawingChange.Added, DrawingChange.Removed, DrawingChange.Translated, DrawingChange.Transformed,
+                DrawingChange.Replaced {
+
+    /**
+     * Figures inserted as a contiguous run.
+     *
+     * @param position The position of the first inserted figure.
+     * @param figures  The inserted figures, in order.
+     */
+    record Added(int position, List<Figure> figures) implements DrawingChange {}
+
+    /**
+     * Figures removed from the drawing.
+     *
+     * @param positions The ascending positions the figures occupied before removal.
+     * @param figures   The removed figures, parallel to {@code positions}.
+     */
+    record Removed(int[] positions, List<Figure> figures) implements DrawingChange {}
+
+    /**
+     * Figures translated by the same deltas.
+     *
+     * @param positions The positions of the translated figures, or {@code null} if every figure was translated.
+     * @param dx        The horizontal translation amount.
+     * @param dy        The vertical translation amount.
+     */
+    record Translated(int[] positions, int dx, int dy) implements DrawingChange {}
+
+    /**
+     * Figures transformed by the same affine transform, composed after their previous transforms.
+     *
+     * @param positions The positions of the transformed figures, or {@code null} if every figure was transformed.
+     * @param transform The applied transform; it is invertible, so the change can be reverted.
+     */
+    record Transformed(int[] positions, Transform transform) implements DrawingChange {}
+
+    /**
+     * The whole content of the drawing replaced, e.g. by reloading it from its file.
+     *
+     * @param previous The figures before the replacement.
+     * @param current  The figures after the replacement.
+     */
+    record Replaced(List<Figure> previous, List<Figure> current) implements DrawingChange {}
+}
\ No newline at end of file
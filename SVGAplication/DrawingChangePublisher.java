@@ -0,0 +1,312 @@
+package svgcreator.app;
+
+import svgcreator.shapes.Figure;
+import svgcreator.utils.GeometryUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the {@link DrawingChange}s applied to a drawing to any number of {@link Flow.Subscriber}s.
+ * <p>
+ * Each subscriber has its own bounded buffer, and signals are delivered on an executor, so the
+ * drawing's writer only ever appends to buffers and never waits for a subscriber. Subscribers receive
+ * {@link Batch}es: every delivery takes all changes buffered so far, so a subscriber that
+ * falls behind catches up in a few large batches instead of many small ones. Demand is counted in
+ * batches. If a subscriber's buffer overflows, its buffered changes are discarded and it receives a
+ * batch marked {@link Batch#resync()} instead, after which it should rebuild its view from the drawing.
+ * </p>
+ * Changes are published by the drawing's writer thread; {@link #subscribe} may be called from any thread.
+ * Since subscribers run later, while the drawing keeps changing, the figures carried by a published
+ * change are copies taken when it was published: they show each figure as it was right after the change
+ * was applied (or, for removed and replaced figures, right before), and later edits do not show through.
+ */
+public class DrawingChangePublisher implements Flow.Publisher<DrawingChangePublisher.Batch>, AutoCloseable {
+
+    /**
+     * Default number of changes buffered per subscriber before it must resynchronize.
+     */
+    public static final int DEFAULT_BUFFER_CAPACITY = 1024;
+
+    /**
+     * A group of consecutive changes, in the order they were applied.
+     *
+     * @param changes The changes; empty for a resync marker.
+     * @param resync  Whether changes were dropped because the subscriber fell too far behind, so its
+     *                view of the drawing must be rebuilt from the drawing's current state.
+     */
+    public static record Batch(List<DrawingChange> changes, boolean resync) {}
+
+    private final Executor executor;
+    private final int bufferCapacity;
+    private final List<ChangeSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    /**
+     * Constructs a publisher delivering on the common fork-join pool, with {@link #DEFAULT_BUFFER_CAPACITY}.
+     */
+    public DrawingChangePublisher() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * Constructs a publisher.
+     *
+     * @param executor       The executor on which subscribers are signalled.
+     * @param bufferCapacity The number of changes buffered per subscriber before it must resynchronize.
+     * @throws IllegalArgumentException if the buffer capacity is not positive.
+     */
+    public DrawingChangePublisher(Executor executor, int bufferCapacity) {
+        if (bufferCapacity <= 0) {
+            throw new IllegalArgumentException("Buffer capacity must be positive, got " + bufferCapacity + ".");
+        }
+        this.executor = executor;
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    /**
+     * Adds a subscriber. It only receives changes published after this call.
+     * A subscriber that is already subscribed, or that subscribes after {@link #close()},
+     * is signalled {@code onError} (respectively {@code onComplete}) right after {@code onSubscribe}.
+     *
+     * @param subscriber The subscriber to add.
+     * @throws NullPointerException if the subscriber is null.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super Batch> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber cannot be null.");
+        }
+        ChangeSubscription subscription = new ChangeSubscription(subscriber);
+        synchronized (this) {
+            boolean duplicate = false;
+            for (ChangeSubscription existing : subscriptions) {
+                duplicate |= existing.subscriber == subscriber;
+            }
+            if (duplicate) {
+                subscription.fail(new IllegalStateException("Subscriber is already subscribed."));
+            } else if (closed) {
+                subscription.complete();
+            } else {
+                subscriptions.add(subscription);
+            }
+        }
+        subscription.schedule();
+    }
+
+    /**
+     * Checks whether any subscriber would receive published changes, so the writer can skip
+     * building change records that nobody reads.
+     *
+     * @return true if at least one subscription is active.
+     */
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * Appends a copy of a change to every subscriber's buffer and schedules delivery. Never blocks;
+     * the figures are copied once, however many subscribers there are, and only if there are any.
+     *
+     * @param change The change that was just applied to the drawing.
+     */
+    public void publish(DrawingChange change) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        DrawingChange snapshot = snapshot(change);
+        for (ChangeSubscription subscription : subscriptions) {
+            subscription.offer(snapshot);
+        }
+    }
+
+    /**
+     * Copies the figures a change carries, so the published change no longer shares them with the
+     * drawing. Translations and transforms carry no figures and are published as they are.
+     */
+    private static DrawingChange snapshot(DrawingChange change) {
+        if (change instanceof DrawingChange.Added added) {
+            return new DrawingChange.Added(added.position(), copy(added.figures()));
+        } else if (change instanceof DrawingChange.Removed removed) {
+            return new DrawingChange.Removed(removed.positions(), copy(removed.figures()));
+        } else if (change instanceof DrawingChange.Replaced replaced) {
+            return new DrawingChange.Replaced(copy(replaced.previous()), copy(replaced.current()));
+        }
+        return change;
+    }
+
+    private static List<Figure> copy(List<Figure> figures) {
+        List<Figure> copies = new ArrayList<>(figures.size());
+        for (Figure figure : figures) {
+            copies.add(GeometryUtils.copyFigure(figure));
+        }
+        return copies;
+    }
+
+    /**
+     * Completes every subscriber once its buffered changes are delivered.
+     * Changes published afterwards are ignored.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        for (ChangeSubscription subscription : subscriptions) {
+            subscription.complete();
+            subscription.schedule();
+        }
+        subscriptions.clear();
+    }
+
+    /**
+     * The link between the publisher and one subscriber. Signals are issued by a drain loop that runs
+     * on the executor and is never entered by two threads at once, so they are serialized as
+     * {@link Flow} requires.
+     */
+    private final class ChangeSubscription implements Flow.Subscription, Runnable {
+        final Flow.Subscriber<? super Batch> subscriber;
+        private final ArrayDeque<DrawingChange> buffer = new ArrayDeque<>(); // Guarded by this
+        private boolean overflowed; // Guarded by this; set until the resync marker is delivered
+        private boolean completed; // Guarded by this; no more changes are accepted
+        private Throwable error; // Guarded by this; delivered instead of any further signal
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pendingDrains = new AtomicInteger();
+        private boolean subscribed; // Only accessed by the drain loop
+        private volatile boolean cancelled;
+
+        ChangeSubscription(Flow.Subscriber<? super Batch> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("Requested count must be positive, got " + n + "."));
+            } else {
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n); // Saturates
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            synchronized (this) {
+                buffer.clear(); // Do not keep figures reachable
+            }
+        }
+
+        void offer(DrawingChange change) {
+            synchronized (this) {
+                if (completed || overflowed) {
+                    return; // A pending resync covers this change as well
+                }
+                if (buffer.size() == bufferCapacity) {
+                    buffer.clear();
+                    overflowed = true;
+                } else {
+                    buffer.add(change);
+                }
+            }
+            schedule();
+        }
+
+        synchronized void complete() {
+            completed = true;
+        }
+
+        synchronized void fail(Throwable cause) {
+            if (error == null) {
+                error = cause;
+            }
+            completed = true;
+        }
+
+        /**
+         * Runs the drain loop on the executor unless it is already running or scheduled,
+         * in which case that run will see the new state.
+         */
+        void schedule() {
+            if (pendingDrains.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = pendingDrains.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (!subscribed) {
+                subscribed = true;
+                try {
+                    subscriber.onSubscribe(this);
+                } catch (RuntimeException e) {
+                    cancel();
+                    System.err.println("Warning: Change subscriber failed in onSubscribe - " + e.getMessage());
+                    return;
+                }
+            }
+            while (!cancelled) {
+                Batch batch;
+                Throwable failure;
+                boolean done;
+                synchronized (this) {
+                    failure = error;
+                    boolean hasBatch = overflowed || !buffer.isEmpty();
+                    done = completed && !hasBatch;
+                    batch = failure == null && hasBatch && demand.get() > 0 ? takeBatch() : null;
+                }
+                if (failure != null || done) {
+                    cancel(); // Terminal: no further signals
+                    if (failure != null) {
+                        subscriber.onError(failure);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                    return;
+                }
+                if (batch == null) {
+                    return; // Nothing to deliver, or no demand; a later request or publish reschedules
+                }
+                if (demand.get() != Long.MAX_VALUE) {
+                    demand.decrementAndGet();
+                }
+                try {
+                    subscriber.onNext(batch);
+                } catch (RuntimeException e) {
+                    cancel();
+                    System.err.println("Warning: Change subscriber failed in onNext and was unsubscribed - " + e.getMessage());
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Takes everything buffered as one batch; called with the lock held.
+         */
+        private Batch takeBatch() {
+            if (overflowed) {
+                overflowed = false;
+                return new Batch(List.of(), true);
+            }
+            Batch batch = new Batch(List.copyOf(buffer), false);
+            buffer.clear();
+            return batch;
+        }
+    }
+}
\ No newline at end of file
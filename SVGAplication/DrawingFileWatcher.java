@@ -0,0 +1,433 @@
+package svgcreator.app;
+
+import svgcreator.persistence.SvgFilePersistenceService;
+import svgcreator.shapes.Figure;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps a {@link Drawing} in sync with its SVG file while other processes change the file.
+ * <p>
+ * A {@link WatchService} reports changes to the file. On a change, the file is compared with the
+ * previous version block by block to find the first modified byte; the figures written before it
+ * are unchanged and are not looked at again. From there on, each top-level figure in the file is
+ * compared, as text, with the drawing's figure at the same position: matching figures are kept as
+ * they are, and only figures that were modified or appended are parsed. The drawing is then edited
+ * through its ordinary methods, so standing queries, the undo history and change feeds follow along;
+ * the edits of one reload are made in a single transaction, so they are undone as one step. A reload
+ * never writes the file; only when it happens inside a transaction the caller opened are its edits
+ * saved with the caller's other edits when that transaction commits.
+ * A full {@link Drawing#loadFromFile()} happens only if the change cannot be localized, i.e. when
+ * it affects the part of the file before the first figure.
+ * </p>
+ * Edits to the drawing that were not yet saved may be discarded by a reload. The drawing's own
+ * saves are recognized as producing no difference, so they leave it untouched. {@link #poll()}
+ * applies changes on the calling thread, which suits single-threaded drawings; {@link #start()}
+ * applies them on a background thread and may only be used with a drawing that is safe for
+ * concurrent use.
+ */
+public class DrawingFileWatcher implements AutoCloseable {
+
+    /**
+     * How a refresh changed the drawing.
+     */
+    public enum Reload {
+        /** The file's figures already matched the drawing. */
+        NONE,
+        /** Only the modified or appended figures were parsed and applied. */
+        INCREMENTAL,
+        /** The whole file was reloaded. */
+        FULL
+    }
+
+    // Size of the blocks whose checksums locate the first modified byte
+    private static final int BLOCK_SIZE = 4096;
+
+    private final Drawing drawing;
+    private final Path filePath;
+    private final SvgFilePersistenceService parser = new SvgFilePersistenceService();
+    private final WatchService watchService;
+    private Thread watchThread;
+
+    // What the file looked like when the drawing was last synchronized with it
+    private long[] blockChecksums = new long[0];
+    private int length = -1; // -1 if the file did not exist
+    private int bodyStart; // Offset just past the opening <svg> tag's line
+    private long headerChecksum; // Checksum of the bytes before bodyStart
+    private int[] figureEnds = new int[0]; // figureEnds[i] is the offset just past the i-th top-level figure
+    private int figureCount; // Number of valid entries in figureEnds
+
+    /**
+     * Starts watching a drawing's file. The drawing is assumed to have just been loaded from it.
+     *
+     * @param drawing The drawing to keep in sync.
+     * @param filePath The path of the SVG file the drawing was loaded from.
+     * @throws IOException if the file's directory cannot be watched.
+     */
+    public DrawingFileWatcher(Drawing drawing, Path filePath) throws IOException {
+        this.drawing = drawing;
+        this.filePath = filePath.toAbsolutePath().normalize();
+        this.watchService = this.filePath.getFileSystem().newWatchService();
+        Path directory = this.filePath.getParent();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        byte[] content = read();
+        if (content != null && indexOfClosingTag(content) >= 0) {
+            takeSnapshot(content);
+        }
+    }
+
+    /**
+     * Applies any change reported for the file since the last call, without blocking.
+     *
+     * @return How the drawing was changed.
+     */
+    public synchronized Reload poll() {
+        boolean changed = false;
+        WatchKey key;
+        while ((key = watchService.poll()) != null) {
+            changed |= concernsFile(key);
+        }
+        return changed ? refresh() : Reload.NONE;
+    }
+
+    /**
+     * Applies changes on a background thread as they are reported. Only for drawings that are safe
+     * for concurrent use, such as {@link ConcurrentDrawing}.
+     *
+     * @throws IllegalStateException if the watcher was already started.
+     */
+    public synchronized void start() {
+        if (watchThread != null) {
+            throw new IllegalStateException("The watcher was already started.");
+        }
+        watchThread = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = watchService.take();
+                    if (concernsFile(key)) {
+                        refresh();
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // The watcher was closed
+            }
+        }, "drawing-file-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    /**
+     * Compares the file with the drawing now and applies any difference, whether or not a change was reported.
+     * A file that is missing or not yet completely written (no closing {@code </svg>} tag) is ignored until it is.
+     *
+     * @return How the drawing was changed.
+     */
+    public synchronized Reload refresh() {
+        byte[] content = read();
+        int closingTag = content == null ? -1 : indexOfClosingTag(content);
+        if (closingTag < 0) {
+            return Reload.NONE; // Missing, or caught in the middle of a write; a later event follows
+        }
+        int modified = firstModifiedOffset(content);
+        if (modified < 0) {
+            return Reload.NONE;
+        }
+        if (length < 0 || content.length < bodyStart || checksum(content, 0, bodyStart) != headerChecksum) {
+            drawing.loadFromFile(); // The change cannot be localized to figures
+            takeSnapshot(content);
+            return Reload.FULL;
+        }
+        modified = Math.max(modified, bodyStart); // The header is unchanged even if its block is not
+
+        // Figures ending before the first modified byte are untouched, provided the drawing still
+        // has them where the file has them; otherwise compare the drawing with the whole body
+        int kept = 0;
+        if (drawing.getFigureCount() >= figureCount) {
+            while (kept < figureCount && figureEnds[kept] <= modified) {
+                kept++;
+            }
+        }
+        int resume = kept == 0 ? bodyStart : figureEnds[kept - 1];
+        return reconcile(content, kept, resume, modified) ? Reload.INCREMENTAL : Reload.NONE;
+    }
+
+    /**
+     * Stops watching the file.
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            System.err.println("Warning: Could not close the file watcher: " + e.getMessage());
+        }
+        Thread thread;
+        synchronized (this) {
+            thread = watchThread;
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Makes the drawing's figures from position {@code kept} on match the file's figures from offset
+     * {@code resume} on, then records the new file layout.
+     *
+     * @param modified The offset of the first block that differs from the previous version.
+     * @return true if the drawing was changed.
+     */
+    private boolean reconcile(byte[] content, int kept, int resume, int modified) {
+        List<int[]> chunks = scanFigures(content, resume); // [start, end) of each top-level figure
+        List<Figure> replacement = new ArrayList<>(chunks.size());
+        List<Integer> replacementEnds = new ArrayList<>(chunks.size());
+        int existingCount = drawing.getFigureCount();
+        int firstDifference = -1; // Position of the first figure that differs, relative to kept
+        for (int i = 0; i < chunks.size(); i++) {
+            int[] chunk = chunks.get(i);
+            String text = normalize(new String(content, chunk[0], chunk[1] - chunk[0], StandardCharsets.UTF_8));
+            Figure existing = kept + i < existingCount ? drawing.getFigure(kept + i + 1) : null;
+            Figure figure;
+            if (existing != null && text.equals(normalize(existing.drawFigure()))) {
+                figure = existing; // Unchanged, so it is not parsed again
+            } else {
+                List<Figure> parsed = parser.parseFigures("<svg>\n" + text + "\n</svg>", filePath);
+                if (parsed.isEmpty()) {
+                    continue; // Malformed; skipped with a warning, as a full load would
+                }
+                figure = parsed.get(0);
+            }
+            if (firstDifference < 0 && figure != existing) {
+                firstDifference = replacement.size();
+            }
+            replacement.add(figure);
+            replacementEnds.add(chunk[1]);
+        }
+        if (firstDifference < 0 && kept + replacement.size() < existingCount) {
+            firstDifference = replacement.size(); // Figures were removed from the end of the file
+        }
+
+        boolean changed = firstDifference >= 0;
+        if (changed) {
+            int from = kept + firstDifference;
+            Set<Integer> removed = new HashSet<>();
+            for (int position = from + 1; position <= existingCount; position++) {
+                removed.add(position);
+            }
+            // One transaction, so that the reload is undone as one step; it is committed without
+            // saving, since the edits came from the file and another process may still be writing it
+            boolean ownTransaction = !drawing.isInTransaction();
+            if (ownTransaction) {
+                drawing.beginTransaction();
+            }
+            try {
+                drawing.removeFigures(removed);
+                drawing.addFigures(replacement.subList(firstDifference, replacement.size()));
+            } catch (RuntimeException e) {
+                if (ownTransaction) {
+                    drawing.rollbackTransaction();
+                }
+                throw e;
+            }
+            if (ownTransaction) {
+                drawing.commitTransaction(false);
+            }
+        }
+
+        int[] ends = Arrays.copyOf(figureEnds, Math.max(kept + replacementEnds.size(), 16));
+        for (int i = 0; i < replacementEnds.size(); i++) {
+            ends[kept + i] = replacementEnds.get(i);
+        }
+        figureEnds = ends;
+        figureCount = kept + replacementEnds.size();
+        updateChecksums(content, modified);
+        return changed;
+    }
+
+    /**
+     * Records the layout of a file the drawing was just loaded from completely.
+     */
+    private void takeSnapshot(byte[] content) {
+        bodyStart = headerEnd(content);
+        headerChecksum = checksum(content, 0, bodyStart);
+        List<int[]> chunks = scanFigures(content, bodyStart);
+        figureEnds = new int[Math.max(chunks.size(), 16)];
+        for (int i = 0; i < chunks.size(); i++) {
+            figureEnds[i] = chunks.get(i)[1];
+        }
+        // A malformed figure the load skipped would shift every later position, so positions are
+        // only trusted when each figure in the file made it into the drawing
+        figureCount = chunks.size() == drawing.getFigureCount() ? chunks.size() : 0;
+        blockChecksums = new long[0];
+        updateChecksums(content, 0);
+    }
+
+    /**
+     * Recomputes the block checksums of the new content, reusing those of the blocks before {@code modified}.
+     */
+    private void updateChecksums(byte[] content, int modified) {
+        int unchangedBlocks = modified / BLOCK_SIZE;
+        int blocks = (content.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        long[] checksums = Arrays.copyOf(blockChecksums, blocks);
+        for (int block = Math.min(unchangedBlocks, blocks); block < blocks; block++) {
+            checksums[block] = checksum(content, block);
+        }
+        blockChecksums = checksums;
+        length = content.length;
+    }
+
+    /**
+     * Finds the first byte at which the content differs from the snapshot, to block precision.
+     *
+     * @return The offset of the first differing block, or -1 if the content is unchanged.
+     */
+    private int firstModifiedOffset(byte[] content) {
+        if (length < 0) {
+            return 0;
+        }
+        for (int block = 0; block < blockChecksums.length; block++) {
+            int end = Math.min((block + 1) * BLOCK_SIZE, length);
+            if (end > content.length || checksum(content, block * BLOCK_SIZE, end) != blockChecksums[block]) {
+                return block * BLOCK_SIZE;
+            }
+        }
+        return content.length == length ? -1 : length;
+    }
+
+    private static long checksum(byte[] content, int block) {
+        return checksum(content, block * BLOCK_SIZE, Math.min((block + 1) * BLOCK_SIZE, content.length));
+    }
+
+    private static long checksum(byte[] content, int from, int to) {
+        CRC32 crc = new CRC32();
+        crc.update(content, from, to - from);
+        return crc.getValue();
+    }
+
+    /**
+     * Splits the body of the document, from a line start on, into its top-level figures: single
+     * element lines, or a group from its opening line to its matching closing line.
+     * Scanning stops at the closing {@code </svg>} tag. Line breaks are found on bytes, which is safe
+     * for UTF-8 because a newline byte never occurs inside a multi-byte character.
+     */
+    private static List<int[]> scanFigures(byte[] content, int from) {
+        List<int[]> chunks = new ArrayList<>();
+        int depth = 0;
+        int groupStart = -1;
+        int lineStart = from;
+        while (lineStart < content.length) {
+            int lineEnd = lineStart;
+            while (lineEnd < content.length && content[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int next = Math.min(lineEnd + 1, content.length);
+            String line = new String(content, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8).trim();
+            if (line.startsWith("</svg")) {
+                break;
+            } else if (line.startsWith("<g")) {
+                if (depth++ == 0) {
+                    groupStart = lineStart;
+                }
+            } else if (line.startsWith("</g")) {
+                if (depth > 0 && --depth == 0) {
+                    chunks.add(new int[]{groupStart, next});
+                }
+            } else if (depth == 0 && line.startsWith("<")) {
+                chunks.add(new int[]{lineStart, next});
+            }
+            lineStart = next;
+        }
+        return chunks;
+    }
+
+    /**
+     * Finds the offset just past the line holding the opening {@code <svg>} tag.
+     */
+    private static int headerEnd(byte[] content) {
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] == '>') {
+                while (i < content.length && content[i] != '\n') {
+                    i++;
+                }
+                return Math.min(i + 1, content.length);
+            }
+        }
+        return content.length;
+    }
+
+    /**
+     * Finds the start of the closing {@code </svg>} tag, or -1 if the document is incomplete.
+     */
+    private static int indexOfClosingTag(byte[] content) {
+        byte[] tag = "</svg>".getBytes(StandardCharsets.US_ASCII);
+        outer:
+        for (int i = content.length - tag.length; i >= 0; i--) {
+            for (int j = 0; j < tag.length; j++) {
+                if (content[i + j] != tag[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Normalizes the SVG text of a figure for comparison: indentation and line endings are ignored.
+     */
+    private static String normalize(String svg) {
+        StringBuilder normalized = new StringBuilder(svg.length());
+        for (String line : svg.split("\n")) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty()) {
+                if (!normalized.isEmpty()) {
+                    normalized.append('\n');
+                }
+                normalized.append(trimmed);
+            }
+        }
+        return normalized.toString();
+    }
+
+    private boolean concernsFile(WatchKey key) {
+        boolean concerns = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            concerns |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || filePath.getFileName().equals(event.context());
+        }
+        key.reset();
+        return concerns;
+    }
+
+    /**
+     * Reads the whole file.
+     *
+     * @return The file's bytes, or null if it does not exist or cannot be read.
+     */
+    private byte[] read() {
+        try {
+            return Files.readAllBytes(filePath);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("Warning: Could not read watched file: " + filePath + " - " + e.getMessage());
+            return null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,451 @@
+package svgcreator.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import svgcreator.app.Drawing;
+import svgcreator.factories.CircleFactory;
+import svgcreator.factories.FigureFactory;
+import svgcreator.factories.LineFactory;
+import svgcreator.factories.RectangleFactory;
+import svgcreator.shapes.Figure;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Serves a {@link Drawing} over HTTP using the JDK's built-in {@link HttpServer}.
+ * Every request runs on its own virtual thread, so a blocked client only parks a cheap
+ * virtual thread and the server can hold tens of thousands of connections open at once.
+ * <p>
+ * Endpoints (indices are 1-based display indices, as in the console application):
+ * <ul>
+ *   <li>{@code GET /figures?offset=&limit=} - lists figures, streamed as a JSON array.</li>
+ *   <li>{@code POST /figures} - creates a figure from a JSON body, e.g.
+ *       {@code {"type":"circle","x":10,"y":10,"radius":5,"color":"red"}}. The color must be
+ *       a CSS color name or {@code #rrggbb}.</li>
+ *   <li>{@code DELETE /figures/{index}} - removes a figure.</li>
+ *   <li>{@code POST /figures/translate} - translates one figure by {@code index}, or every figure
+ *       with {@code "all":true}, from a body such as {@code {"index":3,"dx":5,"dy":-5}}.</li>
+ *   <li>{@code GET /figures/within?type=&x=&y=&p1=&p2=} - figures within a rectangle or circle, streamed.</li>
+ *   <li>{@code GET /figures/intersecting?x=&y=&width=&height=} - figures intersecting a region, streamed.
+ *       Query results carry a {@code "resultPosition"}, their 1-based position in the result, instead of an
+ *       {@code "index"}; it is not a display index and cannot be passed to the delete or translate endpoints.</li>
+ *   <li>{@code GET /export?x=&y=&width=&height=} - the viewport as an SVG document.</li>
+ * </ul>
+ * Invalid input is answered with status 400, and any other failure with status 500.
+ * Mutations are persisted by a background save; saves requested while one is pending are
+ * coalesced, so a burst of edits costs one write. The drawing must be safe for concurrent
+ * use, e.g. a {@link svgcreator.app.ConcurrentDrawing}.
+ */
+public class DrawingHttpServer {
+
+    /**
+     * The maximum number of pending connections queued by the operating system.
+     */
+    private static final int CONNECTION_BACKLOG = 16384;
+
+    /**
+     * The number of streamed figures after which the response buffer is flushed to the client.
+     */
+    private static final int FLUSH_INTERVAL = 256;
+
+    /**
+     * Matches a hexadecimal {@code #rrggbb} color.
+     */
+    private static final Pattern HEX_COLOR = Pattern.compile("#[0-9a-fA-F]{6}");
+
+    /**
+     * The color names defined by CSS, in lower case. Colors end up in SVG attributes of the saved and
+     * exported drawing, so only these and {@link #HEX_COLOR} values are accepted from clients.
+     */
+    private static final Set<String> CSS_COLOR_NAMES = Set.of(
+            "aliceblue", "antiquewhite", "aqua", "aquamarine", "azure", "beige", "bisque", "black",
+            "blanchedalmond", "blue", "blueviolet", "brown", "burlywood", "cadetblue", "chartreuse", "chocolate",
+            "coral", "cornflowerblue", "cornsilk", "crimson", "cyan", "darkblue", "darkcyan", "darkgoldenrod",
+            "darkgray", "darkgreen", "darkgrey", "darkkhaki", "darkmagenta", "darkolivegreen", "darkorange",
+            "darkorchid", "darkred", "darksalmon", "darkseagreen", "darkslateblue", "darkslategray",
+            "darkslategrey", "darkturquoise", "darkviolet", "deeppink", "deepskyblue", "dimgray", "dimgrey",
+            "dodgerblue", "firebrick", "floralwhite", "forestgreen", "fuchsia", "gainsboro", "ghostwhite", "gold",
+            "goldenrod", "gray", "green", "greenyellow", "grey", "honeydew", "hotpink", "indianred", "indigo",
+            "ivory", "khaki", "lavender", "lavenderblush", "lawngreen", "lemonchiffon", "lightblue", "lightcoral",
+            "lightcyan", "lightgoldenrodyellow", "lightgray", "lightgreen", "lightgrey", "lightpink",
+            "lightsalmon", "lightseagreen", "lightskyblue", "lightslategray", "lightslategrey", "lightsteelblue",
+            "lightyellow", "lime", "limegreen", "linen", "magenta", "maroon", "mediumaquamarine", "mediumblue",
+            "mediumorchid", "mediumpurple", "mediumseagreen", "mediumslateblue", "mediumspringgreen",
+            "mediumturquoise", "mediumvioletred", "midnightblue", "mintcream", "mistyrose", "moccasin",
+            "navajowhite", "navy", "oldlace", "olive", "olivedrab", "orange", "orangered", "orchid",
+            "palegoldenrod", "palegreen", "paleturquoise", "palevioletred", "papayawhip", "peachpuff", "peru",
+            "pink", "plum", "powderblue", "purple", "rebeccapurple", "red", "rosybrown", "royalblue",
+            "saddlebrown", "salmon", "sandybrown", "seagreen", "seashell", "sienna", "silver", "skyblue",
+            "slateblue", "slategray", "slategrey", "snow", "springgreen", "steelblue", "tan", "teal", "thistle",
+            "tomato", "turquoise", "violet", "wheat", "white", "whitesmoke", "yellow", "yellowgreen");
+
+    private final Drawing drawing;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicBoolean savePending = new AtomicBoolean();
+
+    /**
+     * Constructs a server for a drawing, bound to a port but not yet started.
+     *
+     * @param drawing The drawing to serve; it must support concurrent access.
+     * @param port    The port to listen on, or 0 to pick a free port.
+     * @throws IOException if the port cannot be bound.
+     */
+    public DrawingHttpServer(Drawing drawing, int port) throws IOException {
+        this.drawing = drawing;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(port), CONNECTION_BACKLOG);
+        this.server.setExecutor(executor);
+        this.server.createContext("/figures", this::handleFigures);
+        this.server.createContext("/export", this::handleExport);
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops the server, waiting up to the given delay for in-flight requests,
+     * and then saves the drawing once more so no edit is lost.
+     *
+     * @param delaySeconds The maximum time to wait for in-flight requests, in seconds.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.close(); // Waits for pending background saves
+        drawing.saveToFile();
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     *
+     * @return The bound port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Dispatches a request below {@code /figures}, turning invalid input into a 400 response
+     * and any other failure into a 500 response.
+     */
+    private void handleFigures(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            try {
+                switch (path) {
+                    case "/figures", "/figures/" -> {
+                        if (method.equals("GET")) {
+                            listFigures(exchange, query);
+                        } else if (method.equals("POST")) {
+                            createFigure(exchange);
+                        } else {
+                            sendError(exchange, 405, "Method not allowed.");
+                        }
+                    }
+                    case "/figures/translate" -> {
+                        if (method.equals("POST")) {
+                            translateFigures(exchange);
+                        } else {
+                            sendError(exchange, 405, "Method not allowed.");
+                        }
+                    }
+                    case "/figures/within" -> {
+                        if (method.equals("GET")) {
+                            streamFigures(exchange, drawing.getFiguresWithinBoundary(required(query, "type"),
+                                    intParam(query, "x"), intParam(query, "y"),
+                                    intParam(query, "p1"), optionalInt(query, "p2", 0)), "resultPosition", 1);
+                        } else {
+                            sendError(exchange, 405, "Method not allowed.");
+                        }
+                    }
+                    case "/figures/intersecting" -> {
+                        if (method.equals("GET")) {
+                            streamFigures(exchange, drawing.getFiguresIntersecting(intParam(query, "x"), intParam(query, "y"),
+                                    intParam(query, "width"), intParam(query, "height")), "resultPosition", 1);
+                        } else {
+                            sendError(exchange, 405, "Method not allowed.");
+                        }
+                    }
+                    default -> {
+                        if (method.equals("DELETE") && path.startsWith("/figures/")) {
+                            deleteFigure(exchange, parseInt(path.substring("/figures/".length()), "index"));
+                        } else {
+                            sendError(exchange, 404, "No such resource: " + path);
+                        }
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (RuntimeException e) {
+                sendInternalError(exchange, e);
+            }
+        }
+    }
+
+    /**
+     * Handles {@code GET /export}, streaming the exported viewport from a temporary file.
+     */
+    private void handleExport(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                sendError(exchange, 405, "Method not allowed.");
+                return;
+            }
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            int x, y, width, height;
+            try {
+                x = intParam(query, "x");
+                y = intParam(query, "y");
+                width = intParam(query, "width");
+                height = intParam(query, "height");
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+            Path export = Files.createTempFile("svg-export", ".svg");
+            try {
+                drawing.exportViewport(export, x, y, width, height);
+                exchange.getResponseHeaders().set("Content-Type", "image/svg+xml");
+                exchange.sendResponseHeaders(200, Files.size(export));
+                Files.copy(export, exchange.getResponseBody());
+            } catch (RuntimeException e) {
+                sendInternalError(exchange, e);
+            } finally {
+                Files.deleteIfExists(export);
+            }
+        }
+    }
+
+    /**
+     * Handles {@code GET /figures}, honoring the optional {@code offset} and {@code limit} parameters.
+     */
+    private void listFigures(HttpExchange exchange, Map<String, String> query) throws IOException {
+        int offset = optionalInt(query, "offset", 0);
+        int limit = optionalInt(query, "limit", Integer.MAX_VALUE);
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset and limit must not be negative.");
+        }
+        streamFigures(exchange, drawing.getFigures(offset, limit), "index", offset + 1);
+    }
+
+    /**
+     * Handles {@code POST /figures}, creating the figure through the matching factory.
+     */
+    private void createFigure(HttpExchange exchange) throws IOException {
+        Map<String, String> body = Json.parseObject(readBody(exchange));
+        String type = required(body, "type").toLowerCase();
+        int x = intParam(body, "x");
+        int y = intParam(body, "y");
+        String color = color(body);
+        FigureFactory factory = switch (type) {
+            case "circle" -> new CircleFactory(x, y, positive(body, "radius"), color);
+            case "rectangle" -> new RectangleFactory(x, y, color, positive(body, "width"), positive(body, "height"));
+            case "line" -> new LineFactory(x, y, color, intParam(body, "x2"), intParam(body, "y2"));
+            default -> throw new IllegalArgumentException("Unknown figure type '" + type + "'.");
+        };
+        Figure figure = factory.createFigure();
+        drawing.addFigure(figure);
+        scheduleSave();
+        sendJson(exchange, 201, Json.figure(figure, indexOf(figure)));
+    }
+
+    /**
+     * Handles {@code DELETE /figures/{index}}.
+     */
+    private void deleteFigure(HttpExchange exchange, int index) throws IOException {
+        if (!drawing.removeFigure(index)) {
+            sendError(exchange, 404, "No figure #" + index + ".");
+            return;
+        }
+        scheduleSave();
+        sendJson(exchange, 200, "{\"removed\":" + index + "}");
+    }
+
+    /**
+     * Handles {@code POST /figures/translate}. The body names either one figure by {@code index}
+     * or every figure with {@code "all":true}; a body naming neither or both is rejected.
+     */
+    private void translateFigures(HttpExchange exchange) throws IOException {
+        Map<String, String> body = Json.parseObject(readBody(exchange));
+        boolean all = "true".equals(body.get("all"));
+        if (all == body.containsKey("index")) {
+            throw new IllegalArgumentException("Give either 'index' or \"all\":true.");
+        }
+        int index = all ? 0 : positive(body, "index");
+        int dx = intParam(body, "dx");
+        int dy = intParam(body, "dy");
+        if (all) {
+            drawing.translateAllFigures(dx, dy);
+        } else if (!drawing.translateSingleFigure(index, dx, dy)) {
+            sendError(exchange, 404, "No figure #" + index + ".");
+            return;
+        }
+        scheduleSave();
+        sendJson(exchange, 200, "{\"translated\":" + (all ? "\"all\"" : String.valueOf(index)) + "}");
+    }
+
+    /**
+     * Streams figures as a JSON array using chunked transfer encoding, so a large result is
+     * never formatted in memory as a whole.
+     *
+     * @param positionName The member each figure's position is reported in: {@code "index"} for display
+     *                     indices, {@code "resultPosition"} for positions in a query result.
+     * @param first The position reported for the first figure; the following ones count up from it.
+     */
+    private void streamFigures(HttpExchange exchange, List<Figure> figures, String positionName, int first) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0); // 0 selects chunked encoding
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+            out.write('[');
+            for (int i = 0; i < figures.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(Json.figure(figures.get(i), positionName, first + i));
+                if ((i + 1) % FLUSH_INTERVAL == 0) {
+                    out.flush(); // Lets the client start consuming before the whole array is written
+                }
+            }
+            out.write(']');
+        }
+    }
+
+    /**
+     * Finds the display index of a figure just added; it is searched from the end, where it
+     * is found immediately unless other requests appended figures in the meantime.
+     *
+     * @return The 1-based display index, or 0 if the figure was already removed again.
+     */
+    private int indexOf(Figure figure) {
+        List<Figure> figures = drawing.getAllFigures();
+        for (int i = figures.size() - 1; i >= 0; i--) {
+            if (figures.get(i) == figure) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Persists the drawing in the background. Requests arriving while a save is pending
+     * are folded into it, because that save has not yet read the drawing.
+     */
+    private void scheduleSave() {
+        if (savePending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                savePending.set(false);
+                drawing.saveToFile();
+            });
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, "{\"error\":" + Json.string(message == null ? "Bad request." : message) + "}");
+    }
+
+    /**
+     * Answers a request that failed unexpectedly with status 500, unless the response was already started.
+     */
+    private static void sendInternalError(HttpExchange exchange, RuntimeException e) throws IOException {
+        System.err.println("ERROR: " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed: " + e);
+        if (exchange.getResponseCode() == -1) {
+            sendError(exchange, 500, "Internal server error.");
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter '" + name + "'.");
+        }
+        return value;
+    }
+
+    private static int intParam(Map<String, String> params, String name) {
+        return parseInt(required(params, name), name);
+    }
+
+    private static int optionalInt(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        return value == null ? defaultValue : parseInt(value, name);
+    }
+
+    private static int positive(Map<String, String> params, String name) {
+        int value = intParam(params, name);
+        if (value <= 0) {
+            throw new IllegalArgumentException("'" + name + "' must be positive.");
+        }
+        return value;
+    }
+
+    /**
+     * Reads the optional {@code color} parameter, which defaults to black.
+     *
+     * @throws IllegalArgumentException if the color is neither a CSS color name nor {@code #rrggbb}.
+     */
+    private static String color(Map<String, String> params) {
+        String color = params.getOrDefault("color", "black");
+        if (color == null || !(CSS_COLOR_NAMES.contains(color.toLowerCase()) || HEX_COLOR.matcher(color).matches())) {
+            throw new IllegalArgumentException("'color' must be a CSS color name or #rrggbb.");
+        }
+        return color;
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + name + "' must be an integer, got '" + value + "'.");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,546 @@
+package svgcreator.app;
+
+import svgcreator.persistence.SvgPersistenceService;
+import svgcreator.shapes.Figure;
+import svgcreator.utils.Transform;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * Opens drawings on demand by path and keeps recently used ones resident under a memory budget.
+ * <p>
+ * {@link #open(Path)} returns a {@link Handle} that pins the drawing until it is closed. When the
+ * estimated memory of all resident drawings exceeds the budget, unpinned drawings are evicted in
+ * least-recently-opened order; a drawing edited since it was last saved is saved before it is
+ * dropped. Pinned drawings are never evicted, so the budget can be exceeded while they are open.
+ * Concurrent opens of the same file share a single load, and every holder gets the same drawing.
+ * </p>
+ * The memory of a drawing is estimated from its figure count, see {@link #ESTIMATED_FIGURE_BYTES}.
+ * Drawings handed out may be used from several threads at once, so the default factory creates
+ * {@link ConcurrentDrawing}s.
+ */
+public class DrawingRegistry implements AutoCloseable {
+
+    /**
+     * Estimated memory, in bytes, a resident figure costs, including its share of the list and index.
+     */
+    public static final long ESTIMATED_FIGURE_BYTES = 160;
+
+    /**
+     * Estimated memory, in bytes, a resident drawing costs regardless of its figures.
+     */
+    public static final long ESTIMATED_DRAWING_BYTES = 4096;
+
+    /**
+     * A pinned, open drawing. Closing the handle unpins the drawing, making it eligible for eviction;
+     * the drawing must not be used through this handle afterwards.
+     */
+    public final class Handle implements AutoCloseable {
+        private final Entry entry;
+        private boolean closed;
+
+        private Handle(Entry entry) {
+            this.entry = entry;
+        }
+
+        /**
+         * Gets the open drawing.
+         *
+         * @return The drawing, shared with every other holder of a handle for the same file.
+         * @throws IllegalStateException if the handle was closed.
+         */
+        public Drawing drawing() {
+            if (closed) {
+                throw new IllegalStateException("The drawing handle was closed.");
+            }
+            return entry.drawing;
+        }
+
+        /**
+         * Unpins the drawing and evicts cold drawings if the registry is over its budget.
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            synchronized (DrawingRegistry.this) {
+                entry.pins--;
+            }
+            evictIfOverBudget();
+        }
+    }
+
+    /**
+     * The registry's record of one file. Until the load completes, {@code drawing} is null.
+     */
+    private static final class Entry {
+        final Path path;
+        final CompletableFuture<TrackedDrawing> loaded = new CompletableFuture<>();
+        TrackedDrawing drawing; // Set once loaded
+        int pins; // Guarded by the registry
+        boolean flushing; // Guarded by the registry; set while an eviction saves the drawing
+
+        Entry(Path path) {
+            this.path = path;
+        }
+    }
+
+    private final SvgPersistenceService persistenceService;
+    private final BiFunction<SvgPersistenceService, Path, ? extends Drawing> drawingFactory;
+    private final long memoryBudget;
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // Least recently opened first
+    private boolean closed;
+
+    /**
+     * Constructs a registry that opens files as {@link ConcurrentDrawing}s.
+     *
+     * @param persistenceService The service used to load and save the drawings.
+     * @param memoryBudget The estimated memory, in bytes, unpinned resident drawings may use.
+     */
+    public DrawingRegistry(SvgPersistenceService persistenceService, long memoryBudget) {
+        this(persistenceService, memoryBudget, ConcurrentDrawing::new);
+    }
+
+    /**
+     * Constructs a registry.
+     *
+     * @param persistenceService The service used to load and save the drawings.
+     * @param memoryBudget The estimated memory, in bytes, unpinned resident drawings may use.
+     * @param drawingFactory Creates an empty drawing for a file; the registry loads it.
+     * @throws IllegalArgumentException if the memory budget is negative.
+     */
+    public DrawingRegistry(SvgPersistenceService persistenceService, long memoryBudget,
+                           BiFunction<SvgPersistenceService, Path, ? extends Drawing> drawingFactory) {
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("Memory budget cannot be negative.");
+        }
+        this.persistenceService = persistenceService;
+        this.memoryBudget = memoryBudget;
+        this.drawingFactory = drawingFactory;
+    }
+
+    /**
+     * Opens the drawing stored at a path, loading it unless it is already resident.
+     * If another thread is loading the same file, this call waits for that load instead of starting another.
+     *
+     * @param path The path of the SVG file; paths are compared after normalization.
+     * @return A handle pinning the drawing until it is closed.
+     * @throws IllegalStateException if the registry is closed.
+     * @throws RuntimeException whatever creating or loading the drawing threw.
+     */
+    public Handle open(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        Entry entry;
+        boolean loader = false;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("The drawing registry is closed.");
+            }
+            entry = entries.get(key); // Also marks the entry as most recently opened
+            if (entry == null) {
+                entry = new Entry(key);
+                entries.put(key, entry);
+                loader = true;
+            }
+            entry.pins++;
+        }
+
+        if (loader) {
+            load(entry); // Outside the lock, so other files can be opened meanwhile
+        }
+        try {
+            entry.loaded.join();
+        } catch (CompletionException e) {
+            synchronized (this) {
+                entry.pins--;
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        if (loader) {
+            evictIfOverBudget();
+        }
+        return new Handle(entry);
+    }
+
+    /**
+     * Checks whether the drawing stored at a path is currently resident.
+     *
+     * @param path The path of the SVG file.
+     * @return true if the drawing is loaded or being loaded.
+     */
+    public synchronized boolean isResident(Path path) {
+        return entries.containsKey(path.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Gets the number of resident drawings.
+     *
+     * @return The number of drawings loaded or being loaded.
+     */
+    public synchronized int getResidentCount() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the estimated memory used by the resident drawings.
+     *
+     * @return The estimate, in bytes.
+     */
+    public synchronized long getEstimatedBytes() {
+        long total = 0;
+        for (Entry entry : entries.values()) {
+            total += estimatedBytes(entry);
+        }
+        return total;
+    }
+
+    /**
+     * Saves every resident drawing edited since it was last saved. The drawings stay resident;
+     * one that cannot be written is reported and stays dirty, so the next flush retries it.
+     */
+    public void flushAll() {
+        List<Entry> resident;
+        synchronized (this) {
+            resident = new ArrayList<>(entries.values());
+        }
+        for (Entry entry : resident) {
+            if (entry.loaded.isDone() && !entry.loaded.isCompletedExceptionally()) {
+                entry.drawing.flush();
+            }
+        }
+    }
+
+    /**
+     * Saves every edited drawing and drops all drawings. Handles still open keep working on their
+     * drawing, but it is no longer saved by the registry.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flushAll();
+        synchronized (this) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Creates and loads the drawing for an entry, completing its future either way.
+     */
+    private void load(Entry entry) {
+        try {
+            TrackedDrawing drawing = new TrackedDrawing(drawingFactory.apply(persistenceService, entry.path),
+                    persistenceService, entry.path);
+            drawing.loadFromFile();
+            synchronized (this) {
+                entry.drawing = drawing;
+            }
+            entry.loaded.complete(drawing);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                entries.remove(entry.path, entry); // A later open retries the load
+            }
+            entry.loaded.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Evicts unpinned drawings, least recently opened first, until the estimate fits the budget.
+     * Edited drawings are saved outside the lock and dropped only if they were saved and neither
+     * pinned nor edited again while saving; otherwise they stay resident, and a drawing that could
+     * not be saved is passed over in favour of the next one.
+     */
+    private void evictIfOverBudget() {
+        Set<Entry> unsaved = new HashSet<>(); // Drawings whose save failed during this eviction
+        while (true) {
+            Entry victim = null;
+            synchronized (this) {
+                long total = 0;
+                for (Entry entry : entries.values()) {
+                    total += estimatedBytes(entry);
+                }
+                if (total <= memoryBudget) {
+                    return;
+                }
+                for (Entry entry : entries.values()) { // Iterates in LRU order
+                    if (entry.pins == 0 && !entry.flushing && entry.drawing != null && !unsaved.contains(entry)) {
+                        victim = entry;
+                        break;
+                    }
+                }
+                if (victim == null) {
+                    return; // Everything else is pinned, loading, unsaved or being flushed by another thread
+                }
+                if (!victim.drawing.isDirty()) {
+                    entries.remove(victim.path);
+                    continue;
+                }
+                victim.flushing = true;
+            }
+
+            boolean saved;
+            try {
+                saved = victim.drawing.flush();
+            } finally {
+                synchronized (this) {
+                    victim.flushing = false;
+                }
+            }
+            if (!saved) {
+                unsaved.add(victim); // Keeps its edits resident; a later eviction or flush retries
+                continue;
+            }
+            synchronized (this) {
+                if (victim.pins == 0 && !victim.drawing.isDirty() && entries.get(victim.path) == victim) {
+                    entries.remove(victim.path);
+                } else if (victim.pins == 0) {
+                    return; // Edited again while saving; leave it for the next eviction rather than spin
+                }
+            }
+        }
+    }
+
+    private static long estimatedBytes(Entry entry) {
+        return entry.drawing == null ? ESTIMATED_DRAWING_BYTES
+                : ESTIMATED_DRAWING_BYTES + ESTIMATED_FIGURE_BYTES * entry.drawing.getFigureCount();
+    }
+
+    /**
+     * Decorates a drawing to track whether it has been edited since it was last saved.
+     * Every call that may change the figures counts as an edit, whether or not it did.
+     */
+    private static final class TrackedDrawing implements Drawing {
+        private final Drawing delegate;
+        private final SvgPersistenceService persistenceService; // Saves with failures reported, for flush
+        private final Path filePath;
+        private volatile long version; // Incremented after every potential edit
+        private volatile long savedVersion;
+
+        TrackedDrawing(Drawing delegate, SvgPersistenceService persistenceService, Path filePath) {
+            this.delegate = delegate;
+            this.persistenceService = persistenceService;
+            this.filePath = filePath;
+        }
+
+        boolean isDirty() {
+            return version != savedVersion;
+        }
+
+        /**
+         * Saves the drawing if it was edited since it was last saved. An edit racing with the save
+         * leaves the drawing dirty, because the version is read before saving. So does a failed save,
+         * which is reported on {@code System.err}, so the edits are never taken for saved.
+         *
+         * @return true if the drawing needed no save or was saved; false if it is in a transaction
+         *         or could not be written.
+         */
+        boolean flush() {
+            long current = version;
+            if (current == savedVersion) {
+                return true;
+            }
+            if (delegate.isInTransaction()) {
+                return false;
+            }
+            try {
+                persistenceService.saveFiguresOrThrow(delegate.getAllFigures(), filePath);
+            } catch (IOException e) {
+                System.err.println("ERROR: Could not save drawing " + filePath + "; keeping its edits in memory - " + e.getMessage());
+                return false;
+            }
+            savedVersion = current;
+            return true;
+        }
+
+        private synchronized void edited() {
+            version++;
+        }
+
+        @Override
+        public void addFigure(Figure figure) {
+            delegate.addFigure(figure);
+            edited();
+        }
+
+        @Override
+        public void addFigures(Collection<? extends Figure> figures) {
+            delegate.addFigures(figures);
+            edited();
+        }
+
+        @Override
+        public boolean removeFigure(int displayIndex) {
+            boolean removed = delegate.removeFigure(displayIndex);
+            edited();
+            return removed;
+        }
+
+        @Override
+        public int removeFigures(Set<Integer> displayIndices) {
+            int removed = delegate.removeFigures(displayIndices);
+            edited();
+            return removed;
+        }
+
+        @Override
+        public int removeFiguresIf(Predicate<? super Figure> filter) {
+            int removed = delegate.removeFiguresIf(filter);
+            edited();
+            return removed;
+        }
+
+        @Override
+        public Figure getFigure(int displayIndex) {
+            edited(); // The caller may modify the returned figure in place
+            return delegate.getFigure(displayIndex);
+        }
+
+        @Override
+        public List<Figure> getAllFigures() {
+            return delegate.getAllFigures();
+        }
+
+        @Override
+        public List<Figure> getFigures(int offset, int limit) {
+            return delegate.getFigures(offset, limit);
+        }
+
+        @Override
+        public void translateAllFigures(int dx, int dy) {
+            delegate.translateAllFigures(dx, dy);
+            edited();
+        }
+
+        @Override
+        public boolean translateSingleFigure(int displayIndex, int dx, int dy) {
+            boolean translated = delegate.translateSingleFigure(displayIndex, dx, dy);
+            edited();
+            return translated;
+        }
+
+        @Override
+        public int translateFigures(Set<Integer> displayIndices, int dx, int dy) {
+            int translated = delegate.translateFigures(displayIndices, dx, dy);
+            edited();
+            return translated;
+        }
+
+        @Override
+        public int translateFiguresIf(Predicate<? super Figure> filter, int dx, int dy) {
+            int translated = delegate.translateFiguresIf(filter, dx, dy);
+            edited();
+            return translated;
+        }
+
+        @Override
+        public void transformAllFigures(Transform transform) {
+            delegate.transformAllFigures(transform);
+            edited();
+        }
+
+        @Override
+        public boolean transformSingleFigure(int displayIndex, Transform transform) {
+            boolean transformed = delegate.transformSingleFigure(displayIndex, transform);
+            edited();
+            return transformed;
+        }
+
+        @Override
+        public int transformFiguresIf(Predicate<? super Figure> filter, Transform transform) {
+            int transformed = delegate.transformFiguresIf(filter, transform);
+            edited();
+            return transformed;
+        }
+
+        @Override
+        public List<Figure> getFiguresWithinBoundary(String boundaryType, int bx, int by, int bParam1, int bParam2) {
+            return delegate.getFiguresWithinBoundary(boundaryType, bx, by, bParam1, bParam2);
+        }
+
+        @Override
+        public List<Figure> getFiguresIntersecting(int x, int y, int width, int height) {
+            return delegate.getFiguresIntersecting(x, y, width, height);
+        }
+
+        @Override
+        public void exportViewport(Path targetPath, int x, int y, int width, int height) {
+            delegate.exportViewport(targetPath, x, y, width, height);
+        }
+
+        @Override
+        public StandingQuery registerStandingQuery(String boundaryType, int bx, int by, int bParam1, int bParam2,
+                                                   StandingQueryListener listener) {
+            return delegate.registerStandingQuery(boundaryType, bx, by, bParam1, bParam2, listener);
+        }
+
+        @Override
+        public boolean unregisterStandingQuery(StandingQuery query) {
+            return delegate.unregisterStandingQuery(query);
+        }
+
+        @Override
+        public void loadFromFile() {
+            long current = version;
+            delegate.loadFromFile();
+            if (!delegate.isInTransaction()) {
+                savedVersion = current; // The drawing now matches the file again
+            }
+        }
+
+        @Override
+        public void saveToFile() {
+            long current = version;
+            delegate.saveToFile();
+            if (!delegate.isInTransaction()) {
+                savedVersion = current;
+            }
+        }
+
+        @Override
+        public void beginTransaction() {
+            delegate.beginTransaction();
+        }
+
+        @Override
+        public void commitTransaction() {
+            delegate.commitTransaction();
+            edited(); // Whether the commit saved depends on the delegate, so the next flush saves again
+        }
+
+        @Override
+        public void commitTransaction(boolean persist) {
+            delegate.commitTransaction(persist);
+            edited();
+        }
+
+        @Override
+        public void rollbackTransaction() {
+            delegate.rollbackTransaction();
+            edited();
+        }
+
+        @Override
+        public boolean isInTransaction() {
+            return delegate.isInTransaction();
+        }
+
+        @Override
+        public int getFigureCount() {
+            return delegate.getFigureCount();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package svgcreator.app.actions;
+
+import svgcreator.app.Drawing;
+import svgcreator.app.MenuAction;
+import svgcreator.ui.ConsoleUI;
+
+/**
+ * Represents the action of starting or ending an edit session.
+ * This class implements the {@link MenuAction} interface. An edit session is a
+ * {@link Drawing} transaction: edits made by other menu actions while it is open are
+ * grouped into one unit, which is either written to the file once when committed or
+ * discarded entirely when rolled back.
+ */
+public class EditSessionAction implements MenuAction {
+    private final ConsoleUI ui;
+    private final Drawing drawing;
+
+    /**
+     * Constructs an {@code EditSessionAction} instance.
+     *
+     * @param ui The console user interface used for interacting with the user
+     *           (e.g., asking whether to commit the session).
+     * @param drawing The {@link Drawing} model on which the transaction is begun and ended.
+     */
+    public EditSessionAction(ConsoleUI ui, Drawing drawing) {
+        this.ui = ui;
+        this.drawing = drawing;
+    }
+
+    /**
+     * Executes the edit session toggle.
+     * <p>
+     * This method performs the following steps:
+     * <ol>
+     *   <li>If no session is open, begins a transaction on the {@link Drawing} and displays a message.</li>
+     *   <li>Otherwise, asks the user whether to keep the session's changes:
+     *     <ul>
+     *       <li>If yes, commits the transaction, which saves the drawing once.</li>
+     *       <li>If no, rolls the transaction back, restoring the drawing as it was when the session began.</li>
+     *     </ul>
+     *   </li>
+     * </ol>
+     *
+     * @return {@code true} to indicate that the application should continue running.
+     *         This action does not terminate the application.
+     */
+    @Override
+    public boolean execute() {
+        if (!drawing.isInTransaction()) {
+            drawing.beginTransaction();
+            ui.showMessage("Edit session started. Changes will be saved together when the session is committed.");
+            return true; // Continue running
+        }
+
+        if (ui.getConfirmation("Commit the changes made in this edit session?")) {
+            drawing.commitTransaction();
+            ui.showMessage("Edit session committed and drawing saved.");
+        } else {
+            drawing.rollbackTransaction();
+            ui.showMessage("Edit session rolled back. All changes since it began were discarded.");
+        }
+        return true; // Always continue running after this action
+    }
+}
\ No newline at end of file
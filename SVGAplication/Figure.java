@@ -1,14 +1,22 @@
 package svgcreator.shapes;
 
+import svgcreator.utils.Transform;
+
 /**
  * Represents an abstract geometric figure, serving as a base class for specific shapes
  * like {@link Circle}, {@link Rectangle}, and {@link Line}.
  * It defines common properties such as position (x and y coordinates) and color,
  * as well as an abstract method for generating an SVG string representation.
+ * <p>
+ * A figure may also carry an affine {@link Transform}, which is applied on top of its
+ * coordinates when it is measured, queried or exported. Scaling and rotation only compose
+ * into this matrix; the coordinates themselves are left untouched until the transform is baked.
+ * </p>
  */
 public abstract class Figure {
     private int xAxis, yAxis;
     private String color; // Common color property (e.g., fill for Circle/Rectangle, stroke for Line)
+    private Transform transform; // Composed affine transform, or null for the identity
 
     /**
      * Constructs a {@code Figure} with specified coordinates and color.
@@ -67,6 +75,34 @@ public abstract class Figure {
     public void setYAxis(int yAxis) {
         this.yAxis = yAxis;
     }
+
+    /**
+     * Gets the affine transform applied to this figure.
+     *
+     * @return The transform, or {@code null} if the figure is drawn at its plain coordinates.
+     */
+    public Transform getTransform() {
+        return transform;
+    }
+
+    /**
+     * Sets the affine transform applied to this figure.
+     *
+     * @param transform The new transform; {@code null} or the identity removes it.
+     */
+    public void setTransform(Transform transform) {
+        this.transform = transform == null || transform.isIdentity() ? null : transform;
+    }
+
+    /**
+     * Builds the SVG {@code transform} attribute for this figure, for use by {@link #drawFigure()}.
+     *
+     * @return The attribute with a leading space, or an empty string if the figure has no transform.
+     */
+    protected String transformAttribute() {
+        return transform == null ? "" : " transform='" + transform.toSvg() + "'";
+    }
+
     /**
      * Abstract method to generate the SVG string representation for this specific figure.
      * Concrete subclasses (e.g., {@link Circle}, {@link Rectangle}) must implement this
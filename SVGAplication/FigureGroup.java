@@ -0,0 +1,192 @@
+package svgcreator.shapes;
+
+import svgcreator.utils.BoundingBox;
+import svgcreator.utils.GeometryUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents a group of figures (or a named layer) in an SVG context.
+ * This class extends the abstract {@link Figure} class: its x and y coordinates are the
+ * group's own translation, applied to every child, so moving a whole group only changes
+ * two integers regardless of how many figures it contains.
+ * <p>
+ * Children are stored in the group's local coordinate space and may themselves be groups.
+ * The local bounding box of the children is maintained incrementally; children should
+ * therefore be added, removed and moved through this class rather than modified directly.
+ * A group has no color of its own, so {@link #getColor()} returns {@code null}.
+ * </p>
+ */
+public class FigureGroup extends Figure {
+    private final String name;
+    private final List<Figure> children;
+    private BoundingBox localBounds; // Union of the children's boxes in local coordinates
+    private boolean boundsStale; // Set when a child on the edge of localBounds was removed or moved
+
+    /**
+     * Constructs an empty {@code FigureGroup} with the specified translation and name.
+     *
+     * @param xAxis The horizontal translation applied to the group's children.
+     * @param yAxis The vertical translation applied to the group's children.
+     * @param name  The name of the group or layer, written as its SVG {@code id}; may be {@code null}.
+     */
+    public FigureGroup(int xAxis, int yAxis, String name) {
+        super(xAxis, yAxis, null);
+        this.name = name;
+        this.children = new ArrayList<>();
+    }
+
+    /**
+     * Gets the name of this group.
+     *
+     * @return The group's name, or {@code null} if it is unnamed.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the children of this group, in paint order.
+     *
+     * @return A read-only view of the children, in the group's local coordinates.
+     */
+    public List<Figure> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * Adds a figure to the end of this group.
+     *
+     * @param child The figure to add, in the group's local coordinates.
+     */
+    public void addChild(Figure child) {
+        if (child == null) {
+            return;
+        }
+        children.add(child);
+        BoundingBox box = GeometryUtils.getBoundingBox(child);
+        if (box != null && !boundsStale) {
+            localBounds = localBounds == null ? box : localBounds.union(box);
+        }
+    }
+
+    /**
+     * Removes a figure from this group.
+     *
+     * @param child The figure to remove.
+     * @return {@code true} if the figure was a child of this group, {@code false} otherwise.
+     */
+    public boolean removeChild(Figure child) {
+        BoundingBox box = GeometryUtils.getBoundingBox(child);
+        if (!children.remove(child)) {
+            return false;
+        }
+        invalidateIfOnEdge(box);
+        return true;
+    }
+
+    /**
+     * Translates one child of this group within the group's local coordinates.
+     *
+     * @param child The child to move.
+     * @param dx    The amount to translate along the x-axis.
+     * @param dy    The amount to translate along the y-axis.
+     * @return {@code true} if the figure is a child of this group and was moved, {@code false} otherwise.
+     */
+    public boolean translateChild(Figure child, int dx, int dy) {
+        if (!children.contains(child)) {
+            return false;
+        }
+        BoundingBox before = GeometryUtils.getBoundingBox(child);
+        GeometryUtils.translateFigure(child, dx, dy);
+        invalidateIfOnEdge(before);
+        BoundingBox after = GeometryUtils.getBoundingBox(child);
+        if (after != null && !boundsStale) {
+            localBounds = localBounds == null ? after : localBounds.union(after);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the bounding box of this group's children, in the group's local coordinates.
+     *
+     * @return The local bounding box, or {@code null} if the group has no measurable children.
+     */
+    public BoundingBox getLocalBoundingBox() {
+        if (boundsStale) {
+            localBounds = null;
+            for (Figure child : children) {
+                BoundingBox box = GeometryUtils.getBoundingBox(child);
+                if (box != null) {
+                    localBounds = localBounds == null ? box : localBounds.union(box);
+                }
+            }
+            boundsStale = false;
+        }
+        return localBounds;
+    }
+
+    /**
+     * Gets the bounding box of this group's children, with the group's translation applied.
+     *
+     * The group's own affine transform, if any, is not included; see {@link GeometryUtils#getBoundingBox}.
+     *
+     * @return The bounding box, or {@code null} if the group has no measurable children.
+     */
+    public BoundingBox getBoundingBox() {
+        BoundingBox local = getLocalBoundingBox();
+        return local == null ? null : local.translate(getXAxis(), getYAxis());
+    }
+
+    /**
+     * Marks the cached local bounding box for recomputation.
+     * Needed only when children were transformed in place instead of through this class,
+     * e.g. when a transform is baked into them.
+     */
+    public void invalidateBoundingBox() {
+        boundsStale = true;
+    }
+
+    /**
+     * Generates the SVG string representation for this group and its children.
+     * The format is a {@code <g transform='translate(...)'>} element with one child per line,
+     * closed by {@code </g>} on its own line. If the group has an affine transform, it is written
+     * as a {@code matrix(...)} before the translation.
+     *
+     * @return A string representing the SVG element for this group.
+     */
+    @Override
+    public String drawFigure() {
+        StringBuilder svg = new StringBuilder("<g transform='");
+        if (getTransform() != null) {
+            svg.append(getTransform().toSvg()).append(' '); // Applied after the group's own translation
+        }
+        svg.append("translate(").append(getXAxis()).append(',').append(getYAxis()).append(")'");
+        if (name != null) {
+            svg.append(" id='").append(name).append('\'');
+        }
+        svg.append('>');
+        for (Figure child : children) {
+            for (String line : child.drawFigure().split("\n")) {
+                svg.append("\n  ").append(line);
+            }
+        }
+        return svg.append("\n</g>").toString();
+    }
+
+    /**
+     * Marks the cached bounds for recomputation if a box that is no longer there touched its edge.
+     * Boxes strictly inside the bounds cannot shrink them, so they need no recomputation.
+     */
+    private void invalidateIfOnEdge(BoundingBox box) {
+        if (box == null || localBounds == null || boundsStale) {
+            return;
+        }
+        if (box.minX() == localBounds.minX() || box.minY() == localBounds.minY()
+                || box.maxX() == localBounds.maxX() || box.maxY() == localBounds.maxY()) {
+            boundsStale = true;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+package svgcreator.app.actions;
+
+import svgcreator.app.Drawing;
+import svgcreator.shapes.Circle;
+import svgcreator.shapes.Figure;
+import svgcreator.shapes.FigureGroup;
+import svgcreator.shapes.Line;
+import svgcreator.shapes.Rectangle;
+import svgcreator.ui.ConsoleUI;
+import svgcreator.utils.GeometryUtils;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Resolves the figures an action applies to, as chosen by the user through
+ * {@link ConsoleUI#getSelectionMode(String, boolean)}.
+ * Selections of several figures are returned as a predicate, so the action can apply itself to all of
+ * them in a single pass over the drawing (e.g. with {@link Drawing#removeFiguresIf}) without copying
+ * or listing the figures first.
+ * This class cannot be instantiated.
+ */
+final class FigureSelection {
+
+    /**
+     * The figures selected by the user. Exactly one of the following holds: a single figure is
+     * selected by {@code index}, several figures are selected by {@code filter}, or, if neither is
+     * set, all figures are selected.
+     *
+     * @param index       The 1-based index of the single selected figure, or 0.
+     * @param filter      The predicate selecting the figures, or null.
+     * @param description A description of the selected figures for messages, e.g. "of type circle".
+     */
+    record Selection(int index, Predicate<? super Figure> filter, String description) {}
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private FigureSelection() {
+        // This class is not meant to be instantiated.
+    }
+
+    /**
+     * Asks the user which figures to select and resolves the selection.
+     * <p>
+     * This method performs the following steps:
+     * <ol>
+     *   <li>Asks for the selection mode via the {@link ConsoleUI}.</li>
+     *   <li>For a single figure, asks for its number, listing the figures page by page first
+     *       only if the user chose to see them.</li>
+     *   <li>For a region, looks up the figures whose bounding boxes intersect it with
+     *       {@link Drawing#getFiguresIntersecting}, which may be answered from a spatial index, and keeps
+     *       those completely within it.</li>
+     *   <li>For a type or color, builds a predicate testing each figure.</li>
+     * </ol>
+     *
+     * @param ui       The console user interface used for the prompts.
+     * @param drawing  The {@link Drawing} whose figures are selected.
+     * @param verb     What will be done to the figures, e.g. "delete", for the prompts.
+     * @param offerAll Whether selecting all figures at once is offered.
+     * @return The selection, or null if the user cancelled or entered an invalid region.
+     */
+    static Selection select(ConsoleUI ui, Drawing drawing, String verb, boolean offerAll) {
+        ConsoleUI.SelectionMode mode = ui.getSelectionMode(verb, offerAll);
+        if (mode == null) {
+            return null;
+        }
+        switch (mode) {
+            case NUMBER, LISTED_NUMBER -> {
+                if (mode == ConsoleUI.SelectionMode.LISTED_NUMBER) {
+                    new ShowAllFiguresAction(ui, drawing).execute();
+                }
+                int index = ui.getFigureIndex(verb, drawing.getFigureCount());
+                return index == 0 ? null : new Selection(index, null, "#" + index);
+            }
+            case REGION -> {
+                ConsoleUI.BoundaryData boundary = ui.getBoundaryDetails();
+                return boundary == null ? null : new Selection(0, within(drawing, boundary),
+                        "within " + boundary.type() + " " + boundary.x() + " " + boundary.y() + " " + boundary.param1()
+                                + (boundary.type().equals("rectangle") ? " " + boundary.param2() : ""));
+            }
+            case TYPE -> {
+                String type = ui.getFigureType();
+                Class<? extends Figure> figureClass = switch (type) {
+                    case "circle" -> Circle.class;
+                    case "rectangle" -> Rectangle.class;
+                    case "line" -> Line.class;
+                    default -> FigureGroup.class;
+                };
+                return new Selection(0, figureClass::isInstance, "of type " + type);
+            }
+            case COLOR -> {
+                String color = ui.getColor();
+                return new Selection(0, figure -> color.equalsIgnoreCase(figure.getColor()), "with color " + color);
+            }
+            default -> {
+                return new Selection(0, null, "");
+            }
+        }
+    }
+
+    /**
+     * Resolves the figures completely within a boundary. Only figures whose bounding boxes intersect
+     * the boundary's box can lie within it, so just those candidates are tested.
+     */
+    private static Predicate<Figure> within(Drawing drawing, ConsoleUI.BoundaryData boundary) {
+        List<Figure> candidates = boundary.type().equals("rectangle")
+                ? drawing.getFiguresIntersecting(boundary.x(), boundary.y(), boundary.param1(), boundary.param2())
+                : drawing.getFiguresIntersecting(boundary.x() - boundary.param1(), boundary.y() - boundary.param1(),
+                        2 * boundary.param1(), 2 * boundary.param1());
+        Set<Figure> selected = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Figure candidate : candidates) {
+            if (GeometryUtils.isFigureWithinBoundary(candidate, boundary.type(), boundary.x(), boundary.y(),
+                    boundary.param1(), boundary.param2())) {
+                selected.add(candidate);
+            }
+        }
+        return selected::contains;
+    }
+}
\ No newline at end of file
@@ -2,6 +2,7 @@ package svgcreator.utils;
 
 import svgcreator.shapes.Circle;
 import svgcreator.shapes.Figure;
+import svgcreator.shapes.FigureGroup;
 import svgcreator.shapes.Line;
 import svgcreator.shapes.Rectangle;
 
@@ -12,6 +13,17 @@ import svgcreator.shapes.Rectangle;
  */
 public class GeometryUtils {
 
+    /**
+     * Slack allowed in containment tests of transformed figures, absorbing floating-point rounding
+     * (e.g. a corner rotated by 90 degrees landing a hair outside the boundary it touches).
+     */
+    private static final double TOLERANCE = 1e-9;
+
+    /**
+     * Number of points sampled around a transformed circle before refining its farthest point.
+     */
+    private static final int ELLIPSE_SAMPLES = 64;
+
     /**
      * Private constructor to prevent instantiation of this utility class.
      */
@@ -38,6 +50,8 @@ public class GeometryUtils {
      * Translates a given {@link Figure} by specified delta values (dx, dy).
      * Modifies the figure's coordinates in place. If the figure is a {@link Line},
      * both its start (x1, y1) and end (x2, y2) points are translated.
+     * If the figure carries a {@link Transform}, the translation is composed into it instead,
+     * since its coordinates are expressed before the transform is applied.
      * If the figure is {@code null}, the method does nothing.
      *
      * @param figure The {@link Figure} to translate. Can be {@code null}.
@@ -48,6 +62,10 @@ public class GeometryUtils {
         if (figure == null) {
             return;
         }
+        if (figure.getTransform() != null) {
+            figure.setTransform(figure.getTransform().then(Transform.translation(dx, dy)));
+            return;
+        }
         figure.setXAxis(figure.getXAxis() + dx);
         figure.setYAxis(figure.getYAxis() + dy);
 
@@ -58,9 +76,194 @@ public class GeometryUtils {
         }
     }
 
+    /**
+     * Creates a deep copy of a given {@link Figure}: its coordinates, color and {@link Transform},
+     * and for a {@link FigureGroup} a copy of every child, so later edits to the original do not
+     * show through the copy.
+     *
+     * @param figure The {@link Figure} to copy. Can be {@code null}.
+     * @return The copy, or {@code null} if the figure is {@code null} or of an unrecognized type.
+     */
+    public static Figure copyFigure(Figure figure) {
+        Figure copy;
+        if (figure instanceof Circle c) {
+            copy = new Circle(c.getXAxis(), c.getYAxis(), c.getRadius(), c.getColor());
+        } else if (figure instanceof Rectangle r) {
+            copy = new Rectangle(r.getXAxis(), r.getYAxis(), r.getColor(), r.getWidth(), r.getHeight());
+        } else if (figure instanceof Line l) {
+            copy = new Line(l.getXAxis(), l.getYAxis(), l.getColor(), l.getX2(), l.getY2());
+        } else if (figure instanceof FigureGroup g) {
+            FigureGroup group = new FigureGroup(g.getXAxis(), g.getYAxis(), g.getName());
+            for (Figure child : g.getChildren()) {
+                group.addChild(copyFigure(child));
+            }
+            copy = group;
+        } else {
+            return null; // Unknown figure type
+        }
+        copy.setTransform(figure.getTransform());
+        return copy;
+    }
+
+    /**
+     * Applies an affine transform to a given {@link Figure} by composing it after the figure's
+     * current transform. The figure's coordinates are not changed, so this is O(1) even for a
+     * {@link FigureGroup}; the transform is applied when the figure is measured or exported.
+     * If the figure is {@code null}, the method does nothing.
+     *
+     * @param figure    The {@link Figure} to transform. Can be {@code null}.
+     * @param transform The transform to apply after any existing one.
+     */
+    public static void transformFigure(Figure figure, Transform transform) {
+        if (figure == null || transform == null) {
+            return;
+        }
+        Transform current = figure.getTransform();
+        figure.setTransform(current == null ? transform : current.then(transform));
+    }
+
+    /**
+     * Scales a given {@link Figure} about a center point.
+     *
+     * @param figure The {@link Figure} to scale. Can be {@code null}.
+     * @param sx     The horizontal scale factor.
+     * @param sy     The vertical scale factor.
+     * @param cx     The x-coordinate of the point that stays fixed.
+     * @param cy     The y-coordinate of the point that stays fixed.
+     * @see #transformFigure(Figure, Transform)
+     */
+    public static void scaleFigure(Figure figure, double sx, double sy, double cx, double cy) {
+        transformFigure(figure, Transform.scaling(sx, sy, cx, cy));
+    }
+
+    /**
+     * Rotates a given {@link Figure} about a center point.
+     *
+     * @param figure  The {@link Figure} to rotate. Can be {@code null}.
+     * @param degrees The rotation angle in degrees, clockwise on screen.
+     * @param cx      The x-coordinate of the point that stays fixed.
+     * @param cy      The y-coordinate of the point that stays fixed.
+     * @see #transformFigure(Figure, Transform)
+     */
+    public static void rotateFigure(Figure figure, double degrees, double cx, double cy) {
+        transformFigure(figure, Transform.rotation(degrees, cx, cy));
+    }
+
+    /**
+     * Bakes the transform of a given {@link Figure} into its coordinates, rounding them to integers.
+     * This is only possible where the transformed shape is still representable:
+     * <ul>
+     *   <li>A {@link Line} can always be baked.</li>
+     *   <li>A {@link Circle} can be baked if the transform is a similarity (it stays a circle).</li>
+     *   <li>A {@link Rectangle} can be baked if the transform keeps it axis-aligned.</li>
+     *   <li>A {@link FigureGroup} pushes its transform down to its children, then bakes each child.</li>
+     * </ul>
+     * A figure that cannot be baked keeps its transform unchanged.
+     *
+     * @param figure The {@link Figure} whose transform to bake. Can be {@code null}.
+     * @return {@code true} if the figure (including all children of a group) no longer carries
+     *         a transform, {@code false} otherwise.
+     */
+    public static boolean bakeTransform(Figure figure) {
+        if (figure == null) {
+            return false;
+        }
+        Transform t = figure.getTransform();
+        if (figure instanceof FigureGroup g) {
+            if (t != null) { // Move the group's translation and matrix into every child
+                Transform toParent = Transform.translation(g.getXAxis(), g.getYAxis()).then(t);
+                for (Figure child : g.getChildren()) {
+                    transformFigure(child, toParent);
+                }
+                g.setXAxis(0);
+                g.setYAxis(0);
+                g.setTransform(null);
+            }
+            boolean baked = true;
+            for (Figure child : g.getChildren()) {
+                baked &= bakeTransform(child);
+            }
+            g.invalidateBoundingBox();
+            return baked;
+        }
+        if (t == null) {
+            return true;
+        }
+
+        if (figure instanceof Circle c) {
+            if (!t.isSimilarity()) {
+                return false; // The circle became an ellipse
+            }
+            double x = c.getXAxis(), y = c.getYAxis();
+            c.setXAxis(round(t.applyX(x, y)));
+            c.setYAxis(round(t.applyY(x, y)));
+            c.setRadius(round(c.getRadius() * Math.hypot(t.a(), t.b())));
+        } else if (figure instanceof Rectangle r) {
+            if (!t.isAxisAligned()) {
+                return false; // The rectangle is rotated or sheared
+            }
+            double x1 = r.getXAxis(), y1 = r.getYAxis();
+            double x2 = x1 + r.getWidth(), y2 = y1 + r.getHeight();
+            int left = round(Math.min(t.applyX(x1, y1), t.applyX(x2, y2)));
+            int top = round(Math.min(t.applyY(x1, y1), t.applyY(x2, y2)));
+            int right = round(Math.max(t.applyX(x1, y1), t.applyX(x2, y2)));
+            int bottom = round(Math.max(t.applyY(x1, y1), t.applyY(x2, y2)));
+            r.setXAxis(left);
+            r.setYAxis(top);
+            r.setWidth(right - left);
+            r.setHeight(bottom - top);
+        } else if (figure instanceof Line l) {
+            double x1 = l.getXAxis(), y1 = l.getYAxis(), x2 = l.getX2(), y2 = l.getY2();
+            l.setXAxis(round(t.applyX(x1, y1)));
+            l.setYAxis(round(t.applyY(x1, y1)));
+            l.setX2(round(t.applyX(x2, y2)));
+            l.setY2(round(t.applyY(x2, y2)));
+        } else {
+            return false; // Unknown figure type
+        }
+        figure.setTransform(null);
+        return true;
+    }
+
+    /**
+     * Computes the axis-aligned bounding box of a given {@link Figure}.
+     * For a {@link Circle} this is the square around its center, for a {@link Rectangle}
+     * its own extent, for a {@link Line} the box spanned by its two endpoints, and for a
+     * {@link FigureGroup} the incrementally maintained box of its children.
+     * If the figure carries a {@link Transform}, the box encloses the transformed shape:
+     * it is exact for circles (the extent of the resulting ellipse), rectangles and lines,
+     * and encloses the transformed box of the children for groups.
+     *
+     * @param figure The {@link Figure} to measure.
+     * @return The figure's bounding box, or {@code null} if the figure is {@code null}
+     *         or of an unrecognized type.
+     */
+    public static BoundingBox getBoundingBox(Figure figure) {
+        Transform t = figure == null ? null : figure.getTransform();
+        if (t != null) {
+            return getTransformedBoundingBox(figure, t);
+        }
+        if (figure instanceof Circle c) {
+            return new BoundingBox(c.getXAxis() - c.getRadius(), c.getYAxis() - c.getRadius(),
+                    c.getXAxis() + c.getRadius(), c.getYAxis() + c.getRadius());
+        } else if (figure instanceof Rectangle r) {
+            return new BoundingBox(r.getXAxis(), r.getYAxis(),
+                    r.getXAxis() + r.getWidth(), r.getYAxis() + r.getHeight());
+        } else if (figure instanceof Line l) {
+            return new BoundingBox(Math.min(l.getXAxis(), l.getX2()), Math.min(l.getYAxis(), l.getY2()),
+                    Math.max(l.getXAxis(), l.getX2()), Math.max(l.getYAxis(), l.getY2()));
+        } else if (figure instanceof FigureGroup g) {
+            return g.getBoundingBox();
+        }
+        return null; // Unknown figure type
+    }
+
     /**
      * Checks if a given {@link Figure} is completely contained within a specified boundary.
      * The boundary can be a rectangle or a circle.
+     * A {@link FigureGroup} is within the boundary if it has children and every child is,
+     * after applying the group's translation; the hierarchy is descended recursively.
+     * Figures carrying a {@link Transform} are tested in their transformed shape.
      *
      * @param figure       The {@link Figure} to check.
      * @param boundaryType A string indicating the type of boundary ("rectangle" or "circle").
@@ -83,9 +286,57 @@ public class GeometryUtils {
      *         {@code false} otherwise, or if the figure or boundary type is unrecognized.
      */
     public static boolean isFigureWithinBoundary(Figure figure, String boundaryType, int bx, int by, int bParam1, int bParam2) {
+        return isFigureWithinBoundary(figure, null, boundaryType, bx, by, bParam1, bParam2);
+    }
+
+    /**
+     * Checks if a given {@link Figure}, mapped by an additional transform, is completely contained
+     * within a specified boundary. The figure's own transform is applied first, then {@code toBoundary}.
+     * This allows testing against a boundary expressed in another coordinate space, e.g. the
+     * untransformed space of a transformed container figure.
+     *
+     * @param figure       The {@link Figure} to check.
+     * @param toBoundary   The transform from the figure's space to the boundary's space,
+     *                     or {@code null} for the identity.
+     * @param boundaryType A string indicating the type of boundary ("rectangle" or "circle").
+     * @param bx           The x-coordinate of the boundary's reference point.
+     * @param by           The y-coordinate of the boundary's reference point.
+     * @param bParam1      The width of a rectangle boundary or the radius of a circle boundary.
+     * @param bParam2      The height of a rectangle boundary; unused for a circle boundary.
+     * @return {@code true} if the figure is completely within the specified boundary, {@code false} otherwise.
+     * @see #isFigureWithinBoundary(Figure, String, int, int, int, int)
+     */
+    public static boolean isFigureWithinBoundary(Figure figure, Transform toBoundary, String boundaryType,
+                                                 int bx, int by, int bParam1, int bParam2) {
         if (figure == null || boundaryType == null) {
             return false;
         }
+        Transform t = compose(figure.getTransform(), toBoundary);
+
+        if (figure instanceof FigureGroup g) {
+            if (g.getChildren().isEmpty()) {
+                return false; // An empty group has no extent to contain
+            }
+            if (t == null) {
+                // Shift the boundary into the group's local space instead of moving every child
+                for (Figure child : g.getChildren()) {
+                    if (!isFigureWithinBoundary(child, null, boundaryType, bx - g.getXAxis(), by - g.getYAxis(), bParam1, bParam2)) {
+                        return false;
+                    }
+                }
+            } else {
+                Transform childToBoundary = Transform.translation(g.getXAxis(), g.getYAxis()).then(t);
+                for (Figure child : g.getChildren()) {
+                    if (!isFigureWithinBoundary(child, childToBoundary, boundaryType, bx, by, bParam1, bParam2)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        if (t != null) {
+            return isTransformedWithinBoundary(figure, t, boundaryType, bx, by, bParam1, bParam2);
+        }
 
         if (boundaryType.equalsIgnoreCase("rectangle")) {
             int bWidth = bParam1;
@@ -131,4 +382,148 @@ public class GeometryUtils {
         }
         return false; // Unknown figure type or boundary type
     }
+
+    /**
+     * Checks containment for a figure mapped by a transform. Convex shapes lie within a convex
+     * boundary exactly when their extreme points do, so rectangles and lines test their transformed
+     * corners or endpoints. A transformed circle is an ellipse: its extent is exact against a
+     * rectangle boundary, and its farthest point from a circle boundary's center is searched for.
+     */
+    private static boolean isTransformedWithinBoundary(Figure figure, Transform t, String boundaryType,
+                                                       int bx, int by, int bParam1, int bParam2) {
+        double[] points;
+        if (figure instanceof Circle c) {
+            double cx = t.applyX(c.getXAxis(), c.getYAxis()), cy = t.applyY(c.getXAxis(), c.getYAxis());
+            double r = c.getRadius();
+            if (boundaryType.equalsIgnoreCase("rectangle")) {
+                double hx = r * Math.hypot(t.a(), t.c()), hy = r * Math.hypot(t.b(), t.d());
+                return cx - hx >= bx - TOLERANCE && cx + hx <= bx + bParam1 + TOLERANCE
+                        && cy - hy >= by - TOLERANCE && cy + hy <= by + bParam2 + TOLERANCE;
+            } else if (boundaryType.equalsIgnoreCase("circle")) {
+                double farthest = t.isSimilarity()
+                        ? distance(bx, by, cx, cy) + r * Math.hypot(t.a(), t.b())
+                        : farthestOnEllipse(bx - cx, by - cy, r * t.a(), r * t.b(), r * t.c(), r * t.d());
+                return farthest <= bParam1 + TOLERANCE;
+            }
+            return false;
+        } else if (figure instanceof Rectangle r) {
+            int x1 = r.getXAxis(), y1 = r.getYAxis(), x2 = x1 + r.getWidth(), y2 = y1 + r.getHeight();
+            points = new double[]{x1, y1, x2, y1, x1, y2, x2, y2};
+        } else if (figure instanceof Line l) {
+            points = new double[]{l.getXAxis(), l.getYAxis(), l.getX2(), l.getY2()};
+        } else {
+            return false; // Unknown figure type
+        }
+
+        for (int i = 0; i < points.length; i += 2) {
+            double x = t.applyX(points[i], points[i + 1]), y = t.applyY(points[i], points[i + 1]);
+            boolean inside;
+            if (boundaryType.equalsIgnoreCase("rectangle")) {
+                inside = x >= bx - TOLERANCE && x <= bx + bParam1 + TOLERANCE
+                        && y >= by - TOLERANCE && y <= by + bParam2 + TOLERANCE;
+            } else if (boundaryType.equalsIgnoreCase("circle")) {
+                inside = distance(bx, by, x, y) <= bParam1 + TOLERANCE;
+            } else {
+                return false;
+            }
+            if (!inside) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the largest distance from a point to the ellipse {@code (ux cos theta + vx sin theta, uy cos theta + vy sin theta)},
+     * given the point's offset (px, py) from the ellipse's center. The squared distance is sampled
+     * around the ellipse and the best sample is refined with a golden-section search.
+     */
+    private static double farthestOnEllipse(double px, double py, double ux, double uy, double vx, double vy) {
+        double step = 2 * Math.PI / ELLIPSE_SAMPLES;
+        double best = 0, bestDistance = -1;
+        for (int i = 0; i < ELLIPSE_SAMPLES; i++) {
+            double d = squaredEllipseDistance(i * step, px, py, ux, uy, vx, vy);
+            if (d > bestDistance) {
+                bestDistance = d;
+                best = i * step;
+            }
+        }
+        double lo = best - step, hi = best + step;
+        double ratio = (Math.sqrt(5) - 1) / 2;
+        for (int i = 0; i < 60; i++) {
+            double m1 = hi - ratio * (hi - lo), m2 = lo + ratio * (hi - lo);
+            if (squaredEllipseDistance(m1, px, py, ux, uy, vx, vy) < squaredEllipseDistance(m2, px, py, ux, uy, vx, vy)) {
+                lo = m1;
+            } else {
+                hi = m2;
+            }
+        }
+        return Math.sqrt(Math.max(bestDistance, squaredEllipseDistance((lo + hi) / 2, px, py, ux, uy, vx, vy)));
+    }
+
+    private static double squaredEllipseDistance(double theta, double px, double py,
+                                                 double ux, double uy, double vx, double vy) {
+        double cos = Math.cos(theta), sin = Math.sin(theta);
+        double dx = ux * cos + vx * sin - px, dy = uy * cos + vy * sin - py;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Computes the bounding box of a figure's shape after applying a transform, rounded outwards.
+     */
+    private static BoundingBox getTransformedBoundingBox(Figure figure, Transform t) {
+        if (figure instanceof Circle c) {
+            double cx = t.applyX(c.getXAxis(), c.getYAxis()), cy = t.applyY(c.getXAxis(), c.getYAxis());
+            double hx = c.getRadius() * Math.hypot(t.a(), t.c()), hy = c.getRadius() * Math.hypot(t.b(), t.d());
+            return new BoundingBox((int) Math.floor(cx - hx), (int) Math.floor(cy - hy),
+                    (int) Math.ceil(cx + hx), (int) Math.ceil(cy + hy));
+        } else if (figure instanceof Line l) {
+            return transformedBox(t, l.getXAxis(), l.getYAxis(), l.getX2(), l.getY2());
+        }
+        BoundingBox box;
+        if (figure instanceof Rectangle r) {
+            box = new BoundingBox(r.getXAxis(), r.getYAxis(), r.getXAxis() + r.getWidth(), r.getYAxis() + r.getHeight());
+        } else if (figure instanceof FigureGroup g) {
+            box = g.getBoundingBox();
+        } else {
+            return null; // Unknown figure type
+        }
+        return box == null ? null
+                : transformedBox(t, box.minX(), box.minY(), box.maxX(), box.minY(),
+                                 box.minX(), box.maxY(), box.maxX(), box.maxY());
+    }
+
+    /**
+     * Computes the box enclosing a set of points after applying a transform, rounded outwards.
+     * @param coordinates The points as consecutive x, y pairs.
+     */
+    private static BoundingBox transformedBox(Transform t, double... coordinates) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < coordinates.length; i += 2) {
+            double x = t.applyX(coordinates[i], coordinates[i + 1]), y = t.applyY(coordinates[i], coordinates[i + 1]);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        // Absorb rounding noise (e.g. from a 90 degree rotation) before rounding outwards
+        return new BoundingBox((int) Math.floor(minX + TOLERANCE), (int) Math.floor(minY + TOLERANCE),
+                (int) Math.ceil(maxX - TOLERANCE), (int) Math.ceil(maxY - TOLERANCE));
+    }
+
+    /**
+     * Composes two optional transforms, applying {@code inner} first; {@code null} stands for the identity.
+     */
+    private static Transform compose(Transform inner, Transform outer) {
+        if (inner == null || outer == null) {
+            return inner == null ? outer : inner;
+        }
+        Transform composed = inner.then(outer);
+        return composed.isIdentity() ? null : composed;
+    }
+
+    private static int round(double value) {
+        return (int) Math.round(value);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,186 @@
+package svgcreator.app;
+
+import svgcreator.metrics.OperationMetrics;
+import svgcreator.metrics.OperationTimer;
+import svgcreator.shapes.Figure;
+import svgcreator.utils.Transform;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Decorates a drawing to time its queries in an {@link OperationMetrics} registry, as
+ * {@code drawing.getAllFigures}, {@code drawing.getFigures}, {@code drawing.getFiguresWithinBoundary},
+ * {@code drawing.getFiguresIntersecting} and {@code drawing.exportViewport}.
+ * Edits are passed through untimed; loads and saves are timed by decorating the drawing's persistence
+ * service instead, see {@link svgcreator.persistence.InstrumentedSvgPersistenceService}.
+ * The decorator adds no synchronization, so it is as thread-safe as the decorated drawing.
+ */
+public class InstrumentedDrawing implements Drawing {
+
+    private final Drawing delegate;
+    private final OperationTimer getAllFiguresTimer;
+    private final OperationTimer getFiguresTimer;
+    private final OperationTimer withinBoundaryTimer;
+    private final OperationTimer intersectingTimer;
+    private final OperationTimer exportViewportTimer;
+
+    /**
+     * Constructs a decorator timing the queries of a drawing.
+     *
+     * @param delegate The drawing performing the operations.
+     * @param metrics  The registry the timings are recorded in.
+     */
+    public InstrumentedDrawing(Drawing delegate, OperationMetrics metrics) {
+        this.delegate = delegate;
+        this.getAllFiguresTimer = metrics.timer("drawing.getAllFigures");
+        this.getFiguresTimer = metrics.timer("drawing.getFigures");
+        this.withinBoundaryTimer = metrics.timer("drawing.getFiguresWithinBoundary");
+        this.intersectingTimer = metrics.timer("drawing.getFiguresIntersecting");
+        this.exportViewportTimer = metrics.timer("drawing.exportViewport");
+    }
+
+    @Override
+    public void addFigure(Figure figure) {
+        delegate.addFigure(figure);
+    }
+
+    @Override
+    public void addFigures(Collection<? extends Figure> figures) {
+        delegate.addFigures(figures);
+    }
+
+    @Override
+    public boolean removeFigure(int displayIndex) {
+        return delegate.removeFigure(displayIndex);
+    }
+
+    @Override
+    public int removeFigures(Set<Integer> displayIndices) {
+        return delegate.removeFigures(displayIndices);
+    }
+
+    @Override
+    public int removeFiguresIf(Predicate<? super Figure> filter) {
+        return delegate.removeFiguresIf(filter);
+    }
+
+    @Override
+    public Figure getFigure(int displayIndex) {
+        return delegate.getFigure(displayIndex);
+    }
+
+    @Override
+    public List<Figure> getAllFigures() {
+        return getAllFiguresTimer.time(delegate::getAllFigures);
+    }
+
+    @Override
+    public List<Figure> getFigures(int offset, int limit) {
+        return getFiguresTimer.time(() -> delegate.getFigures(offset, limit));
+    }
+
+    @Override
+    public void translateAllFigures(int dx, int dy) {
+        delegate.translateAllFigures(dx, dy);
+    }
+
+    @Override
+    public boolean translateSingleFigure(int displayIndex, int dx, int dy) {
+        return delegate.translateSingleFigure(displayIndex, dx, dy);
+    }
+
+    @Override
+    public int translateFigures(Set<Integer> displayIndices, int dx, int dy) {
+        return delegate.translateFigures(displayIndices, dx, dy);
+    }
+
+    @Override
+    public int translateFiguresIf(Predicate<? super Figure> filter, int dx, int dy) {
+        return delegate.translateFiguresIf(filter, dx, dy);
+    }
+
+    @Override
+    public void transformAllFigures(Transform transform) {
+        delegate.transformAllFigures(transform);
+    }
+
+    @Override
+    public boolean transformSingleFigure(int displayIndex, Transform transform) {
+        return delegate.transformSingleFigure(displayIndex, transform);
+    }
+
+    @Override
+    public int transformFiguresIf(Predicate<? super Figure> filter, Transform transform) {
+        return delegate.transformFiguresIf(filter, transform);
+    }
+
+    @Override
+    public List<Figure> getFiguresWithinBoundary(String boundaryType, int bx, int by, int bParam1, int bParam2) {
+        return withinBoundaryTimer.time(() -> delegate.getFiguresWithinBoundary(boundaryType, bx, by, bParam1, bParam2));
+    }
+
+    @Override
+    public List<Figure> getFiguresIntersecting(int x, int y, int width, int height) {
+        return intersectingTimer.time(() -> delegate.getFiguresIntersecting(x, y, width, height));
+    }
+
+    @Override
+    public void exportViewport(Path targetPath, int x, int y, int width, int height) {
+        exportViewportTimer.time(() -> delegate.exportViewport(targetPath, x, y, width, height));
+    }
+
+    @Override
+    public StandingQuery registerStandingQuery(String boundaryType, int bx, int by, int bParam1, int bParam2,
+                                               StandingQueryListener listener) {
+        return delegate.registerStandingQuery(boundaryType, bx, by, bParam1, bParam2, listener);
+    }
+
+    @Override
+    public boolean unregisterStandingQuery(StandingQuery query) {
+        return delegate.unregisterStandingQuery(query);
+    }
+
+    @Override
+    public void loadFromFile() {
+        delegate.loadFromFile();
+    }
+
+    @Override
+    public void saveToFile() {
+        delegate.saveToFile();
+    }
+
+    @Override
+    public void beginTransaction() {
+        delegate.beginTransaction();
+    }
+
+    @Override
+    public void commitTransaction() {
+        delegate.commitTransaction();
+    }
+
+    @Override
+    public void commitTransaction(boolean persist) {
+        delegate.commitTransaction(persist);
+    }
+
+    @Override
+    public void rollbackTransaction() {
+        delegate.rollbackTransaction();
+    }
+
+    @Override
+    public boolean isInTransaction() {
+        return delegate.isInTransaction();
+    }
+
+    @Override
+    public int getFigureCount() {
+        return delegate.getFigureCount();
+    }
+}
\ No newline at end of file
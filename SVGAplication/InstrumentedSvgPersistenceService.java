@@ -0,0 +1,125 @@
+package svgcreator.persistence;
+
+import svgcreator.metrics.OperationMetrics;
+import svgcreator.metrics.OperationTimer;
+import svgcreator.shapes.Figure;
+import svgcreator.utils.BoundingBox;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Decorates a persistence service to time its loads and saves in an {@link OperationMetrics} registry,
+ * as {@code persistence.loadFigures} and {@code persistence.saveFigures}.
+ * Create instances with {@link #instrument}, which keeps the asynchronous variants of
+ * an {@link AsyncSvgPersistenceService} available; they are timed until their futures complete,
+ * as {@code persistence.loadFiguresAsync} and {@code persistence.saveFiguresAsync}.
+ */
+public class InstrumentedSvgPersistenceService implements SvgPersistenceService {
+
+    private final SvgPersistenceService delegate;
+    private final OperationTimer loadTimer;
+    private final OperationTimer saveTimer;
+
+    /**
+     * Constructs a decorator timing the blocking operations of a service.
+     *
+     * @param delegate The service performing the operations.
+     * @param metrics  The registry the timings are recorded in.
+     */
+    private InstrumentedSvgPersistenceService(SvgPersistenceService delegate, OperationMetrics metrics) {
+        this.delegate = delegate;
+        this.loadTimer = metrics.timer("persistence.loadFigures");
+        this.saveTimer = metrics.timer("persistence.saveFigures");
+    }
+
+    /**
+     * Decorates a persistence service to time its operations.
+     *
+     * @param service The service performing the operations.
+     * @param metrics The registry the timings are recorded in.
+     * @return The decorated service; an {@link AsyncSvgPersistenceService} if the given service is one.
+     */
+    public static SvgPersistenceService instrument(SvgPersistenceService service, OperationMetrics metrics) {
+        if (service instanceof AsyncSvgPersistenceService asyncService) {
+            return new Async(asyncService, metrics);
+        }
+        return new InstrumentedSvgPersistenceService(service, metrics);
+    }
+
+    @Override
+    public List<Figure> loadFigures(Path filePath) {
+        return loadTimer.time(() -> delegate.loadFigures(filePath));
+    }
+
+    @Override
+    public void saveFigures(List<Figure> figures, Path filePath) {
+        saveTimer.time(() -> delegate.saveFigures(figures, filePath));
+    }
+
+    @Override
+    public void saveFigures(Iterable<? extends Figure> figures, Path filePath, BoundingBox viewport) {
+        saveTimer.time(() -> delegate.saveFigures(figures, filePath, viewport));
+    }
+
+    @Override
+    public void saveFiguresOrThrow(List<Figure> figures, Path filePath) throws IOException {
+        long start = System.nanoTime();
+        try {
+            delegate.saveFiguresOrThrow(figures, filePath);
+            saveTimer.record(System.nanoTime() - start);
+        } catch (IOException | RuntimeException | Error e) {
+            saveTimer.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * Times the asynchronous operations of an {@link AsyncSvgPersistenceService} as well.
+     */
+    private static final class Async extends InstrumentedSvgPersistenceService implements AsyncSvgPersistenceService {
+        private final AsyncSvgPersistenceService asyncDelegate;
+        private final OperationTimer asyncLoadTimer;
+        private final OperationTimer asyncSaveTimer;
+
+        Async(AsyncSvgPersistenceService delegate, OperationMetrics metrics) {
+            super(delegate, metrics);
+            this.asyncDelegate = delegate;
+            this.asyncLoadTimer = metrics.timer("persistence.loadFiguresAsync");
+            this.asyncSaveTimer = metrics.timer("persistence.saveFiguresAsync");
+        }
+
+        @Override
+        public CompletableFuture<List<Figure>> loadFiguresAsync(Path filePath) {
+            long start = System.nanoTime();
+            return timeUntilComplete(asyncLoadTimer, start, asyncDelegate.loadFiguresAsync(filePath));
+        }
+
+        @Override
+        public CompletableFuture<Void> saveFiguresAsync(List<Figure> figures, Path filePath) {
+            long start = System.nanoTime();
+            return timeUntilComplete(asyncSaveTimer, start, asyncDelegate.saveFiguresAsync(figures, filePath));
+        }
+
+        @Override
+        public void close() {
+            asyncDelegate.close();
+        }
+
+        /**
+         * Records the time from the start of an operation until its future completes, as a failure if it
+         * completes exceptionally. The returned future completes after the time is recorded.
+         */
+        private static <T> CompletableFuture<T> timeUntilComplete(OperationTimer timer, long start, CompletableFuture<T> future) {
+            return future.whenComplete((result, failure) -> {
+                if (failure == null) {
+                    timer.record(System.nanoTime() - start);
+                } else {
+                    timer.recordFailure(System.nanoTime() - start);
+                }
+            });
+        }
+    }
+}
\ No newline at end of file
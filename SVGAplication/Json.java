@@ -0,0 +1,242 @@
+package svgcreator.server;
+
+import svgcreator.shapes.Circle;
+import svgcreator.shapes.Figure;
+import svgcreator.shapes.FigureGroup;
+import svgcreator.shapes.Line;
+import svgcreator.shapes.Rectangle;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Minimal JSON support for the HTTP API.
+ * Request bodies are flat objects whose values are strings, numbers, booleans or {@code null};
+ * responses are written field by field, so no JSON library is needed.
+ * This class cannot be instantiated.
+ */
+final class Json {
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private Json() {
+        // This class is not meant to be instantiated.
+    }
+
+    /**
+     * Parses a flat JSON object.
+     *
+     * @param text The JSON text, e.g. {@code {"type": "circle", "x": 10}}.
+     * @return The object's members in order, with strings unescaped and other values as written
+     *         ({@code null} values map to {@code null}).
+     * @throws IllegalArgumentException if the text is not a flat JSON object.
+     */
+    static Map<String, String> parseObject(String text) {
+        Parser parser = new Parser(text);
+        Map<String, String> members = parser.object();
+        parser.skipWhitespace();
+        if (!parser.atEnd()) {
+            throw new IllegalArgumentException("Unexpected content after the JSON object.");
+        }
+        return members;
+    }
+
+    /**
+     * Formats a figure as a JSON object, starting with its {@code "index"}.
+     *
+     * @param figure The figure to format.
+     * @param index  The figure's 1-based display index.
+     * @return The JSON object text.
+     */
+    static String figure(Figure figure, int index) {
+        return figure(figure, "index", index);
+    }
+
+    /**
+     * Formats a figure as a JSON object, starting with a number locating it.
+     *
+     * @param figure       The figure to format.
+     * @param positionName The name of the member holding the position, e.g. {@code "index"}.
+     * @param position     The figure's position.
+     * @return The JSON object text.
+     */
+    static String figure(Figure figure, String positionName, int position) {
+        StringBuilder json = new StringBuilder("{").append(string(positionName)).append(':').append(position);
+        if (figure instanceof Circle c) {
+            json.append(",\"type\":\"circle\",\"x\":").append(c.getXAxis()).append(",\"y\":").append(c.getYAxis())
+                    .append(",\"radius\":").append(c.getRadius());
+        } else if (figure instanceof Rectangle r) {
+            json.append(",\"type\":\"rectangle\",\"x\":").append(r.getXAxis()).append(",\"y\":").append(r.getYAxis())
+                    .append(",\"width\":").append(r.getWidth()).append(",\"height\":").append(r.getHeight());
+        } else if (figure instanceof Line l) {
+            json.append(",\"type\":\"line\",\"x\":").append(l.getXAxis()).append(",\"y\":").append(l.getYAxis())
+                    .append(",\"x2\":").append(l.getX2()).append(",\"y2\":").append(l.getY2());
+        } else if (figure instanceof FigureGroup g) {
+            json.append(",\"type\":\"group\",\"x\":").append(g.getXAxis()).append(",\"y\":").append(g.getYAxis())
+                    .append(",\"children\":").append(g.getChildren().size());
+            if (g.getName() != null) {
+                json.append(",\"name\":").append(string(g.getName()));
+            }
+        } else {
+            json.append(",\"type\":\"unknown\"");
+        }
+        if (figure.getColor() != null) {
+            json.append(",\"color\":").append(string(figure.getColor()));
+        }
+        if (figure.getTransform() != null) {
+            json.append(",\"transform\":").append(string(figure.getTransform().toSvg()));
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Formats a string as a quoted, escaped JSON string.
+     *
+     * @param value The string to format.
+     * @return The JSON string literal.
+     */
+    static String string(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (ch < 0x20) {
+                        json.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        json.append(ch);
+                    }
+                }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * A recursive-descent parser over a flat JSON object.
+     */
+    private static final class Parser {
+        private final String text;
+        private int position;
+
+        Parser(String text) {
+            this.text = text == null ? "" : text;
+        }
+
+        Map<String, String> object() {
+            Map<String, String> members = new LinkedHashMap<>();
+            skipWhitespace();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+                return members;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                members.put(key, value());
+                skipWhitespace();
+                char next = next();
+                if (next == '}') {
+                    return members;
+                } else if (next != ',') {
+                    throw new IllegalArgumentException("Expected ',' or '}' at position " + (position - 1) + ".");
+                }
+            }
+        }
+
+        private String value() {
+            char ch = peek();
+            if (ch == '"') {
+                return string();
+            } else if (ch == '{' || ch == '[') {
+                throw new IllegalArgumentException("Nested JSON values are not supported.");
+            }
+            int start = position;
+            while (!atEnd() && ",}] \t\r\n".indexOf(text.charAt(position)) < 0) {
+                position++;
+            }
+            String literal = text.substring(start, position);
+            if (literal.equals("null")) {
+                return null;
+            } else if (literal.equals("true") || literal.equals("false") || literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) {
+                return literal;
+            }
+            throw new IllegalArgumentException("Invalid JSON value '" + literal + "' at position " + start + ".");
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char ch = next();
+                if (ch == '"') {
+                    return value.toString();
+                } else if (ch != '\\') {
+                    value.append(ch);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append(escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > text.length()) {
+                            throw new IllegalArgumentException("Truncated unicode escape.");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("Invalid unicode escape at position " + position + ".");
+                        }
+                        position += 4;
+                    }
+                    default -> throw new IllegalArgumentException("Invalid escape '\\" + escaped + "'.");
+                }
+            }
+        }
+
+        void skipWhitespace() {
+            while (!atEnd() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        boolean atEnd() {
+            return position >= text.length();
+        }
+
+        private char peek() {
+            if (atEnd()) {
+                throw new IllegalArgumentException("Unexpected end of JSON.");
+            }
+            return text.charAt(position);
+        }
+
+        private char next() {
+            char ch = peek();
+            position++;
+            return ch;
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw new IllegalArgumentException("Expected '" + expected + "' at position " + (position - 1) + ".");
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,148 @@
+package svgcreator.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations in nanoseconds, with logarithmic buckets in the style of HdrHistogram.
+ * Durations below 16 ns are counted exactly; larger ones fall into one of 16 linear sub-buckets of their
+ * power of two, so every reported value is within 1/16 (6.25%) of the recorded one.
+ * Durations of 2<sup>41</sup> ns (about 36 minutes) or more are counted in the last bucket.
+ * <p>
+ * Recording only increments striped counters ({@link LongAdder}), so threads recording at the same time
+ * do not contend on a lock or on a single memory location. Reads sum the counters without stopping
+ * writers, so a histogram read while values are recorded may not include every concurrent value.
+ * </p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final long MAX_TRACKABLE_NANOS = (1L << 41) - 1;
+    private static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_NANOS) + 1;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructs an empty histogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos The duration in nanoseconds; negative values, which a clock adjustment can produce, count as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets[bucketIndex(Math.min(value, MAX_TRACKABLE_NANOS))].increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    /**
+     * Gets the number of recorded durations.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Gets the mean of the recorded durations.
+     *
+     * @return The mean in nanoseconds, or 0 if nothing was recorded.
+     */
+    public double getMeanNanos() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) totalNanos.sum() / count;
+    }
+
+    /**
+     * Gets the longest recorded duration.
+     *
+     * @return The maximum in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Gets the duration that the given percentage of the recorded durations do not exceed.
+     * The result is the upper end of the bucket holding that duration, and so at most 6.25% too high.
+     *
+     * @param percentile The percentage, from 0 to 100.
+     * @return The duration in nanoseconds, or 0 if nothing was recorded.
+     * @throws IllegalArgumentException if the percentile is outside 0 to 100.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100, got " + percentile + ".");
+        }
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // The last bucket also holds every longer duration, so its upper end is the maximum
+                return i == BUCKET_COUNT - 1 ? getMaxNanos() : Math.min(bucketUpperBound(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos(); // Only reached if buckets were reset while reading
+    }
+
+    /**
+     * Discards every recorded duration. Durations recorded at the same time may be partly kept.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    /**
+     * Gets the bucket of a duration: durations below 16 have their own bucket, and each larger power
+     * of two is split into 16 buckets, indexed by the duration's four bits after the leading one.
+     */
+    private static int bucketIndex(long nanos) {
+        if (nanos < SUB_BUCKET_COUNT) {
+            return (int) nanos;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (nanos >>> shift);
+    }
+
+    /**
+     * Gets the largest duration that falls into a bucket; the inverse of {@link #bucketIndex}.
+     */
+    private static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long mantissa = index - ((long) shift << SUB_BUCKET_BITS);
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
\ No newline at end of file
@@ -61,6 +61,7 @@ public class Line extends Figure {
     /**
      * Generates the SVG string representation for this line.
      * The format is {@code <line x1='...' y1='...' x2='...' y2='...' stroke='...' />}.
+     * A {@code transform='matrix(...)'} attribute is added if the figure has a transform.
      * The color from the parent class is used as the 'stroke' attribute.
      *
      * @return A string representing the SVG element for this line.
@@ -68,6 +69,6 @@ public class Line extends Figure {
     @Override
     public String drawFigure() {
         // Use getColor() for consistency, SVG attribute is 'stroke'
-        return "<line x1='" + getXAxis() + "' y1='" + getYAxis() + "' x2='" + x2 + "' y2='" + y2 + "' stroke='" + getColor() + "' />";
+        return "<line x1='" + getXAxis() + "' y1='" + getYAxis() + "' x2='" + x2 + "' y2='" + y2 + "' stroke='" + getColor() + "'" + transformAttribute() + " />";
     }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package svgcreator.persistence;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.nio.file.Path;
+
+/**
+ * A JDK Flight Recorder event for loading a drawing from an SVG file, split into reading and parsing,
+ * so a slow load can be told apart from the I/O and GC events recorded at the same time.
+ * The event is disabled by default; {@link svgcreator.Main#main} describes how to enable it.
+ */
+@Name("svgcreator.LoadFigures")
+@Label("Load Figures")
+@Category({"SVG Creator", "Persistence"})
+@Description("Loading a drawing from an SVG file")
+@Enabled(false)
+@StackTrace(false)
+final class LoadFiguresEvent extends Event {
+
+    @Label("File")
+    String path;
+
+    @Label("Figures")
+    @Description("The number of top-level figures loaded; a group counts as one")
+    int figureCount;
+
+    @Label("Size")
+    @DataAmount
+    long byteCount;
+
+    @Label("Read Time")
+    @Description("Time spent reading and decoding the file")
+    @Timespan
+    long readDuration;
+
+    @Label("Parse Time")
+    @Description("Time spent parsing the figures from the decoded text")
+    @Timespan
+    long parseDuration;
+
+    private transient long phaseStart;
+
+    /**
+     * Creates the event and starts timing the read.
+     *
+     * @param filePath The file being loaded.
+     * @return The started event.
+     */
+    static LoadFiguresEvent start(Path filePath) {
+        LoadFiguresEvent event = new LoadFiguresEvent();
+        if (event.isEnabled()) {
+            event.path = filePath.toString();
+            event.phaseStart = System.nanoTime();
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the read and starts timing the parse.
+     *
+     * @param bytes The size of the file.
+     */
+    void read(long bytes) {
+        if (isEnabled()) {
+            byteCount = bytes;
+            long now = System.nanoTime();
+            readDuration = now - phaseStart;
+            phaseStart = now;
+        }
+    }
+
+    /**
+     * Ends the parse and commits the event, if it exceeds the recording's threshold.
+     *
+     * @param figures The number of top-level figures parsed.
+     */
+    void parsed(int figures) {
+        end();
+        if (shouldCommit()) {
+            parseDuration = System.nanoTime() - phaseStart;
+            figureCount = figures;
+            commit();
+        }
+    }
+}
\ No newline at end of file
@@ -1,10 +1,25 @@
 package svgcreator;
 
+import svgcreator.app.ConcurrentDrawing;
+import svgcreator.app.InstrumentedDrawing;
+import svgcreator.app.ScriptRunner;
 import svgcreator.app.SvgApplication;
+import svgcreator.app.SvgDrawing;
+import svgcreator.factories.SyntheticFigureFactory;
+import svgcreator.metrics.OperationMetrics;
+import svgcreator.persistence.AsyncSvgFilePersistenceService;
+import svgcreator.persistence.InstrumentedSvgPersistenceService;
 import svgcreator.persistence.SvgFilePersistenceService;
-import svgcreator.persistence.SvgPersistenceService;
+import svgcreator.server.DrawingHttpServer;
 import svgcreator.ui.ConsoleUI;
+import svgcreator.utils.BoundingBox;
 
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -21,31 +36,72 @@ public class Main {
      */
     private static final String SVG_FILE_PATH = "output.svg";
 
+    /**
+     * The port the HTTP server listens on when none is given after {@code --server}.
+     */
+    private static final int DEFAULT_SERVER_PORT = 8080;
+
     /**
      * The main method that serves as the entry point for the Java application.
      * It sets up the necessary services (UI, persistence) and launches the
      * {@link SvgApplication}.
      * <p>
-     * The {@link ConsoleUI} is created within a try-with-resources block to ensure
-     * its underlying resources (like the {@link java.util.Scanner}) are properly closed
-     * upon completion or in case of an error.
+     * The {@link ConsoleUI} and the {@link AsyncSvgFilePersistenceService} are created within
+     * a try-with-resources block to ensure their underlying resources (like the
+     * {@link java.util.Scanner} and the I/O threads) are properly closed upon completion or
+     * in case of an error.
      * </p>
+     * Loads, saves and drawing queries are timed in an {@link OperationMetrics}
+     * registry, which is registered as a platform MBean for JConsole or Java Mission Control.
+     * Loads, saves, boundary queries and bulk transforms also emit JDK Flight Recorder events
+     * ({@code svgcreator.LoadFigures}, {@code svgcreator.SaveFigures}, {@code svgcreator.BoundaryQuery}
+     * and {@code svgcreator.BulkTransform}). They are disabled by default, and while they are, creating
+     * and ending them costs next to nothing. Enable them for a recording with e.g.
+     * {@code -XX:StartFlightRecording:+svgcreator.LoadFigures#enabled=true,+svgcreator.SaveFigures#enabled=true,filename=svg.jfr}.
      * Any unhandled exceptions during the application's setup or run phase are
      * caught, and an error message is printed to the standard error stream.
+     * <p>
+     * When started with {@code --server [port]}, the drawing is served over HTTP
+     * by a {@link DrawingHttpServer} instead, until the process is terminated.
+     * With {@code --watch}, the console application applies changes other processes
+     * make to the SVG file while it runs.
+     * With {@code --script [file]}, the commands in the file (or on standard input if no file
+     * or {@code -} is given) are executed by a {@link ScriptRunner} without any prompts.
+     * With {@code --generate <count> [seed]}, the SVG file is overwritten with that many random
+     * figures from a {@link SyntheticFigureFactory}, for load testing.
+     * </p>
      *
-     * @param args Command-line arguments passed to the application (not used by this application).
+     * @param args Command-line arguments passed to the application; {@code --server [port]}
+     *             selects server mode, {@code --script [file]} selects script mode,
+     *             {@code --generate <count> [seed]} generates a drawing and
+     *             {@code --watch} selects watch mode.
      */
     public static void main(String[] args) {
         Path path = Paths.get(SVG_FILE_PATH);
 
+        if (args.length > 0 && args[0].equals("--server")) {
+            runServer(path, args.length > 1 ? args[1] : null, createMetrics());
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--script")) {
+            runScript(path, args.length > 1 ? args[1] : "-");
+            return;
+        }
+        if (args.length > 1 && args[0].equals("--generate")) {
+            generate(path, args[1], args.length > 2 ? args[2] : "0");
+            return;
+        }
+
         // Use try-with-resources for ConsoleUI as it implements AutoCloseable
-        // This ensures that the Scanner within ConsoleUI is closed automatically.
-        try (ConsoleUI ui = new ConsoleUI()) {
-            // Initialize the persistence service implementation
-            SvgPersistenceService persistence = new SvgFilePersistenceService();
+        // This ensures that the Scanner within ConsoleUI is closed automatically,
+        // and that the persistence service's I/O threads are stopped.
+        try (ConsoleUI ui = new ConsoleUI();
+             // Initialize the persistence service implementation; it loads the drawing in the background
+             AsyncSvgFilePersistenceService persistence = new AsyncSvgFilePersistenceService()) {
 
             // Create the main application instance with its dependencies
-            SvgApplication application = new SvgApplication(ui, persistence, path);
+            boolean watch = args.length > 0 && args[0].equals("--watch");
+            SvgApplication application = new SvgApplication(ui, persistence, path, watch, createMetrics());
 
             // Start the application's main loop
             application.run();
@@ -57,4 +113,103 @@ public class Main {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Creates the registry operations are timed in and registers it as a platform MBean.
+     *
+     * @return The registry; operations are still timed if it could not be registered.
+     */
+    private static OperationMetrics createMetrics() {
+        OperationMetrics metrics = new OperationMetrics();
+        metrics.register();
+        return metrics;
+    }
+
+    /**
+     * Loads the drawing into a thread-safe {@link ConcurrentDrawing} and serves it over HTTP.
+     * A shutdown hook stops the server and saves the drawing when the process is terminated.
+     *
+     * @param path The path of the SVG file backing the drawing.
+     * @param portArgument The port to listen on as given on the command line, or null for the default.
+     * @param metrics The registry loads, saves and queries are timed in.
+     */
+    private static void runServer(Path path, String portArgument, OperationMetrics metrics) {
+        int port;
+        try {
+            port = portArgument == null ? DEFAULT_SERVER_PORT : Integer.parseInt(portArgument);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid port: " + portArgument);
+            return;
+        }
+
+        try {
+            ConcurrentDrawing drawing = new ConcurrentDrawing(
+                    InstrumentedSvgPersistenceService.instrument(new SvgFilePersistenceService(), metrics), path);
+            drawing.loadFromFile();
+
+            DrawingHttpServer server = new DrawingHttpServer(new InstrumentedDrawing(drawing, metrics), port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+            server.start();
+            System.out.println("Serving " + path + " on http://localhost:" + server.getPort() + "/figures");
+        } catch (Exception e) {
+            System.err.println("Could not start the server: " + e.getMessage());
+            e.printStackTrace();
+        }
+        // The server's threads keep the JVM alive until it is terminated
+    }
+
+    /**
+     * Executes a command script against the drawing and writes its listings to standard output.
+     * The undo history is disabled, since a script cannot undo, so no memory is spent on it.
+     * The process exits with status 1 if any command failed, and 2 if the script could not be run.
+     *
+     * @param path The path of the SVG file backing the drawing.
+     * @param scriptArgument The script file as given on the command line, or {@code -} for standard input.
+     */
+    private static void runScript(Path path, String scriptArgument) {
+        SvgDrawing drawing = new SvgDrawing(new SvgFilePersistenceService(), path, 0, 0);
+        drawing.loadFromFile();
+
+        Writer output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        try (InputStream script = scriptArgument.equals("-") ? System.in : Files.newInputStream(Paths.get(scriptArgument))) {
+            int failures = new ScriptRunner(drawing, output).run(script);
+            if (failures > 0) {
+                System.err.println(failures + " command(s) failed.");
+                System.exit(1);
+            }
+        } catch (Exception e) {
+            System.err.println("Could not run the script: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Overwrites the SVG file with a drawing of random figures using the default
+     * {@link SyntheticFigureFactory.Settings}. The figures are streamed to the file as they are
+     * generated, so drawings of any size can be written without holding them in memory.
+     *
+     * @param path The path of the SVG file to overwrite.
+     * @param countArgument The number of figures as given on the command line.
+     * @param seedArgument The seed as given on the command line.
+     */
+    private static void generate(Path path, String countArgument, String seedArgument) {
+        long count;
+        long seed;
+        try {
+            count = Long.parseLong(countArgument);
+            seed = Long.parseLong(seedArgument);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid figure count or seed: " + countArgument + " " + seedArgument);
+            return;
+        }
+
+        try {
+            SyntheticFigureFactory.Settings settings = SyntheticFigureFactory.Settings.DEFAULT.withSeed(seed);
+            BoundingBox canvas = new BoundingBox(0, 0, settings.canvasWidth(), settings.canvasHeight());
+            new SvgFilePersistenceService().saveFigures(SyntheticFigureFactory.figures(settings, count), path, canvas);
+            System.out.println("Generated " + count + " figures in " + path);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Could not generate the drawing: " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,318 @@
+package svgcreator.app;
+
+import svgcreator.shapes.Figure;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A pre-allocated ring buffer through which many threads submit edits to one {@link SvgDrawing}.
+ * <p>
+ * Producers claim a sequence number with an atomic compare-and-set, fill the slot it maps to,
+ * and publish it by storing the sequence in the slot's published marker; no locks are taken and,
+ * since slots are reused, submitting an edit allocates nothing. A single applier thread owns the
+ * drawing: it consumes published slots in sequence order, applies them, and saves the drawing once
+ * per batch of consecutive events instead of once per edit. Runs of consecutive additions are
+ * applied with one {@link Drawing#addFigures(java.util.Collection)} call.
+ * </p>
+ * Once the buffer is started, the drawing must not be used by any other thread until
+ * {@link #close()} returns. Display indices in remove and translate events refer to the drawing as
+ * it is when the applier reaches the event, after all previously published events.
+ */
+public class MutationRingBuffer implements AutoCloseable {
+
+    /**
+     * Default number of slots; a power of two.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    // Event kinds
+    private static final int ADD = 0;
+    private static final int REMOVE = 1;
+    private static final int TRANSLATE = 2;
+    private static final int TRANSLATE_ALL = 3;
+
+    // Idle strategy of the applier: spin, then yield, then park briefly
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 50_000;
+
+    // Set in claimSequence once the buffer is closed, so no claim can slip past close()
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    /**
+     * One reusable event slot. Its fields are written by the producer that claimed it before the slot
+     * is published, and read by the applier only after, so the published marker orders the accesses.
+     */
+    private static final class Slot {
+        int kind;
+        Figure figure;
+        int displayIndex;
+        int dx;
+        int dy;
+    }
+
+    private final SvgDrawing drawing;
+    private final Slot[] slots;
+    private final AtomicLongArray published; // published.get(i) is the sequence last published in slot i
+    private final int mask;
+    private final AtomicLong claimSequence = new AtomicLong(); // Next sequence to claim, plus the CLOSED bit
+    private final AtomicLong appliedSequence = new AtomicLong(-1); // Last sequence consumed by the applier
+    private final ArrayList<Figure> pendingAdditions; // Reused by the applier for runs of additions
+    private final Thread applier;
+    private volatile boolean running;
+
+    /**
+     * Constructs a ring buffer with {@link #DEFAULT_CAPACITY} slots.
+     *
+     * @param drawing The drawing the applier thread takes ownership of.
+     */
+    public MutationRingBuffer(SvgDrawing drawing) {
+        this(drawing, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a ring buffer. The applier thread is not started until {@link #start()}.
+     *
+     * @param drawing  The drawing the applier thread takes ownership of.
+     * @param capacity The number of slots; must be a positive power of two.
+     * @throws IllegalArgumentException if the capacity is not a positive power of two.
+     */
+    public MutationRingBuffer(SvgDrawing drawing, int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two, got " + capacity + ".");
+        }
+        this.drawing = drawing;
+        this.slots = new Slot[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+        this.pendingAdditions = new ArrayList<>(capacity);
+        this.applier = new Thread(this::applyLoop, "drawing-mutation-applier");
+    }
+
+    /**
+     * Starts the applier thread.
+     *
+     * @throws IllegalStateException if the buffer was already started.
+     */
+    public synchronized void start() {
+        if (applier.getState() != Thread.State.NEW) {
+            throw new IllegalStateException("The ring buffer was already started.");
+        }
+        if ((claimSequence.get() & CLOSED) != 0) {
+            throw new IllegalStateException("The ring buffer was closed.");
+        }
+        running = true;
+        applier.start();
+    }
+
+    /**
+     * Submits the addition of a figure.
+     *
+     * @param figure The figure to add.
+     * @return The sequence number of the event, see {@link #awaitApplied(long)}.
+     */
+    public long submitAdd(Figure figure) {
+        long sequence = claim();
+        Slot slot = slots[(int) sequence & mask];
+        slot.kind = ADD;
+        slot.figure = figure;
+        publish(sequence);
+        return sequence;
+    }
+
+    /**
+     * Submits the removal of a figure.
+     *
+     * @param displayIndex The 1-based index of the figure to remove, as seen when the event is applied.
+     * @return The sequence number of the event.
+     */
+    public long submitRemove(int displayIndex) {
+        long sequence = claim();
+        Slot slot = slots[(int) sequence & mask];
+        slot.kind = REMOVE;
+        slot.displayIndex = displayIndex;
+        publish(sequence);
+        return sequence;
+    }
+
+    /**
+     * Submits the translation of one figure, or of all figures when the index is 0.
+     *
+     * @param displayIndex The 1-based index of the figure to translate, or 0 for all figures.
+     * @param dx The horizontal translation amount.
+     * @param dy The vertical translation amount.
+     * @return The sequence number of the event.
+     */
+    public long submitTranslate(int displayIndex, int dx, int dy) {
+        long sequence = claim();
+        Slot slot = slots[(int) sequence & mask];
+        slot.kind = displayIndex == 0 ? TRANSLATE_ALL : TRANSLATE;
+        slot.displayIndex = displayIndex;
+        slot.dx = dx;
+        slot.dy = dy;
+        publish(sequence);
+        return sequence;
+    }
+
+    /**
+     * Waits until the applier has applied the event with the given sequence number
+     * (and therefore every earlier one). The save covering it may still be in progress.
+     *
+     * @param sequence A sequence number returned by one of the submit methods.
+     * @throws IllegalStateException if the buffer is closed before the event is applied.
+     */
+    public void awaitApplied(long sequence) {
+        while (appliedSequence.get() < sequence) {
+            if ((claimSequence.get() & CLOSED) != 0 && !applier.isAlive()) {
+                throw new IllegalStateException("The ring buffer was closed before event " + sequence + " was applied.");
+            }
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    /**
+     * Stops accepting events, waits for the applier to apply and save every published event,
+     * and hands the drawing back to the caller.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if ((claimSequence.getAndUpdate(sequence -> sequence | CLOSED) & CLOSED) != 0 || !running) {
+                return;
+            }
+            running = false;
+        }
+        try {
+            applier.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Claims the next sequence, waiting while the slot it maps to still holds an unapplied event.
+     */
+    private long claim() {
+        long sequence;
+        do {
+            sequence = claimSequence.get();
+            if ((sequence & CLOSED) != 0 || !running) {
+                throw new IllegalStateException("The ring buffer is not running.");
+            }
+        } while (!claimSequence.compareAndSet(sequence, sequence + 1));
+        long wrapPoint = sequence - slots.length;
+        int tries = 0;
+        while (appliedSequence.get() < wrapPoint) { // The buffer is full; wait for the applier
+            if (++tries < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(1);
+            }
+        }
+        return sequence;
+    }
+
+    private void publish(long sequence) {
+        published.lazySet((int) sequence & mask, sequence); // Release store: orders the slot writes before it
+    }
+
+    private boolean isPublished(long sequence) {
+        return published.get((int) sequence & mask) == sequence;
+    }
+
+    /**
+     * The applier thread's loop: drains every published event as one batch, saves, and idles when
+     * there is nothing to do. On close, keeps draining until all claimed events are applied.
+     */
+    private void applyLoop() {
+        long next = 0;
+        int idle = 0;
+        long claimed;
+        while (((claimed = claimSequence.get()) & CLOSED) == 0 || next < (claimed & ~CLOSED)) {
+            if (!isPublished(next)) {
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+            next = applyBatch(next);
+            try {
+                drawing.saveToFile(); // One save per batch
+            } catch (RuntimeException e) {
+                System.err.println("Warning: Could not save the drawing: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Applies consecutive published events starting at {@code first}, at most one buffer's worth.
+     * Slots of buffered additions are released only once the additions reach the drawing.
+     *
+     * @return The first sequence not applied.
+     */
+    private long applyBatch(long first) {
+        long next = first;
+        long limit = first + slots.length;
+        while (next < limit && isPublished(next)) {
+            Slot slot = slots[(int) next & mask];
+            if (slot.kind == ADD) {
+                pendingAdditions.add(slot.figure);
+                slot.figure = null; // Do not keep the figure reachable from the buffer
+            } else {
+                flushAdditions(next - 1);
+                apply(slot);
+                appliedSequence.lazySet(next); // Frees the slot; it must not be touched afterwards
+            }
+            next++;
+        }
+        flushAdditions(next - 1);
+        return next;
+    }
+
+    private void apply(Slot slot) {
+        try {
+            switch (slot.kind) {
+                case REMOVE -> drawing.removeFigure(slot.displayIndex);
+                case TRANSLATE -> drawing.translateSingleFigure(slot.displayIndex, slot.dx, slot.dy);
+                case TRANSLATE_ALL -> drawing.translateAllFigures(slot.dx, slot.dy);
+                default -> throw new IllegalStateException("Unknown event kind " + slot.kind + ".");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Warning: Could not apply a drawing event: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adds the buffered run of additions, which ends at sequence {@code last}, in one call.
+     */
+    private void flushAdditions(long last) {
+        if (pendingAdditions.isEmpty()) {
+            return;
+        }
+        try {
+            drawing.addFigures(pendingAdditions);
+        } catch (RuntimeException e) {
+            System.err.println("Warning: Could not add figures: " + e.getMessage());
+        }
+        pendingAdditions.clear();
+        appliedSequence.lazySet(last);
+    }
+
+    private static int idle(int idle) {
+        if (idle < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (idle < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+            return idle;
+        }
+        return idle + 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package svgcreator.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A registry of named {@link OperationTimer}s, exposed as a platform MBean.
+ * <p>
+ * Instrumented components look up their timers once, when they are created, and then only record
+ * into them, so timing an operation costs two {@link System#nanoTime()} calls and a few striped
+ * counter increments. Operation names are dotted, starting with the layer that was timed,
+ * e.g. {@code persistence.loadFigures} or {@code drawing.getFiguresWithinBoundary}.
+ * </p>
+ * This class is thread-safe.
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+
+    /**
+     * The name {@link #register()} registers the metrics under.
+     */
+    public static final String OBJECT_NAME = "svgcreator:type=OperationMetrics";
+
+    private final ConcurrentMap<String, OperationTimer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the timer of an operation, creating it the first time the operation is named.
+     *
+     * @param name The name of the operation.
+     * @return The operation's timer.
+     */
+    public OperationTimer timer(String name) {
+        return timers.computeIfAbsent(name, ignored -> new OperationTimer());
+    }
+
+    @Override
+    public Map<String, OperationStatistics> getOperations() {
+        Map<String, OperationStatistics> operations = new TreeMap<>();
+        timers.forEach((name, timer) -> operations.put(name, timer.getStatistics()));
+        return operations;
+    }
+
+    @Override
+    public void reset() {
+        timers.values().forEach(OperationTimer::reset);
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under {@value #OBJECT_NAME}.
+     * If that is not possible, e.g. because other metrics are already registered there,
+     * a warning is printed and the metrics are only recorded.
+     *
+     * @return true if the metrics were registered, false otherwise.
+     */
+    public boolean register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, new ObjectName(OBJECT_NAME));
+            return true;
+        } catch (JMException e) {
+            System.err.println("Warning: Could not register the operation metrics MBean (" + e + ").");
+            return false;
+        }
+    }
+}
\ No newline at end of file
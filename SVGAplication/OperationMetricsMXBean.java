@@ -0,0 +1,22 @@
+package svgcreator.metrics;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link OperationMetrics}, exposed through the platform MBean server
+ * under {@value OperationMetrics#OBJECT_NAME}, e.g. for JConsole or Java Mission Control.
+ */
+public interface OperationMetricsMXBean {
+
+    /**
+     * Gets the timings of every operation recorded so far.
+     *
+     * @return The statistics by operation name, in name order.
+     */
+    Map<String, OperationStatistics> getOperations();
+
+    /**
+     * Discards every recorded timing, e.g. to start measuring a new load test.
+     */
+    void reset();
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package svgcreator.metrics;
+
+/**
+ * A snapshot of the timings of one kind of operation, as exposed through {@link OperationMetricsMXBean}.
+ * Percentiles are read from a {@link LatencyHistogram}, so they are at most 6.25% higher than exact.
+ *
+ * @param count        The number of completed operations, including failed ones.
+ * @param failures     The number of operations that ended with an exception.
+ * @param meanMillis   The mean duration in milliseconds.
+ * @param p50Millis    The median duration in milliseconds.
+ * @param p90Millis    The 90th percentile of the durations in milliseconds.
+ * @param p99Millis    The 99th percentile of the durations in milliseconds.
+ * @param p999Millis   The 99.9th percentile of the durations in milliseconds.
+ * @param maxMillis    The longest duration in milliseconds.
+ */
+public record OperationStatistics(long count, long failures, double meanMillis, double p50Millis,
+                                  double p90Millis, double p99Millis, double p999Millis, double maxMillis) {
+}
\ No newline at end of file
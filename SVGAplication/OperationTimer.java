@@ -0,0 +1,100 @@
+package svgcreator.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Times one kind of operation: a {@link LatencyHistogram} of its durations and a count of its failures.
+ * Timers are obtained from {@link OperationMetrics#timer(String)} and are safe to use from any thread;
+ * recording takes no locks.
+ */
+public final class OperationTimer {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Constructs a timer with no recorded operations.
+     */
+    OperationTimer() {
+    }
+
+    /**
+     * Records an operation that completed normally.
+     *
+     * @param nanos The duration of the operation in nanoseconds.
+     */
+    public void record(long nanos) {
+        histogram.record(nanos);
+    }
+
+    /**
+     * Records an operation that ended with an exception. Its duration is included in the histogram.
+     *
+     * @param nanos The duration of the operation in nanoseconds.
+     */
+    public void recordFailure(long nanos) {
+        histogram.record(nanos);
+        failures.increment();
+    }
+
+    /**
+     * Runs an operation and records its duration, and whether it threw.
+     *
+     * @param operation The operation to run.
+     * @param <T>       The type of the operation's result.
+     * @return The operation's result.
+     */
+    public <T> T time(Supplier<T> operation) {
+        long start = System.nanoTime();
+        try {
+            T result = operation.get();
+            record(System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException | Error e) {
+            recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs an operation without a result and records its duration, and whether it threw.
+     *
+     * @param operation The operation to run.
+     */
+    public void time(Runnable operation) {
+        long start = System.nanoTime();
+        try {
+            operation.run();
+            record(System.nanoTime() - start);
+        } catch (RuntimeException | Error e) {
+            recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * Takes a snapshot of the recorded timings.
+     *
+     * @return The statistics.
+     */
+    public OperationStatistics getStatistics() {
+        return new OperationStatistics(histogram.getCount(), failures.sum(),
+                histogram.getMeanNanos() / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(90) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                histogram.getMaxNanos() / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Discards every recorded timing.
+     */
+    void reset() {
+        histogram.reset();
+        failures.reset();
+    }
+}
\ No newline at end of file
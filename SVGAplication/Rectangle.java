@@ -29,12 +29,13 @@ public class Rectangle extends Figure {
     /**
      * Generates the SVG string representation for this rectangle.
      * The format is {@code <rect x='...' y='...' width='...' height='...' fill='...' />}.
+     * A {@code transform='matrix(...)'} attribute is added if the figure has a transform.
      *
      * @return A string representing the SVG element for this rectangle.
      */
     @Override
     public String drawFigure() {
-        return "<rect x='" + getXAxis() + "' y='" + getYAxis() + "' width='" + width + "' height='" + height + "' fill='" + getColor() + "' />";
+        return "<rect x='" + getXAxis() + "' y='" + getYAxis() + "' width='" + width + "' height='" + height + "' fill='" + getColor() + "'" + transformAttribute() + " />";
     }
 
     /**
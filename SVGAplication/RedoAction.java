@@ -0,0 +1,57 @@
+package svgcreator.app.actions;
+
+import svgcreator.app.MenuAction;
+import svgcreator.app.SvgDrawing;
+import svgcreator.ui.ConsoleUI;
+
+/**
+ * Represents the action of redoing the most recently undone edit in the drawing.
+ * This class implements the {@link MenuAction} interface and encapsulates
+ * the logic for asking the {@link SvgDrawing} to redo its last step and persisting
+ * the result, just as the edit itself was persisted.
+ */
+public class RedoAction implements MenuAction {
+    private final ConsoleUI ui;
+    private final SvgDrawing drawing;
+
+    /**
+     * Constructs a {@code RedoAction} instance.
+     *
+     * @param ui The console user interface used for displaying messages to the user.
+     * @param drawing The {@link SvgDrawing} whose history is used
+     *                and which will be responsible for saving the changes.
+     */
+    public RedoAction(ConsoleUI ui, SvgDrawing drawing) {
+        this.ui = ui;
+        this.drawing = drawing;
+    }
+
+    /**
+     * Executes the redo process.
+     * <p>
+     * This method performs the following steps:
+     * <ol>
+     *   <li>If an edit session is open, displays an error and returns, since the session must end first.</li>
+     *   <li>Asks the {@link SvgDrawing} to redo its last step; if there is none, displays a message and returns.</li>
+     *   <li>Instructs the {@link SvgDrawing} to save its current state to the persistent store.</li>
+     * </ol>
+     *
+     * @return {@code true} to indicate that the application should continue running.
+     *         This action does not terminate the application.
+     */
+    @Override
+    public boolean execute() {
+        if (drawing.isInTransaction()) {
+            ui.showError("Cannot redo while an edit session is open. Commit or roll it back first.");
+            return true; // Continue running
+        }
+
+        if (drawing.redo()) {
+            drawing.saveToFile(); // Persist the changes
+            ui.showMessage("Last step redone. Drawing updated and saved.");
+        } else {
+            ui.showMessage("Nothing to redo.");
+        }
+        return true; // Always continue running after this action
+    }
+}
\ No newline at end of file
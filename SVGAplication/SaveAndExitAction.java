@@ -30,7 +30,8 @@ public class SaveAndExitAction implements MenuAction {
      * <p>
      * This method performs the following steps:
      * <ol>
-     *   <li>Instructs the {@link Drawing} to save its current state to the persistent store.</li>
+     *   <li>Instructs the {@link Drawing} to save its current state to the persistent store,
+     *       committing an open edit session so that its changes are written as well.</li>
      *   <li>Displays a confirmation message to the user via the {@link ConsoleUI} indicating
      *       that all figures have been saved.</li>
      *   <li>Returns {@code false} to signal the main application loop to terminate.</li>
@@ -41,6 +42,9 @@ public class SaveAndExitAction implements MenuAction {
     @Override
     public boolean execute() {
         drawing.saveToFile();
+        if (drawing.isInTransaction()) {
+            drawing.commitTransaction(); // The save above was deferred until the session commits
+        }
         ui.showMessage("All figures saved.");
         return false; // Signal to exit the application
     }
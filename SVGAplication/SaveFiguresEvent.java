@@ -0,0 +1,96 @@
+package svgcreator.persistence;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.nio.file.Path;
+
+/**
+ * A JDK Flight Recorder event for saving a drawing to an SVG file, split into rendering and writing.
+ * A blocking save streams the figures to the file as they are rendered, so its render time includes
+ * most of the writing, and its write time only covers flushing and closing the file; an asynchronous
+ * save renders the whole document first, so there the two are separate.
+ * The event is disabled by default; {@link svgcreator.Main#main} describes how to enable it.
+ */
+@Name("svgcreator.SaveFigures")
+@Label("Save Figures")
+@Category({"SVG Creator", "Persistence"})
+@Description("Saving a drawing to an SVG file")
+@Enabled(false)
+@StackTrace(false)
+final class SaveFiguresEvent extends Event {
+
+    @Label("File")
+    String path;
+
+    @Label("Figures")
+    @Description("The number of top-level figures saved; a group counts as one")
+    int figureCount;
+
+    @Label("Size")
+    @DataAmount
+    long byteCount;
+
+    @Label("Render Time")
+    @Description("Time spent rendering the figures to SVG text")
+    @Timespan
+    long renderDuration;
+
+    @Label("Write Time")
+    @Description("Time spent writing the rendered text that was still pending, and closing the file")
+    @Timespan
+    long writeDuration;
+
+    private transient long phaseStart;
+
+    /**
+     * Creates the event and starts timing the rendering.
+     *
+     * @param filePath The file being saved.
+     * @return The started event.
+     */
+    static SaveFiguresEvent start(Path filePath) {
+        SaveFiguresEvent event = new SaveFiguresEvent();
+        if (event.isEnabled()) {
+            event.path = filePath.toString();
+            event.phaseStart = System.nanoTime();
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the rendering and starts timing the write.
+     *
+     * @param figures The number of top-level figures rendered.
+     */
+    void rendered(int figures) {
+        if (isEnabled()) {
+            figureCount = figures;
+            long now = System.nanoTime();
+            renderDuration = now - phaseStart;
+            phaseStart = now;
+        }
+    }
+
+    /**
+     * Ends the write and commits the event, if it exceeds the recording's threshold.
+     *
+     * @param bytes The size of the written file.
+     */
+    void written(long bytes) {
+        end();
+        if (shouldCommit()) {
+            writeDuration = System.nanoTime() - phaseStart;
+            byteCount = bytes;
+            commit();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,225 @@
+package svgcreator.app;
+
+import svgcreator.factories.CircleFactory;
+import svgcreator.factories.FigureFactory;
+import svgcreator.factories.LineFactory;
+import svgcreator.factories.RectangleFactory;
+import svgcreator.shapes.Figure;
+import svgcreator.ui.ConsoleUI;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Executes a script of drawing commands without any prompts, for batch use of the application
+ * (e.g. {@code java svgcreator.Main --script commands.txt}, or commands piped to standard input).
+ * <p>
+ * Each line holds one command; blank lines and lines starting with {@code #} are ignored:
+ * </p>
+ * <ul>
+ *   <li>{@code circle x y radius color}</li>
+ *   <li>{@code rectangle x y width height color} (or {@code rect})</li>
+ *   <li>{@code line x1 y1 x2 y2 color}</li>
+ *   <li>{@code delete index} - removes the figure with the given 1-based index.</li>
+ *   <li>{@code translate index dx dy} - translates one figure, or all figures if the index is 0.</li>
+ *   <li>{@code within rectangle x y width height} or {@code within circle x y radius} - lists the
+ *       figures completely within the boundary.</li>
+ *   <li>{@code list [first [count]]} - lists all figures, or only {@code count} figures (default all)
+ *       starting at the 1-based index {@code first}.</li>
+ *   <li>{@code save} - saves the drawing to its file.</li>
+ * </ul>
+ * Commands that change the drawing produce no output; listings are written to the output in the same
+ * format as the console menu shows them. A command is checked up to the end of its line before it has
+ * any effect; an invalid command is reported on {@code System.err} with its line number and skipped,
+ * and the script continues. The drawing is saved once more at the end of the
+ * script if it changed since it was last saved.
+ */
+public class ScriptRunner {
+
+    private final Drawing drawing;
+    private final Writer output;
+    private boolean unsaved; // Whether the drawing changed since the last save
+
+    /**
+     * Constructs a {@code ScriptRunner}.
+     *
+     * @param drawing The {@link Drawing} the commands are executed against.
+     * @param output The writer listings are written to. It should be buffered, since each listed
+     *               figure is written separately; it is flushed, but not closed, when the script ends.
+     */
+    public ScriptRunner(Drawing drawing, Writer output) {
+        this.drawing = drawing;
+        this.output = output;
+    }
+
+    /**
+     * Executes every command of a script.
+     * <p>
+     * This method performs the following steps:
+     * <ol>
+     *   <li>Reads the script line by line with a {@link ScriptTokenizer}.</li>
+     *   <li>Executes each command against the {@link Drawing}, reporting and skipping invalid ones.</li>
+     *   <li>Saves the drawing if it has unsaved changes, and flushes the output.</li>
+     * </ol>
+     *
+     * @param script The stream to read the commands from. It is not closed by this method.
+     * @return The number of commands that failed.
+     * @throws IOException if reading the script or writing the output fails.
+     */
+    public int run(InputStream script) throws IOException {
+        ScriptTokenizer tokens = new ScriptTokenizer(script);
+        int failures = 0;
+        while (tokens.nextCommand()) {
+            try {
+                execute(tokens);
+            } catch (IllegalArgumentException e) {
+                failures++;
+                System.err.println("ERROR: Line " + tokens.lineNumber() + ": " + e.getMessage());
+            }
+            tokens.skipLine();
+        }
+        if (unsaved) {
+            drawing.saveToFile();
+            unsaved = false;
+        }
+        output.flush();
+        return failures;
+    }
+
+    /**
+     * Reads the arguments of the command at the start of the current line and executes it.
+     * Every argument, and the end of the line, is checked before the command has any effect.
+     */
+    private void execute(ScriptTokenizer tokens) throws IOException {
+        String command = tokens.nextWord("command");
+        switch (command) {
+            case "circle" -> {
+                int x = tokens.nextInt("x position");
+                int y = tokens.nextInt("y position");
+                int radius = requireNonNegative(tokens.nextInt("radius"), "Radius");
+                String color = tokens.nextWord("fill color");
+                tokens.expectEndOfLine();
+                add(new CircleFactory(x, y, radius, color));
+            }
+            case "rectangle", "rect" -> {
+                int x = tokens.nextInt("x position");
+                int y = tokens.nextInt("y position");
+                int width = requireNonNegative(tokens.nextInt("width"), "Width");
+                int height = requireNonNegative(tokens.nextInt("height"), "Height");
+                String color = tokens.nextWord("fill color");
+                tokens.expectEndOfLine();
+                add(new RectangleFactory(x, y, color, width, height));
+            }
+            case "line" -> {
+                int x1 = tokens.nextInt("x1");
+                int y1 = tokens.nextInt("y1");
+                int x2 = tokens.nextInt("x2");
+                int y2 = tokens.nextInt("y2");
+                String color = tokens.nextWord("stroke color");
+                tokens.expectEndOfLine();
+                add(new LineFactory(x1, y1, color, x2, y2));
+            }
+            case "delete" -> {
+                int index = tokens.nextInt("figure number");
+                tokens.expectEndOfLine();
+                if (!drawing.removeFigure(index)) {
+                    throw new IllegalArgumentException(invalidIndex(index));
+                }
+                unsaved = true;
+            }
+            case "translate" -> {
+                int index = tokens.nextInt("figure number");
+                int dx = tokens.nextInt("dx");
+                int dy = tokens.nextInt("dy");
+                tokens.expectEndOfLine();
+                if (index == 0) {
+                    drawing.translateAllFigures(dx, dy);
+                } else if (!drawing.translateSingleFigure(index, dx, dy)) {
+                    throw new IllegalArgumentException(invalidIndex(index));
+                }
+                unsaved = true;
+            }
+            case "within" -> within(tokens);
+            case "list" -> list(tokens);
+            case "save" -> {
+                tokens.expectEndOfLine();
+                drawing.saveToFile();
+                unsaved = false;
+            }
+            default -> throw new IllegalArgumentException("Unknown command '" + command + "'.");
+        }
+    }
+
+    /**
+     * Reads a boundary and lists the figures completely within it.
+     */
+    private void within(ScriptTokenizer tokens) throws IOException {
+        String type = tokens.nextWord("boundary type").toLowerCase();
+        int x = tokens.nextInt("x position");
+        int y = tokens.nextInt("y position");
+        String header;
+        List<Figure> figuresWithin;
+        if (type.equals("rectangle")) {
+            int width = requireNonNegative(tokens.nextInt("width"), "Width");
+            int height = requireNonNegative(tokens.nextInt("height"), "Height");
+            tokens.expectEndOfLine();
+            header = "> Figures within rectangle " + x + " " + y + " " + width + " " + height;
+            figuresWithin = drawing.getFiguresWithinBoundary(type, x, y, width, height);
+        } else if (type.equals("circle")) {
+            int radius = requireNonNegative(tokens.nextInt("radius"), "Radius");
+            tokens.expectEndOfLine();
+            header = "> Figures within circle " + x + " " + y + " " + radius;
+            figuresWithin = drawing.getFiguresWithinBoundary(type, x, y, radius, 0);
+        } else {
+            throw new IllegalArgumentException("Invalid boundary type '" + type + "'. Use 'rectangle' or 'circle'.");
+        }
+        writeFigures(header, figuresWithin, 1);
+    }
+
+    /**
+     * Reads the optional range of a listing and lists the figures in it.
+     */
+    private void list(ScriptTokenizer tokens) throws IOException {
+        if (!tokens.hasToken()) {
+            writeFigures("--- All Figures in Drawing ---", drawing.getAllFigures(), 1);
+            return;
+        }
+        int first = tokens.nextInt("first figure number");
+        int count = tokens.hasToken() ? requireNonNegative(tokens.nextInt("count"), "Count") : Integer.MAX_VALUE;
+        if (first < 1) {
+            throw new IllegalArgumentException("First figure number must be at least 1.");
+        }
+        tokens.expectEndOfLine();
+        writeFigures("--- Figures from #" + first + " ---", drawing.getFigures(first - 1, count), first);
+    }
+
+    private void add(FigureFactory factory) {
+        drawing.addFigure(factory.createFigure());
+        unsaved = true;
+    }
+
+    /**
+     * Writes a header followed by the numbered figures, as {@link ConsoleUI#displayFigures} does.
+     */
+    private void writeFigures(String header, List<Figure> figures, int firstIndex) throws IOException {
+        output.write(header);
+        output.write('\n');
+        if (figures.isEmpty()) {
+            output.write("No figures to display.\n");
+        }
+        ConsoleUI.writeFigures(output, figures, firstIndex);
+    }
+
+    private String invalidIndex(int index) {
+        return "Invalid figure number " + index + ". Must be between 1 and " + drawing.getFigureCount() + ".";
+    }
+
+    private static int requireNonNegative(int value, String what) {
+        if (value < 0) {
+            throw new IllegalArgumentException(what + " cannot be negative.");
+        }
+        return value;
+    }
+}
\ No newline at end of file
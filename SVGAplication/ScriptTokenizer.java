@@ -0,0 +1,197 @@
+package svgcreator.app;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits a command script into lines of whitespace-separated tokens.
+ * The input is read in large blocks and scanned byte by byte: integers are parsed directly from
+ * the bytes and only words (command names, colors) become strings, so no per-line {@code String}
+ * or regular expression is involved. Blank lines and lines starting with {@code #} are skipped; a
+ * {@code #} elsewhere belongs to its token, so hex colors such as {@code #ff0000} can be used.
+ * Tokens are ASCII; other bytes are only allowed inside words, which are decoded as UTF-8.
+ */
+final class ScriptTokenizer {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int END = -1;
+
+    private final InputStream input;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private byte[] word = new byte[32]; // Scratch space for the word being read
+    private int lineNumber;
+
+    /**
+     * Constructs a tokenizer reading from a stream. The stream is not closed by the tokenizer.
+     *
+     * @param input The stream to read the script from.
+     */
+    ScriptTokenizer(InputStream input) {
+        this.input = input;
+    }
+
+    /**
+     * Advances to the next line holding a command, skipping blank and comment-only lines.
+     *
+     * @return true if a command line was found, false at the end of the input.
+     * @throws IOException if reading the input fails.
+     */
+    boolean nextCommand() throws IOException {
+        while (true) {
+            int b = skipBlanks();
+            if (b == END) {
+                return false;
+            }
+            lineNumber++;
+            if (b != '\n' && b != '\r' && b != '#') {
+                return true;
+            }
+            skipLine();
+        }
+    }
+
+    /**
+     * Gets the 1-based number of the current line.
+     *
+     * @return The line number, or 0 before the first command.
+     */
+    int lineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Checks whether the current line has another token.
+     *
+     * @return true if a token follows, false at the end of the line or of the input.
+     * @throws IOException if reading the input fails.
+     */
+    boolean hasToken() throws IOException {
+        int b = skipBlanks();
+        return b != END && b != '\n' && b != '\r';
+    }
+
+    /**
+     * Reads the next token of the current line as a word.
+     *
+     * @param what A description of the expected token, for the error message.
+     * @return The word.
+     * @throws IllegalArgumentException if the line has no more tokens.
+     * @throws IOException if reading the input fails.
+     */
+    String nextWord(String what) throws IOException {
+        if (!hasToken()) {
+            throw new IllegalArgumentException("Missing " + what + ".");
+        }
+        int length = 0;
+        for (int b = peek(); b != END && !isSeparator(b); b = peek()) {
+            if (length == word.length) {
+                word = Arrays.copyOf(word, length * 2);
+            }
+            word[length++] = (byte) b;
+            position++;
+        }
+        return new String(word, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the next token of the current line as a decimal integer, with an optional sign.
+     *
+     * @param what A description of the expected token, for the error message.
+     * @return The integer.
+     * @throws IllegalArgumentException if the line has no more tokens, or the token is not an integer
+     *                                  or does not fit an {@code int}.
+     * @throws IOException if reading the input fails.
+     */
+    int nextInt(String what) throws IOException {
+        if (!hasToken()) {
+            throw new IllegalArgumentException("Missing " + what + ".");
+        }
+        boolean negative = false;
+        int b = peek();
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            position++;
+            b = peek();
+        }
+        if (b < '0' || b > '9') {
+            throw new IllegalArgumentException("Expected a number for " + what + ".");
+        }
+        long value = 0; // Accumulated negatively so Integer.MIN_VALUE fits
+        while (b >= '0' && b <= '9') {
+            value = value * 10 - (b - '0');
+            if (value < Integer.MIN_VALUE) {
+                throw new IllegalArgumentException("Number out of range for " + what + ".");
+            }
+            position++;
+            b = peek();
+        }
+        if (b != END && !isSeparator(b)) {
+            throw new IllegalArgumentException("Expected a number for " + what + ".");
+        }
+        if (!negative && value == Integer.MIN_VALUE) {
+            throw new IllegalArgumentException("Number out of range for " + what + ".");
+        }
+        return (int) (negative ? value : -value);
+    }
+
+    /**
+     * Checks that the current line has no further tokens.
+     *
+     * @throws IllegalArgumentException if a token follows.
+     * @throws IOException if reading the input fails.
+     */
+    void expectEndOfLine() throws IOException {
+        if (hasToken()) {
+            throw new IllegalArgumentException("Unexpected '" + nextWord("token") + "' at end of command.");
+        }
+    }
+
+    /**
+     * Discards the rest of the current line, including its line terminator.
+     *
+     * @throws IOException if reading the input fails.
+     */
+    void skipLine() throws IOException {
+        for (int b = peek(); b != END; b = peek()) {
+            position++;
+            if (b == '\n') {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Skips spaces and tabs, and returns the following byte without consuming it.
+     */
+    private int skipBlanks() throws IOException {
+        int b = peek();
+        while (b == ' ' || b == '\t') {
+            position++;
+            b = peek();
+        }
+        return b;
+    }
+
+    private static boolean isSeparator(int b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    /**
+     * Returns the next byte without consuming it, refilling the buffer when it is exhausted.
+     */
+    private int peek() throws IOException {
+        if (position == limit) {
+            int read = input.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                return END;
+            }
+            position = 0;
+            limit = read;
+        }
+        return buffer[position] & 0xFF;
+    }
+}
\ No newline at end of file
@@ -13,27 +13,52 @@ import svgcreator.ui.ConsoleUI;
  */
 public class ShowAllFiguresAction implements MenuAction {
 
+    /**
+     * The number of figures shown per page when no page size is given.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
     private final ConsoleUI ui;
     private final Drawing drawing;
+    private final int pageSize;
 
     /**
-     * Constructs a {@code ShowAllFiguresAction} instance.
+     * Constructs a {@code ShowAllFiguresAction} instance showing {@link #DEFAULT_PAGE_SIZE} figures per page.
      *
      * @param ui The console user interface used for displaying the figures to the user.
      * @param drawing The {@link Drawing} model from which the figures will be retrieved.
      */
     public ShowAllFiguresAction(ConsoleUI ui, Drawing drawing) {
+        this(ui, drawing, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Constructs a {@code ShowAllFiguresAction} instance.
+     *
+     * @param ui The console user interface used for displaying the figures to the user.
+     * @param drawing The {@link Drawing} model from which the figures will be retrieved.
+     * @param pageSize The number of figures shown per page.
+     * @throws IllegalArgumentException if the page size is not positive.
+     */
+    public ShowAllFiguresAction(ConsoleUI ui, Drawing drawing, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive, got " + pageSize + ".");
+        }
         this.ui = ui;
         this.drawing = drawing;
+        this.pageSize = pageSize;
     }
 
     /**
-     * Executes the action to display all figures.
+     * Executes the action to display all figures, one page at a time.
      * <p>
      * This method performs the following steps:
      * <ol>
-     *   <li>Retrieves a list of all figures from the {@link Drawing}.</li>
-     *   <li>Calls the {@link ConsoleUI} to display these figures under a specific header.</li>
+     *   <li>Computes the number of pages from the {@link Drawing}'s figure count.</li>
+     *   <li>Retrieves only the figures of the current page from the {@link Drawing}.</li>
+     *   <li>Calls the {@link ConsoleUI} to display these figures under a specific header,
+     *       numbered by their position in the drawing.</li>
+     *   <li>If there is more than one page, asks the user which page to show next, until they stop.</li>
      * </ol>
      *
      * @return {@code true} to indicate that the application should continue running.
@@ -41,9 +66,20 @@ public class ShowAllFiguresAction implements MenuAction {
      */
     @Override
     public boolean execute() {
-        // Retrieve all figures from the drawing and pass them to the UI for display.
-        // The UI is responsible for formatting the figures for console output.
-        ui.displayFigures("--- All Figures in Drawing ---", drawing.getAllFigures());
+        int pageCount = Math.max(1, (drawing.getFigureCount() + pageSize - 1) / pageSize);
+        if (pageCount == 1) {
+            ui.displayFigures("--- All Figures in Drawing ---", drawing.getAllFigures());
+            return true; // Everything fits on one page
+        }
+
+        int page = 1;
+        while (page != 0) {
+            int offset = (page - 1) * pageSize;
+            // Only the current page is retrieved and formatted, however large the drawing is
+            ui.displayFigures("--- All Figures in Drawing (page " + page + " of " + pageCount + ") ---",
+                    drawing.getFigures(offset, pageSize), offset + 1);
+            page = ui.getPageNumber(page, pageCount);
+        }
         return true; // Always continue running after this action
     }
 }
\ No newline at end of file
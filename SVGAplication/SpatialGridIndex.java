@@ -0,0 +1,227 @@
+package svgcreator.app;
+
+import svgcreator.shapes.Figure;
+import svgcreator.utils.BoundingBox;
+import svgcreator.utils.GeometryUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform-grid spatial index over the figures of a drawing, used to find the figures
+ * intersecting an area without scanning the whole drawing.
+ * <p>
+ * Each figure is registered in every grid cell its bounding box overlaps; figures spanning
+ * too many cells are kept in a separate list that is always checked. Every entry carries the
+ * sequence number it was inserted with, so query results can be returned in drawing order.
+ * Translating every figure only shifts the index's global offset, which keeps
+ * {@link Drawing#translateAllFigures(int, int)} O(1) for the index.
+ * </p>
+ * The index is not thread-safe; it is owned and guarded by its drawing.
+ */
+final class SpatialGridIndex {
+
+    /**
+     * Width and height of a grid cell, in drawing units.
+     */
+    private static final int CELL_SIZE = 256;
+
+    /**
+     * Figures overlapping more cells than this are stored in the oversized list instead.
+     */
+    private static final int MAX_CELLS_PER_FIGURE = 64;
+
+    /**
+     * An indexed figure together with its insertion order and its box in index space.
+     */
+    private static final class Entry {
+        final Figure figure;
+        final long sequence;
+        BoundingBox box;
+        boolean oversized;
+
+        Entry(Figure figure, long sequence) {
+            this.figure = figure;
+            this.sequence = sequence;
+        }
+    }
+
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    private final List<Entry> oversized = new ArrayList<>();
+    private final Map<Figure, Entry> entries = new IdentityHashMap<>();
+    private long nextSequence;
+    private int offsetX, offsetY; // Accumulated translation applied to every indexed figure
+
+    /**
+     * Builds an index over the given figures, preserving their order.
+     * @param figures The figures to index, in drawing order.
+     */
+    SpatialGridIndex(Iterable<Figure> figures) {
+        for (Figure figure : figures) {
+            insert(figure);
+        }
+    }
+
+    /**
+     * Adds a figure after all figures already in the index.
+     * @param figure The figure to add.
+     */
+    void insert(Figure figure) {
+        Entry entry = new Entry(figure, nextSequence++);
+        if (place(entry)) {
+            entries.put(figure, entry);
+        }
+    }
+
+    /**
+     * Removes a figure from the index.
+     * @param figure The figure to remove.
+     */
+    void remove(Figure figure) {
+        Entry entry = entries.remove(figure);
+        if (entry != null) {
+            unplace(entry);
+        }
+    }
+
+    /**
+     * Re-registers a figure whose geometry changed, keeping its position in the drawing order.
+     * @param figure The figure that was moved or resized.
+     */
+    void update(Figure figure) {
+        Entry entry = entries.get(figure);
+        if (entry != null) {
+            unplace(entry);
+            if (!place(entry)) {
+                entries.remove(figure);
+            }
+        }
+    }
+
+    /**
+     * Records that every indexed figure was translated by the given deltas.
+     * @param dx The horizontal translation amount.
+     * @param dy The vertical translation amount.
+     */
+    void translateAll(int dx, int dy) {
+        offsetX += dx;
+        offsetY += dy;
+    }
+
+    /**
+     * Finds the figures whose bounding boxes intersect an area.
+     * @param area The area to search, in drawing coordinates.
+     * @return The intersecting figures, in drawing order.
+     */
+    List<Figure> query(BoundingBox area) {
+        BoundingBox local = area.translate(-offsetX, -offsetY);
+        List<Entry> found = new ArrayList<>();
+        int minCx = cell(local.minX()), maxCx = cell(local.maxX());
+        int minCy = cell(local.minY()), maxCy = cell(local.maxY());
+        long rangeCells = ((long) maxCx - minCx + 1) * ((long) maxCy - minCy + 1);
+
+        if (rangeCells <= cells.size()) {
+            for (int cx = minCx; cx <= maxCx; cx++) {
+                for (int cy = minCy; cy <= maxCy; cy++) {
+                    collect(cells.get(key(cx, cy)), cx, cy, local, found);
+                }
+            }
+        } else { // The area covers more cells than are populated, so walk the populated ones
+            for (Map.Entry<Long, List<Entry>> cell : cells.entrySet()) {
+                int cx = (int) (cell.getKey() >> 32), cy = (int) (long) cell.getKey();
+                if (cx >= minCx && cx <= maxCx && cy >= minCy && cy <= maxCy) {
+                    collect(cell.getValue(), cx, cy, local, found);
+                }
+            }
+        }
+        for (Entry entry : oversized) {
+            if (entry.box.intersects(local)) {
+                found.add(entry);
+            }
+        }
+
+        found.sort(Comparator.comparingLong(entry -> entry.sequence));
+        List<Figure> figures = new ArrayList<>(found.size());
+        for (Entry entry : found) {
+            figures.add(entry.figure);
+        }
+        return figures;
+    }
+
+    /**
+     * Adds the entries of one cell that intersect the area. An entry spanning several cells is
+     * reported only by the cell holding the top-left corner of its intersection with the area.
+     */
+    private void collect(List<Entry> cellEntries, int cx, int cy, BoundingBox area, List<Entry> found) {
+        if (cellEntries == null) {
+            return;
+        }
+        for (Entry entry : cellEntries) {
+            BoundingBox box = entry.box;
+            if (box.intersects(area)
+                    && cell(Math.max(box.minX(), area.minX())) == cx
+                    && cell(Math.max(box.minY(), area.minY())) == cy) {
+                found.add(entry);
+            }
+        }
+    }
+
+    /**
+     * Registers an entry in the cells its figure currently overlaps.
+     * @return false if the figure has no bounding box and cannot be indexed.
+     */
+    private boolean place(Entry entry) {
+        BoundingBox box = GeometryUtils.getBoundingBox(entry.figure);
+        if (box == null) {
+            return false;
+        }
+        entry.box = box.translate(-offsetX, -offsetY);
+        long spanned = ((long) cell(entry.box.maxX()) - cell(entry.box.minX()) + 1)
+                * ((long) cell(entry.box.maxY()) - cell(entry.box.minY()) + 1);
+        entry.oversized = spanned > MAX_CELLS_PER_FIGURE;
+        if (entry.oversized) {
+            oversized.add(entry);
+            return true;
+        }
+        for (int cx = cell(entry.box.minX()); cx <= cell(entry.box.maxX()); cx++) {
+            for (int cy = cell(entry.box.minY()); cy <= cell(entry.box.maxY()); cy++) {
+                cells.computeIfAbsent(key(cx, cy), k -> new ArrayList<>()).add(entry);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes an entry from the cells recorded for it at the time it was placed.
+     */
+    private void unplace(Entry entry) {
+        if (entry.oversized) {
+            oversized.remove(entry);
+            return;
+        }
+        for (int cx = cell(entry.box.minX()); cx <= cell(entry.box.maxX()); cx++) {
+            for (int cy = cell(entry.box.minY()); cy <= cell(entry.box.maxY()); cy++) {
+                Long key = key(cx, cy);
+                List<Entry> cellEntries = cells.get(key);
+                if (cellEntries != null) {
+                    cellEntries.remove(entry);
+                    if (cellEntries.isEmpty()) {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int cell(int coordinate) {
+        return Math.floorDiv(coordinate, CELL_SIZE);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
\ No newline at end of file
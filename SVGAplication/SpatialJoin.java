@@ -0,0 +1,281 @@
+package svgcreator.app;
+
+import svgcreator.shapes.Circle;
+import svgcreator.shapes.Figure;
+import svgcreator.shapes.Rectangle;
+import svgcreator.utils.BoundingBox;
+import svgcreator.utils.GeometryUtils;
+import svgcreator.utils.Transform;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Spatial join between two {@link Drawing} instances.
+ * Finds every pair of figures where a figure of the left drawing is contained in, or overlaps,
+ * a figure of the right drawing.
+ * <p>
+ * Instead of comparing every left figure with every right figure, both drawings are
+ * partitioned into a uniform grid over their common extent. Only figures sharing a grid cell
+ * are compared, and the cells are processed in parallel. A pair that spans several cells is
+ * reported by exactly one of them, so the resulting stream contains no duplicates. Figures
+ * overlapping many cells are kept out of the grid, so that a few large figures do not multiply
+ * its size; each of them is compared once with every figure of the other drawing instead.
+ * </p>
+ * This class cannot be instantiated.
+ */
+public final class SpatialJoin {
+
+    /**
+     * Average number of figures per grid cell the partitioning aims for.
+     */
+    private static final int TARGET_FIGURES_PER_CELL = 16;
+
+    /**
+     * Upper bound on the number of grid cells along each axis.
+     */
+    private static final int MAX_CELLS_PER_SIDE = 1024;
+
+    /**
+     * Figures overlapping more grid cells than this are compared outside the grid.
+     */
+    private static final int MAX_CELLS_PER_FIGURE = 64;
+
+    /**
+     * A matched pair produced by the join.
+     *
+     * @param figure    The figure from the left drawing.
+     * @param other     The figure from the right drawing.
+     * @param contained {@code true} if {@code figure} lies completely within {@code other},
+     *                  {@code false} if the two only overlap.
+     */
+    public static record Match(Figure figure, Figure other, boolean contained) {}
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private SpatialJoin() {
+        // This class is not meant to be instantiated.
+    }
+
+    /**
+     * Joins two drawings, streaming every left figure that is contained in or overlaps a right figure.
+     * Overlap is decided on bounding boxes; containment uses
+     * {@link GeometryUtils#isFigureWithinBoundary} with the right figure as the boundary.
+     * The figures are snapshotted when this method is called; the stream is evaluated lazily
+     * and in parallel across grid cells, so its order is unspecified.
+     *
+     * @param left  The drawing whose figures are tested (e.g. a revision).
+     * @param right The drawing whose figures act as containers (e.g. a baseline).
+     * @return A parallel stream of matched pairs.
+     */
+    public static Stream<Match> join(Drawing left, Drawing right) {
+        List<Figure> leftFigures = left.getAllFigures();
+        List<Figure> rightFigures = right.getAllFigures();
+        BoundingBox[] leftBoxes = boundingBoxes(leftFigures);
+        BoundingBox[] rightBoxes = boundingBoxes(rightFigures);
+
+        BoundingBox leftExtent = extent(leftBoxes);
+        BoundingBox rightExtent = extent(rightBoxes);
+        if (leftExtent == null || rightExtent == null || !leftExtent.intersects(rightExtent)) {
+            return Stream.empty();
+        }
+        // Matches can only occur where both extents overlap
+        BoundingBox common = new BoundingBox(
+                Math.max(leftExtent.minX(), rightExtent.minX()), Math.max(leftExtent.minY(), rightExtent.minY()),
+                Math.min(leftExtent.maxX(), rightExtent.maxX()), Math.min(leftExtent.maxY(), rightExtent.maxY()));
+
+        int larger = Math.max(leftFigures.size(), rightFigures.size());
+        int side = (int) Math.sqrt((double) larger / TARGET_FIGURES_PER_CELL);
+        Grid grid = new Grid(common, Math.max(1, Math.min(side, MAX_CELLS_PER_SIDE)));
+        Partition leftCells = grid.partition(leftBoxes);
+        Partition rightCells = grid.partition(rightBoxes);
+
+        Stream<Match> cellMatches = IntStream.range(0, grid.cellCount())
+                .parallel()
+                .boxed()
+                .flatMap(cell -> joinCell(cell, grid, leftFigures, leftBoxes, leftCells,
+                        rightFigures, rightBoxes, rightCells).stream());
+        // Every pair involving an oversized figure: oversized left figures against all right
+        // figures, then the left figures in the grid against oversized right figures
+        Stream<Match> leftOversizedMatches = IntStream.of(leftCells.oversized())
+                .parallel()
+                .boxed()
+                .flatMap(li -> IntStream.range(0, rightBoxes.length)
+                        .filter(ri -> intersects(leftBoxes[li], rightBoxes[ri]))
+                        .mapToObj(ri -> match(leftFigures.get(li), rightFigures.get(ri))));
+        Stream<Match> rightOversizedMatches = IntStream.of(rightCells.oversized())
+                .parallel()
+                .boxed()
+                .flatMap(ri -> IntStream.range(0, leftBoxes.length)
+                        .filter(li -> !leftCells.isOversized(li) && intersects(leftBoxes[li], rightBoxes[ri]))
+                        .mapToObj(li -> match(leftFigures.get(li), rightFigures.get(ri))));
+        return Stream.concat(cellMatches, Stream.concat(leftOversizedMatches, rightOversizedMatches));
+    }
+
+    /**
+     * Compares the left and right figures assigned to a single grid cell.
+     * A pair is kept only if the top-left corner of the intersection of the two boxes falls
+     * inside this cell, which makes exactly one cell responsible for each pair.
+     */
+    private static List<Match> joinCell(int cell, Grid grid,
+                                        List<Figure> leftFigures, BoundingBox[] leftBoxes, Partition leftCells,
+                                        List<Figure> rightFigures, BoundingBox[] rightBoxes, Partition rightCells) {
+        List<Match> matches = new ArrayList<>();
+        int[] leftOffsets = leftCells.offsets(), leftMembers = leftCells.members();
+        int[] rightOffsets = rightCells.offsets(), rightMembers = rightCells.members();
+        for (int i = leftOffsets[cell]; i < leftOffsets[cell + 1]; i++) {
+            int li = leftMembers[i];
+            BoundingBox a = leftBoxes[li];
+            for (int j = rightOffsets[cell]; j < rightOffsets[cell + 1]; j++) {
+                int ri = rightMembers[j];
+                BoundingBox b = rightBoxes[ri];
+                if (!a.intersects(b)
+                        || grid.cellOf(Math.max(a.minX(), b.minX()), Math.max(a.minY(), b.minY())) != cell) {
+                    continue;
+                }
+                matches.add(match(leftFigures.get(li), rightFigures.get(ri)));
+            }
+        }
+        return matches;
+    }
+
+    private static Match match(Figure figure, Figure other) {
+        return new Match(figure, other, isContained(figure, other));
+    }
+
+    private static boolean intersects(BoundingBox a, BoundingBox b) {
+        return a != null && b != null && a.intersects(b);
+    }
+
+    /**
+     * Checks whether a figure lies completely within another figure used as a boundary.
+     * Only circles and rectangles can act as containers; lines never contain anything.
+     * A transformed container is handled by mapping the figure into the container's untransformed space.
+     */
+    private static boolean isContained(Figure figure, Figure container) {
+        Transform toContainer = null;
+        if (container.getTransform() != null) {
+            if (container.getTransform().determinant() == 0) {
+                return false; // A container collapsed onto a line or point has no area
+            }
+            toContainer = container.getTransform().inverse();
+        }
+        if (container instanceof Circle c) {
+            return GeometryUtils.isFigureWithinBoundary(figure, toContainer, "circle", c.getXAxis(), c.getYAxis(), c.getRadius(), 0);
+        } else if (container instanceof Rectangle r) {
+            return GeometryUtils.isFigureWithinBoundary(figure, toContainer, "rectangle", r.getXAxis(), r.getYAxis(), r.getWidth(), r.getHeight());
+        }
+        return false;
+    }
+
+    private static BoundingBox[] boundingBoxes(List<Figure> figures) {
+        BoundingBox[] boxes = new BoundingBox[figures.size()];
+        for (int i = 0; i < boxes.length; i++) {
+            boxes[i] = GeometryUtils.getBoundingBox(figures.get(i));
+        }
+        return boxes;
+    }
+
+    private static BoundingBox extent(BoundingBox[] boxes) {
+        BoundingBox extent = null;
+        for (BoundingBox box : boxes) {
+            if (box != null) {
+                extent = extent == null ? box : extent.union(box);
+            }
+        }
+        return extent;
+    }
+
+    /**
+     * The figures of one drawing distributed over the cells of a {@link Grid}.
+     *
+     * @param offsets   The start offset of each cell's members, followed by the total member count.
+     * @param members   The figure indices stored contiguously per cell.
+     * @param oversized The indices of the figures overlapping too many cells to be stored in them, ascending.
+     */
+    private record Partition(int[] offsets, int[] members, int[] oversized) {
+        boolean isOversized(int index) {
+            return Arrays.binarySearch(oversized, index) >= 0;
+        }
+    }
+
+    /**
+     * A uniform grid laid over a bounding box, used to partition figures into cells.
+     */
+    private static final class Grid {
+        private final BoundingBox extent;
+        private final int side;
+        private final long width, height;
+
+        Grid(BoundingBox extent, int side) {
+            this.extent = extent;
+            this.side = side;
+            this.width = (long) extent.maxX() - extent.minX() + 1;
+            this.height = (long) extent.maxY() - extent.minY() + 1;
+        }
+
+        int cellCount() {
+            return side * side;
+        }
+
+        int column(int x) {
+            long offset = Math.max(0, Math.min((long) x - extent.minX(), width - 1));
+            return (int) (offset * side / width);
+        }
+
+        int row(int y) {
+            long offset = Math.max(0, Math.min((long) y - extent.minY(), height - 1));
+            return (int) (offset * side / height);
+        }
+
+        int cellOf(int x, int y) {
+            return row(y) * side + column(x);
+        }
+
+        /**
+         * Assigns each box to every cell it overlaps, using a two-pass counting sort.
+         * Boxes outside the grid's extent are skipped, and boxes overlapping more than
+         * {@link #MAX_CELLS_PER_FIGURE} cells are listed as oversized instead.
+         */
+        Partition partition(BoundingBox[] boxes) {
+            int[] offsets = new int[cellCount() + 1];
+            BitSet oversized = new BitSet(boxes.length);
+            for (int i = 0; i < boxes.length; i++) {
+                BoundingBox box = boxes[i];
+                if (box != null && box.intersects(extent)) {
+                    long cells = (long) (row(box.maxY()) - row(box.minY()) + 1) * (column(box.maxX()) - column(box.minX()) + 1);
+                    if (cells > MAX_CELLS_PER_FIGURE) {
+                        oversized.set(i);
+                        continue;
+                    }
+                    for (int r = row(box.minY()); r <= row(box.maxY()); r++) {
+                        for (int c = column(box.minX()); c <= column(box.maxX()); c++) {
+                            offsets[r * side + c + 1]++;
+                        }
+                    }
+                }
+            }
+            for (int i = 1; i < offsets.length; i++) {
+                offsets[i] += offsets[i - 1];
+            }
+            int[] members = new int[offsets[offsets.length - 1]];
+            int[] cursor = offsets.clone();
+            for (int i = 0; i < boxes.length; i++) {
+                BoundingBox box = boxes[i];
+                if (box != null && box.intersects(extent) && !oversized.get(i)) {
+                    for (int r = row(box.minY()); r <= row(box.maxY()); r++) {
+                        for (int c = column(box.minX()); c <= column(box.maxX()); c++) {
+                            members[cursor[r * side + c]++] = i;
+                        }
+                    }
+                }
+            }
+            return new Partition(offsets, members, oversized.stream().toArray());
+        }
+    }
+}
\ No newline at end of file
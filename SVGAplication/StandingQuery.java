@@ -0,0 +1,118 @@
+package svgcreator.app;
+
+import svgcreator.shapes.Figure;
+import svgcreator.utils.GeometryUtils;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * A region query that stays registered on a {@link Drawing} and keeps its result set
+ * current as the drawing is edited.
+ * The drawing re-evaluates only the figures touched by each mutation, so keeping the
+ * result up to date costs time proportional to the change rather than to the drawing.
+ * Instances are created through {@link Drawing#registerStandingQuery}.
+ */
+public final class StandingQuery {
+    private final String boundaryType;
+    private final int bx, by, bParam1, bParam2;
+    private final StandingQueryListener listener;
+    private final Set<Figure> matches; // Figures are tracked by identity, not by value
+
+    /**
+     * Constructs a StandingQuery with the given boundary and listener.
+     * @param boundaryType The type of boundary ("rectangle" or "circle").
+     * @param bx The x-coordinate of the boundary's reference point.
+     * @param by The y-coordinate of the boundary's reference point.
+     * @param bParam1 Primary dimension of the boundary (width or radius).
+     * @param bParam2 Secondary dimension of the boundary (height, or unused for circle).
+     * @param listener The listener notified of enter/leave events, or null for none.
+     */
+    StandingQuery(String boundaryType, int bx, int by, int bParam1, int bParam2, StandingQueryListener listener) {
+        this.boundaryType = boundaryType;
+        this.bx = bx;
+        this.by = by;
+        this.bParam1 = bParam1;
+        this.bParam2 = bParam2;
+        this.listener = listener;
+        this.matches = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * Gets the figures currently within this query's boundary.
+     * The returned set is a read-only live view; it changes as the drawing is edited.
+     * @return The current result set.
+     */
+    public Set<Figure> getMatches() {
+        return Collections.unmodifiableSet(matches);
+    }
+
+    /**
+     * Gets the number of figures currently within this query's boundary.
+     * @return The size of the result set.
+     */
+    public int getMatchCount() {
+        return matches.size();
+    }
+
+    public String getBoundaryType() {
+        return boundaryType;
+    }
+
+    public int getBx() {
+        return bx;
+    }
+
+    public int getBy() {
+        return by;
+    }
+
+    public int getBParam1() {
+        return bParam1;
+    }
+
+    public int getBParam2() {
+        return bParam2;
+    }
+
+    /**
+     * Re-evaluates a single figure that was added or moved, firing an enter or leave
+     * event if its membership changed.
+     * @param figure The figure to evaluate.
+     */
+    void evaluate(Figure figure) {
+        boolean within = GeometryUtils.isFigureWithinBoundary(figure, boundaryType, bx, by, bParam1, bParam2);
+        if (within) {
+            if (matches.add(figure) && listener != null) {
+                listener.figureEntered(this, figure);
+            }
+        } else if (matches.remove(figure) && listener != null) {
+            listener.figureLeft(this, figure);
+        }
+    }
+
+    /**
+     * Drops a figure that was removed from the drawing, firing a leave event if it was a match.
+     * @param figure The removed figure.
+     */
+    void discard(Figure figure) {
+        if (matches.remove(figure) && listener != null) {
+            listener.figureLeft(this, figure);
+        }
+    }
+
+    /**
+     * Recomputes the result set from scratch, used when the whole drawing is replaced.
+     * Every previous match leaves before the new figures are evaluated.
+     * @param figures The figures now in the drawing.
+     */
+    void reset(Iterable<Figure> figures) {
+        for (Figure previous : matches.toArray(new Figure[0])) {
+            discard(previous);
+        }
+        for (Figure figure : figures) {
+            evaluate(figure);
+        }
+    }
+}
\ No newline at end of file
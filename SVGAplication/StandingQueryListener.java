@@ -0,0 +1,25 @@
+package svgcreator.app;
+
+import svgcreator.shapes.Figure;
+
+/**
+ * Callback interface for observers of a {@link StandingQuery}.
+ * Implementations are notified whenever a figure starts or stops satisfying
+ * the query's boundary as the {@link Drawing} is edited.
+ */
+public interface StandingQueryListener {
+    /**
+     * Called when a figure becomes completely contained in the query's boundary.
+     * @param query The standing query whose result set changed.
+     * @param figure The figure that entered the result set.
+     */
+    void figureEntered(StandingQuery query, Figure figure);
+
+    /**
+     * Called when a figure is no longer completely contained in the query's boundary,
+     * either because it was moved or because it was removed from the drawing.
+     * @param query The standing query whose result set changed.
+     * @param figure The figure that left the result set.
+     */
+    void figureLeft(StandingQuery query, Figure figure);
+}
\ No newline at end of file
@@ -0,0 +1,1053 @@
+package svgcreator.app;
+
+import svgcreator.persistence.SvgPersistenceService;
+import svgcreator.shapes.Figure;
+import svgcreator.utils.BoundingBox;
+import svgcreator.utils.GeometryUtils;
+import svgcreator.utils.Transform;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Thread-safe implementation of the {@link Drawing} interface that lets writers editing
+ * unrelated areas of the drawing proceed in parallel.
+ * <p>
+ * The x-axis is cut into stripes of a fixed width, which are mapped round-robin onto a fixed
+ * number of lock-protected partitions. Every figure lives in the partition of its home stripe,
+ * the stripe holding the left edge of its bounding box. Adding a figure, and moving or removing
+ * a figure by reference with {@link #translateFigure(Figure, int, int)} or
+ * {@link #removeFigure(Figure)}, lock only the partitions involved; a move across stripes locks
+ * both the old and the new home. Region queries lock only the partitions their region can reach,
+ * widened to the left by the widest figure seen, so figures crossing stripe boundaries are found
+ * from their home stripe.
+ * </p>
+ * <p>
+ * Drawing order is kept by a global sequence number per figure. Removing or translating a single
+ * figure by its 1-based display index resolves the index under the read locks of every partition,
+ * which other readers share, and then edits the figure by reference as above. Other operations
+ * addressing figures by display index, and operations over the whole drawing, lock every partition
+ * in ascending order, which also keeps them free of deadlocks with each other. A display index is
+ * resolved by a binary search over sequence numbers, in O(p log n log s) for p partitions, n figures
+ * and s figures ever added, rather than by merging the partitions up to the index.
+ * </p>
+ * Standing queries are evaluated under a lock on each query, and listeners may be notified from
+ * any writer thread; they must not call back into the drawing. A transaction spans the edits of
+ * every thread until it ends.
+ */
+public class StripedDrawing implements Drawing {
+
+    /**
+     * Default number of lock-protected partitions.
+     */
+    public static final int DEFAULT_PARTITION_COUNT = 16;
+
+    /**
+     * Default width of a stripe, in drawing units.
+     */
+    public static final int DEFAULT_STRIPE_WIDTH = 512;
+
+    /**
+     * A figure together with its place in the drawing order and its current home.
+     * The box and partition are guarded by the lock of the partition the entry is in;
+     * they may be read without it only as a hint that is checked once the lock is held.
+     */
+    private static final class Entry {
+        final Figure figure;
+        final long sequence;
+        BoundingBox box;
+        int partition;
+
+        Entry(Figure figure, long sequence) {
+            this.figure = figure;
+            this.sequence = sequence;
+        }
+    }
+
+    private final int partitionCount;
+    private final int stripeWidth;
+    private final ReentrantReadWriteLock[] locks;
+    private final List<List<Entry>> partitions; // Each sorted by sequence, guarded by its lock
+    private final Map<Figure, Entry> entries; // Figures are tracked by identity, not by value
+    private final AtomicLong nextSequence;
+    private final AtomicInteger size;
+    private final AtomicInteger maxWidth; // Widest bounding box ever stored; only grows
+    private final List<StandingQuery> standingQueries;
+    private final Object transactionLock = new Object();
+    private List<Runnable> compensations; // Non-null while a transaction is open, guarded by transactionLock
+    private boolean savePending; // Guarded by transactionLock
+    private final Object saveLock = new Object(); // Keeps concurrent saves from interleaving in the file
+    private final SvgPersistenceService persistenceService;
+    private final Path filePath;
+
+    /**
+     * Constructs a StripedDrawing instance with the default partitioning.
+     * @param persistenceService The service used for file operations.
+     * @param filePath The path to the SVG file.
+     */
+    public StripedDrawing(SvgPersistenceService persistenceService, Path filePath) {
+        this(persistenceService, filePath, DEFAULT_PARTITION_COUNT, DEFAULT_STRIPE_WIDTH);
+    }
+
+    /**
+     * Constructs a StripedDrawing instance with the given partitioning.
+     * @param persistenceService The service used for file operations.
+     * @param filePath The path to the SVG file.
+     * @param partitionCount The number of lock-protected partitions.
+     * @param stripeWidth The width of a stripe, in drawing units.
+     */
+    public StripedDrawing(SvgPersistenceService persistenceService, Path filePath, int partitionCount, int stripeWidth) {
+        if (partitionCount <= 0 || stripeWidth <= 0) {
+            throw new IllegalArgumentException("Partition count and stripe width must be positive.");
+        }
+        this.partitionCount = partitionCount;
+        this.stripeWidth = stripeWidth;
+        this.locks = new ReentrantReadWriteLock[partitionCount];
+        this.partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            this.locks[i] = new ReentrantReadWriteLock();
+            this.partitions.add(new ArrayList<>());
+        }
+        this.entries = new ConcurrentHashMap<>();
+        this.nextSequence = new AtomicLong();
+        this.size = new AtomicInteger();
+        this.maxWidth = new AtomicInteger();
+        this.standingQueries = new CopyOnWriteArrayList<>();
+        this.persistenceService = persistenceService;
+        this.filePath = filePath;
+    }
+
+    @Override
+    public void addFigure(Figure figure) {
+        if (figure != null) {
+            addFigures(List.of(figure));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Only the partitions receiving a figure are locked.
+     */
+    @Override
+    public void addFigures(Collection<? extends Figure> figuresToAdd) {
+        List<Figure> added = new ArrayList<>(figuresToAdd.size());
+        BitSet homes = new BitSet(this.partitionCount);
+        for (Figure figure : figuresToAdd) {
+            if (figure != null) { // Not in the drawing yet, so its box cannot change under us
+                added.add(figure);
+                homes.set(partitionOf(GeometryUtils.getBoundingBox(figure)));
+            }
+        }
+        if (added.isEmpty()) {
+            return;
+        }
+        lock(homes, true);
+        try {
+            List<Entry> inserted = new ArrayList<>(added.size());
+            for (Figure figure : added) {
+                Entry entry = new Entry(figure, this.nextSequence.getAndIncrement());
+                insertEntry(entry);
+                inserted.add(entry);
+            }
+            compensate(() -> inserted.forEach(this::removeEntry));
+        } finally {
+            unlock(homes, true);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The index is resolved under the read locks, and the figure is then removed by reference,
+     * holding only the write lock of its partition.
+     */
+    @Override
+    public boolean removeFigure(int displayIndex) {
+        while (true) {
+            Figure figure = getFigure(displayIndex);
+            if (figure == null) {
+                return false;
+            }
+            if (removeFigure(figure)) {
+                return true;
+            }
+            // Another writer removed the figure after the index was resolved; resolve it again
+        }
+    }
+
+    /**
+     * Removes a figure from the drawing, locking only the partition it lives in.
+     * @param figure The figure to remove.
+     * @return true if the figure was in the drawing and was removed, false otherwise.
+     */
+    public boolean removeFigure(Figure figure) {
+        while (true) {
+            Entry entry = this.entries.get(figure);
+            if (entry == null) {
+                return false;
+            }
+            BitSet held = new BitSet(this.partitionCount);
+            held.set(entry.partition); // A hint, checked below once the lock is held
+            lock(held, true);
+            try {
+                if (this.entries.get(figure) == entry && held.get(entry.partition)) {
+                    removeEntry(entry);
+                    compensate(() -> insertEntry(entry));
+                    return true;
+                }
+            } finally {
+                unlock(held, true);
+            }
+            // The figure moved to another partition before we got the lock; try again
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * A few indices are resolved one by one, many by a single merge of the partitions; the figures
+     * are then removed with one pass over each partition they live in.
+     */
+    @Override
+    public int removeFigures(Set<Integer> displayIndices) {
+        lockAll(true);
+        try {
+            List<Entry> removed = new ArrayList<>(displayIndices.size());
+            if ((long) displayIndices.size() * this.partitionCount < this.size.get()) {
+                for (Integer displayIndex : displayIndices) {
+                    Entry entry = displayIndex == null ? null : entryAt(displayIndex);
+                    if (entry != null) {
+                        removed.add(entry);
+                    }
+                }
+            } else {
+                List<Entry> ordered = orderedEntries();
+                for (Integer displayIndex : displayIndices) {
+                    if (displayIndex != null && displayIndex > 0 && displayIndex <= ordered.size()) {
+                        removed.add(ordered.get(displayIndex - 1));
+                    }
+                }
+            }
+            removeEntries(removed);
+            return removed(removed);
+        } finally {
+            unlockAll(true);
+        }
+    }
+
+    @Override
+    public int removeFiguresIf(Predicate<? super Figure> filter) {
+        lockAll(true);
+        try {
+            List<Entry> removed = new ArrayList<>();
+            for (Entry entry : orderedEntries()) {
+                if (filter.test(entry.figure)) {
+                    removed.add(entry);
+                }
+            }
+            removeEntries(removed);
+            return removed(removed);
+        } finally {
+            unlockAll(true);
+        }
+    }
+
+    @Override
+    public Figure getFigure(int displayIndex) {
+        lockAll(false);
+        try {
+            Entry entry = entryAt(displayIndex);
+            return entry == null ? null : entry.figure;
+        } finally {
+            unlockAll(false);
+        }
+    }
+
+    @Override
+    public List<Figure> getAllFigures() {
+        lockAll(false);
+        try {
+            return figuresOf(orderedEntries());
+        } finally {
+            unlockAll(false);
+        }
+    }
+
+    @Override
+    public List<Figure> getFigures(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit cannot be negative.");
+        }
+        lockAll(false);
+        try {
+            return figuresOf(merge(cut(Math.min(offset, this.size.get())), limit));
+        } finally {
+            unlockAll(false);
+        }
+    }
+
+    @Override
+    public void translateAllFigures(int dx, int dy) {
+        BulkTransformEvent event = BulkTransformEvent.start("translateAllFigures");
+        lockAll(true);
+        try {
+            event.locked();
+            List<Entry> ordered = orderedEntries();
+            event.selected();
+            int translated = translateEntries(ordered, dx, dy);
+            event.finish(ordered.size(), translated);
+        } finally {
+            unlockAll(true);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The index is resolved under the read locks, and the figure is then translated by reference,
+     * holding only the write locks of its old and new homes.
+     */
+    @Override
+    public boolean translateSingleFigure(int displayIndex, int dx, int dy) {
+        while (true) {
+            Figure figure = getFigure(displayIndex);
+            if (figure == null) {
+                return false;
+            }
+            if (translateFigure(figure, dx, dy)) {
+                return true;
+            }
+            // Another writer removed the figure after the index was resolved; resolve it again
+        }
+    }
+
+    /**
+     * Translates a figure by the given deltas, locking only the partition it lives in and, if it
+     * crosses into another stripe, the partition of its new home.
+     * @param figure The figure to translate.
+     * @param dx The horizontal translation amount.
+     * @param dy The vertical translation amount.
+     * @return true if the figure was in the drawing and was translated, false otherwise.
+     */
+    public boolean translateFigure(Figure figure, int dx, int dy) {
+        while (true) {
+            Entry entry = this.entries.get(figure);
+            if (entry == null) {
+                return false;
+            }
+            BoundingBox box = entry.box; // Hints, checked below once the locks are held
+            BitSet held = new BitSet(this.partitionCount);
+            held.set(entry.partition);
+            held.set(partitionOf(box == null ? null : box.translate(dx, dy)));
+            lock(held, true);
+            try {
+                if (this.entries.get(figure) == entry && held.get(entry.partition)
+                        && held.get(partitionOf(entry.box == null ? null : entry.box.translate(dx, dy)))) {
+                    translateEntries(List.of(entry), dx, dy);
+                    return true;
+                }
+            } finally {
+                unlock(held, true);
+            }
+            // The figure moved before we got the locks; try again with its new home
+        }
+    }
+
+    @Override
+    public int translateFigures(Set<Integer> displayIndices, int dx, int dy) {
+        BulkTransformEvent event = BulkTransformEvent.start("translateFigures");
+        lockAll(true);
+        try {
+            event.locked();
+            List<Entry> ordered = orderedEntries();
+            List<Entry> selected = new ArrayList<>();
+            BitSet seen = new BitSet(ordered.size());
+            for (Integer displayIndex : displayIndices) {
+                if (displayIndex != null && displayIndex > 0 && displayIndex <= ordered.size() && !seen.get(displayIndex - 1)) {
+                    seen.set(displayIndex - 1);
+                    selected.add(ordered.get(displayIndex - 1));
+                }
+            }
+            event.selected();
+            int translated = translateEntries(selected, dx, dy);
+            event.finish(ordered.size(), translated);
+            return translated;
+        } finally {
+            unlockAll(true);
+        }
+    }
+
+    @Override
+    public int translateFiguresIf(Predicate<? super Figure> filter, int dx, int dy) {
+        BulkTransformEvent event = BulkTransformEvent.start("translateFiguresIf");
+        lockAll(true);
+        try {
+            event.locked();
+            List<Entry> ordered = orderedEntries();
+            List<Entry> selected = new ArrayList<>();
+            for (Entry entry : ordered) {
+                if (filter.test(entry.figure)) {
+                    selected.add(entry);
+                }
+            }
+            event.selected();
+            int translated = translateEntries(selected, dx, dy);
+            event.finish(ordered.size(), translated);
+            return translated;
+        } finally {
+            unlockAll(true);
+        }
+    }
+
+    @Override
+    public void transformAllFigures(Transform transform) {
+        requireInvertible(transform);
+        BulkTransformEvent event = BulkTransformEvent.start("transformAllFigures");
+        lockAll(true);
+        try {
+            event.locked();
+            List<Entry> ordered = orderedEntries();
+            event.selected();
+            transformEntries(ordered, transform);
+            event.finish(ordered.size(), ordered.size());
+        } finally {
+            unlockAll(true);
+        }
+    }
+
+    @Override
+    public boolean transformSingleFigure(int displayIndex, Transform transform) {
+        requireInvertible(transform);
+        lockAll(true);
+        try {
+            Entry entry = entryAt(displayIndex);
+            if (entry == null) {
+                return false;
+            }
+            transformEntries(List.of(entry), transform);
+            return true;
+        } finally {
+            unlockAll(true);
+        }
+    }
+
+    @Override
+    public int transformFiguresIf(Predicate<? super Figure> filter, Transform transform) {
+        requireInvertible(transform);
+        BulkTransformEvent event = BulkTransformEvent.start("transformFiguresIf");
+        lockAll(true);
+        try {
+            event.locked();
+            List<Entry> ordered = orderedEntries();
+            List<Entry> selected = new ArrayList<>();
+            for (Entry entry : ordered) {
+                if (filter.test(entry.figure)) {
+                    selected.add(entry);
+                }
+            }
+            event.selected();
+            transformEntries(selected, transform);
+            event.finish(ordered.size(), selected.size());
+            return selected.size();
+        } finally {
+            unlockAll(true);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Only the partitions whose stripes overlap the boundary are locked.
+     */
+    @Override
+    public List<Figure> getFiguresWithinBoundary(String boundaryType, int bx, int by, int bParam1, int bParam2) {
+        long from, to;
+        if ("circle".equalsIgnoreCase(boundaryType)) {
+            from = (long) bx - bParam1;
+            to = (long) bx + bParam1;
+        } else {
+            from = bx;
+            to = (long) bx + bParam1;
+        }
+        // A contained figure's left edge lies within the boundary, up to rounding of transformed boxes
+        BoundaryQueryEvent event = BoundaryQueryEvent.start();
+        BitSet reached = partitionsFor(from - 1, to);
+        List<Entry> found = new ArrayList<>();
+        int scanned = 0;
+        lock(reached, false);
+        try {
+            for (int partition = reached.nextSetBit(0); partition >= 0; partition = reached.nextSetBit(partition + 1)) {
+                scanned += this.partitions.get(partition).size();
+                for (Entry entry : this.partitions.get(partition)) {
+                    if (GeometryUtils.isFigureWithinBoundary(entry.figure, boundaryType, bx, by, bParam1, bParam2)) {
+                        found.add(entry);
+                    }
+                }
+            }
+        } finally {
+            unlock(reached, false);
+        }
+        found.sort((a, b) -> Long.compare(a.sequence, b.sequence));
+        event.finish(boundaryType, bx, by, bParam1, bParam2, scanned, found.size());
+        return figuresOf(found);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Only the partitions whose stripes can hold the left edge of an intersecting figure are locked.
+     */
+    @Override
+    public List<Figure> getFiguresIntersecting(int x, int y, int width, int height) {
+        BoundingBox area = new BoundingBox(x, y, x + width, y + height);
+        BitSet reached = partitionsFor((long) area.minX() - this.maxWidth.get(), area.maxX());
+        List<Entry> found = new ArrayList<>();
+        lock(reached, false);
+        try {
+            for (int partition = reached.nextSetBit(0); partition >= 0; partition = reached.nextSetBit(partition + 1)) {
+                for (Entry entry : this.partitions.get(partition)) {
+                    if (entry.box != null && entry.box.intersects(area)) {
+                        found.add(entry);
+                    }
+                }
+            }
+        } finally {
+            unlock(reached, false);
+        }
+        found.sort((a, b) -> Long.compare(a.sequence, b.sequence));
+        return figuresOf(found);
+    }
+
+    @Override
+    public void exportViewport(Path targetPath, int x, int y, int width, int height) {
+        List<Figure> visible = getFiguresIntersecting(x, y, width, height);
+        persistenceService.saveFigures(visible, targetPath, new BoundingBox(x, y, x + width, y + height));
+    }
+
+    @Override
+    public StandingQuery registerStandingQuery(String boundaryType, int bx, int by, int bParam1, int bParam2,
+                                               StandingQueryListener listener) {
+        StandingQuery query = new StandingQuery(boundaryType, bx, by, bParam1, bParam2, listener);
+        lockAll(false); // Keeps writers out until the query is in place
+        try {
+            synchronized (query) {
+                query.reset(figuresOf(orderedEntries()));
+            }
+            this.standingQueries.add(query);
+        } finally {
+            unlockAll(false);
+        }
+        return query;
+    }
+
+    @Override
+    public boolean unregisterStandingQuery(StandingQuery query) {
+        return this.standingQueries.remove(query);
+    }
+
+    @Override
+    public void loadFromFile() {
+        List<Figure> loaded = persistenceService.loadFigures(this.filePath); // Parsed outside the locks
+        lockAll(true);
+        try {
+            List<Entry> previous = orderedEntries();
+            previous.forEach(this::removeEntry);
+            List<Entry> current = new ArrayList<>(loaded.size());
+            for (Figure figure : loaded) {
+                Entry entry = new Entry(figure, this.nextSequence.getAndIncrement());
+                insertEntry(entry);
+                current.add(entry);
+            }
+            compensate(() -> {
+                current.forEach(this::removeEntry);
+                previous.forEach(this::insertEntry);
+            });
+        } finally {
+            unlockAll(true);
+        }
+    }
+
+    @Override
+    public void saveToFile() {
+        synchronized (this.transactionLock) {
+            if (this.compensations != null) {
+                this.savePending = true; // Written once when the transaction commits
+                return;
+            }
+        }
+        writeFile();
+    }
+
+    @Override
+    public void beginTransaction() {
+        synchronized (this.transactionLock) {
+            if (this.compensations != null) {
+                throw new IllegalStateException("A transaction is already active.");
+            }
+            this.compensations = new ArrayList<>();
+            this.savePending = false;
+        }
+    }
+
+    @Override
+    public void commitTransaction() {
+        commitTransaction(true);
+    }
+
+    @Override
+    public void commitTransaction(boolean persist) {
+        boolean save;
+        synchronized (this.transactionLock) {
+            if (this.compensations == null) {
+                throw new IllegalStateException("No transaction is active.");
+            }
+            save = (persist && !this.compensations.isEmpty()) || this.savePending;
+            this.compensations = null;
+            this.savePending = false;
+        }
+        if (save) {
+            writeFile();
+        }
+    }
+
+    @Override
+    public void rollbackTransaction() {
+        lockAll(true); // Partition locks are always taken before the transaction lock
+        try {
+            List<Runnable> log;
+            synchronized (this.transactionLock) {
+                if (this.compensations == null) {
+                    throw new IllegalStateException("No transaction is active.");
+                }
+                log = this.compensations;
+                this.compensations = null; // Stops the compensations below from being recorded
+                this.savePending = false;
+            }
+            for (int i = log.size() - 1; i >= 0; i--) {
+                log.get(i).run();
+            }
+        } finally {
+            unlockAll(true);
+        }
+    }
+
+    @Override
+    public boolean isInTransaction() {
+        synchronized (this.transactionLock) {
+            return this.compensations != null;
+        }
+    }
+
+    @Override
+    public int getFigureCount() {
+        return this.size.get();
+    }
+
+    /**
+     * Saves a snapshot of the drawing. Saves are serialized so that the file always ends up
+     * holding the most recent snapshot.
+     */
+    private void writeFile() {
+        synchronized (this.saveLock) {
+            persistenceService.saveFigures(getAllFigures(), this.filePath);
+        }
+    }
+
+    /**
+     * Records how to undo an edit if a transaction is open. Must be called while still holding
+     * the partition locks of the edit, so conflicting edits are logged in the order they happened.
+     */
+    private void compensate(Runnable compensation) {
+        synchronized (this.transactionLock) {
+            if (this.compensations != null) {
+                this.compensations.add(compensation);
+            }
+        }
+    }
+
+    /**
+     * Records the compensation for a batch of removals. Must be called with the partition locks held.
+     * @return The number of figures removed.
+     */
+    private int removed(List<Entry> removed) {
+        if (!removed.isEmpty()) {
+            compensate(() -> removed.forEach(this::insertEntry));
+        }
+        return removed.size();
+    }
+
+    /**
+     * Translates entries, re-homing those that cross into another stripe, and records the
+     * compensation. A single entry needs the locks of its old and new homes; several entries
+     * need every partition lock.
+     * @return The number of figures translated.
+     */
+    private int translateEntries(List<Entry> selected, int dx, int dy) {
+        applyTranslation(selected, dx, dy);
+        if (!selected.isEmpty()) {
+            compensate(() -> applyTranslation(selected, -dx, -dy));
+        }
+        return selected.size();
+    }
+
+    private void applyTranslation(List<Entry> selected, int dx, int dy) {
+        for (Entry entry : selected) {
+            GeometryUtils.translateFigure(entry.figure, dx, dy);
+        }
+        relocate(selected);
+    }
+
+    /**
+     * Transforms entries and records the compensation. Figures that shared a transform before
+     * share the composed one afterwards. Must be called with every partition lock held.
+     */
+    private void transformEntries(List<Entry> selected, Transform transform) {
+        applyTransform(selected, transform);
+        if (!selected.isEmpty()) {
+            compensate(() -> applyTransform(selected, transform.inverse()));
+        }
+    }
+
+    private void applyTransform(List<Entry> selected, Transform transform) {
+        Map<Transform, Transform> composed = new IdentityHashMap<>();
+        for (Entry entry : selected) {
+            Transform current = entry.figure.getTransform();
+            entry.figure.setTransform(current == null ? transform : composed.computeIfAbsent(current, t -> t.then(transform)));
+        }
+        relocate(selected);
+    }
+
+    /**
+     * Rejects transforms that cannot be reverted, such as a scaling by zero.
+     */
+    private static void requireInvertible(Transform transform) {
+        if (transform == null || transform.determinant() == 0) {
+            throw new IllegalArgumentException("Transform must be invertible.");
+        }
+    }
+
+    /**
+     * Adds an entry to the partition of its home stripe, keeping the partition in drawing order.
+     * Must be called with the lock of that partition held.
+     */
+    private void insertEntry(Entry entry) {
+        entry.box = GeometryUtils.getBoundingBox(entry.figure);
+        entry.partition = partitionOf(entry.box);
+        place(entry);
+        this.entries.put(entry.figure, entry);
+        this.size.incrementAndGet();
+        for (StandingQuery query : this.standingQueries) {
+            synchronized (query) {
+                query.evaluate(entry.figure);
+            }
+        }
+    }
+
+    /**
+     * Removes an entry from its partition. Must be called with the lock of that partition held.
+     */
+    private void removeEntry(Entry entry) {
+        List<Entry> partition = this.partitions.get(entry.partition);
+        partition.remove(indexOf(partition, entry.sequence));
+        forget(entry);
+    }
+
+    /**
+     * Removes entries from their partitions with one pass over each partition involved, rather than
+     * shifting a partition's list once per entry. Must be called with the locks of those partitions held.
+     */
+    private void removeEntries(List<Entry> removed) {
+        if (removed.size() == 1) {
+            removeEntry(removed.get(0));
+            return;
+        }
+        Map<Integer, Set<Entry>> byPartition = new HashMap<>(); // Entries compare by identity
+        for (Entry entry : removed) {
+            byPartition.computeIfAbsent(entry.partition, partition -> new HashSet<>()).add(entry);
+        }
+        byPartition.forEach((partition, gone) -> this.partitions.get(partition).removeIf(gone::contains));
+        removed.forEach(this::forget);
+    }
+
+    /**
+     * Drops a removed entry from the figure map, the size and the standing queries.
+     */
+    private void forget(Entry entry) {
+        this.entries.remove(entry.figure, entry);
+        this.size.decrementAndGet();
+        for (StandingQuery query : this.standingQueries) {
+            synchronized (query) {
+                query.discard(entry.figure);
+            }
+        }
+    }
+
+    /**
+     * Refreshes entries after their figures' geometry changed. A single entry is moved on its own;
+     * several entries are re-homed by rebuilding the partitions in one pass, which needs every
+     * partition lock but avoids shifting each partition's list once per moved entry.
+     */
+    private void relocate(List<Entry> changed) {
+        if (changed.size() == 1) {
+            moveEntry(changed.get(0));
+            return;
+        }
+        List<Entry> ordered = orderedEntries();
+        for (Entry entry : changed) {
+            entry.box = GeometryUtils.getBoundingBox(entry.figure);
+            entry.partition = partitionOf(entry.box);
+            widen(entry.box);
+        }
+        for (List<Entry> partition : this.partitions) {
+            partition.clear();
+        }
+        for (Entry entry : ordered) {
+            this.partitions.get(entry.partition).add(entry); // Stays sorted, as the entries come in drawing order
+        }
+        for (StandingQuery query : this.standingQueries) {
+            synchronized (query) {
+                for (Entry entry : changed) {
+                    query.evaluate(entry.figure);
+                }
+            }
+        }
+    }
+
+    /**
+     * Refreshes an entry after its figure's geometry changed, moving it to the partition of its new
+     * home stripe if needed. Must be called with the locks of the old and new partitions held.
+     */
+    private void moveEntry(Entry entry) {
+        BoundingBox box = GeometryUtils.getBoundingBox(entry.figure);
+        int home = partitionOf(box);
+        if (home != entry.partition) {
+            List<Entry> partition = this.partitions.get(entry.partition);
+            partition.remove(indexOf(partition, entry.sequence));
+            entry.partition = home;
+            entry.box = box;
+            place(entry);
+        } else {
+            entry.box = box;
+            widen(box);
+        }
+        for (StandingQuery query : this.standingQueries) {
+            synchronized (query) {
+                query.evaluate(entry.figure);
+            }
+        }
+    }
+
+    /**
+     * Inserts an entry into its partition at the position given by its sequence number.
+     */
+    private void place(Entry entry) {
+        List<Entry> partition = this.partitions.get(entry.partition);
+        int size = partition.size();
+        if (size == 0 || partition.get(size - 1).sequence < entry.sequence) {
+            partition.add(entry); // New figures have the highest sequence, so this is the common case
+        } else {
+            partition.add(-indexOf(partition, entry.sequence) - 1, entry);
+        }
+        widen(entry.box);
+    }
+
+    /**
+     * Records a figure's width so region queries look far enough to the left for it.
+     */
+    private void widen(BoundingBox box) {
+        if (box != null) {
+            int width = (int) Math.min(Integer.MAX_VALUE, (long) box.maxX() - box.minX());
+            this.maxWidth.accumulateAndGet(width, Math::max);
+        }
+    }
+
+    /**
+     * Binary-searches a partition for a sequence number.
+     * @return The index of the entry, or {@code -(insertion point) - 1} if it is not present.
+     */
+    private static int indexOf(List<Entry> partition, long sequence) {
+        int low = 0, high = partition.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midSequence = partition.get(mid).sequence;
+            if (midSequence < sequence) {
+                low = mid + 1;
+            } else if (midSequence > sequence) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Merges the partitions into drawing order. Must be called with every partition lock held.
+     */
+    private List<Entry> orderedEntries() {
+        return merge(new int[this.partitionCount], Integer.MAX_VALUE);
+    }
+
+    /**
+     * Finds the entry at a 1-based display index. Must be called with every partition lock held.
+     */
+    private Entry entryAt(int displayIndex) {
+        if (displayIndex <= 0 || displayIndex > this.size.get()) {
+            return null;
+        }
+        // The entry is the first, in drawing order, of those following the cut before it
+        int[] from = cut(displayIndex - 1);
+        Entry next = null;
+        for (int partition = 0; partition < this.partitionCount; partition++) {
+            List<Entry> entries = this.partitions.get(partition);
+            if (from[partition] < entries.size()) {
+                Entry candidate = entries.get(from[partition]);
+                if (next == null || candidate.sequence < next.sequence) {
+                    next = candidate;
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Finds how many entries of each partition precede a 0-based position in drawing order, by
+     * binary-searching for the smallest sequence number with that many entries below it.
+     * Must be called with every partition lock held.
+     * @param position The position, at most the number of figures.
+     * @return The number of preceding entries of each partition; they add up to {@code position}.
+     */
+    private int[] cut(int position) {
+        long low = 0, high = this.nextSequence.get(); // Every entry has a sequence below high
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (countBelow(mid) >= position) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        int[] counts = new int[this.partitionCount];
+        for (int partition = 0; partition < this.partitionCount; partition++) {
+            counts[partition] = insertionPoint(this.partitions.get(partition), low);
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the entries of every partition with a sequence number below the given one.
+     */
+    private long countBelow(long sequence) {
+        long count = 0;
+        for (List<Entry> partition : this.partitions) {
+            count += insertionPoint(partition, sequence);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of entries of a partition with a sequence number below the given one.
+     */
+    private static int insertionPoint(List<Entry> partition, long sequence) {
+        int index = indexOf(partition, sequence);
+        return index < 0 ? -index - 1 : index;
+    }
+
+    /**
+     * Merges the sorted partitions from the given position in each, stopping after the given number of entries.
+     */
+    private List<Entry> merge(int[] from, int limit) {
+        PriorityQueue<int[]> heads = new PriorityQueue<>( // {partition, position} of each partition's next entry
+                (a, b) -> Long.compare(this.partitions.get(a[0]).get(a[1]).sequence,
+                        this.partitions.get(b[0]).get(b[1]).sequence));
+        for (int partition = 0; partition < this.partitionCount; partition++) {
+            if (from[partition] < this.partitions.get(partition).size()) {
+                heads.add(new int[]{partition, from[partition]});
+            }
+        }
+        List<Entry> merged = new ArrayList<>(Math.min(limit, this.size.get()));
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] head = heads.poll();
+            List<Entry> partition = this.partitions.get(head[0]);
+            merged.add(partition.get(head[1]));
+            if (++head[1] < partition.size()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    private static List<Figure> figuresOf(List<Entry> entries) {
+        List<Figure> figures = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            figures.add(entry.figure);
+        }
+        return figures;
+    }
+
+    /**
+     * Gets the partition of the stripe holding a box's left edge. Figures without a box live in partition 0.
+     */
+    private int partitionOf(BoundingBox box) {
+        return box == null ? 0 : Math.floorMod(Math.floorDiv(box.minX(), this.stripeWidth), this.partitionCount);
+    }
+
+    /**
+     * Gets the partitions of every stripe overlapping an x-range.
+     */
+    private BitSet partitionsFor(long fromX, long toX) {
+        BitSet reached = new BitSet(this.partitionCount);
+        long first = Math.floorDiv(fromX, this.stripeWidth);
+        long last = Math.floorDiv(toX, this.stripeWidth);
+        if (last - first + 1 >= this.partitionCount) {
+            reached.set(0, this.partitionCount);
+        } else {
+            for (long stripe = first; stripe <= last; stripe++) {
+                reached.set((int) Math.floorMod(stripe, (long) this.partitionCount));
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Locks the given partitions in ascending order, so concurrent lockers cannot deadlock.
+     */
+    private void lock(BitSet held, boolean write) {
+        for (int partition = held.nextSetBit(0); partition >= 0; partition = held.nextSetBit(partition + 1)) {
+            lockOf(partition, write).lock();
+        }
+    }
+
+    private void unlock(BitSet held, boolean write) {
+        for (int partition = held.nextSetBit(0); partition >= 0; partition = held.nextSetBit(partition + 1)) {
+            lockOf(partition, write).unlock();
+        }
+    }
+
+    private void lockAll(boolean write) {
+        for (int partition = 0; partition < this.partitionCount; partition++) {
+            lockOf(partition, write).lock();
+        }
+    }
+
+    private void unlockAll(boolean write) {
+        for (int partition = 0; partition < this.partitionCount; partition++) {
+            lockOf(partition, write).unlock();
+        }
+    }
+
+    private Lock lockOf(int partition, boolean write) {
+        return write ? this.locks[partition].writeLock() : this.locks[partition].readLock();
+    }
+}
\ No newline at end of file
@@ -1,13 +1,18 @@
 package svgcreator.app;
 
 import svgcreator.app.actions.*; // Import all action classes
+import svgcreator.metrics.OperationMetrics;
+import svgcreator.persistence.InstrumentedSvgPersistenceService;
 import svgcreator.persistence.SvgPersistenceService;
 import svgcreator.ui.ConsoleUI;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Main application class for the SVG Shape Creator.
@@ -18,22 +23,64 @@ import java.util.Map;
 public class SvgApplication {
 
     private final ConsoleUI ui;
-    private final Drawing drawing; // Manages figures and persistence
+    private final SvgDrawing drawing; // Manages figures, persistence and undo history
+    private final Drawing actionDrawing; // The drawing as the actions see it; times queries if metrics are enabled
+    private CompletableFuture<Void> loading; // Pending initial load; null once it has been awaited
+    private final Path svgFilePath;
+    private final boolean watchFile; // Whether to pick up changes other processes make to the file
+    private DrawingFileWatcher watcher; // Created once the initial load completes, in watch mode
 
     private final Map<Integer, String> menu; // For display text
     private final Map<Integer, MenuAction> menuActions; // For executing actions
 
     /**
      * Constructs an SvgApplication instance.
+     * The initial figures are loaded in the background when the persistence service supports it,
+     * so the menu can be shown while a large drawing is still loading.
      *
      * @param ui The console user interface handler.
      * @param persistenceService The service responsible for loading and saving figures.
      * @param svgFilePath The path to the SVG file used for persistence.
      */
     public SvgApplication(ConsoleUI ui, SvgPersistenceService persistenceService, Path svgFilePath) {
+        this(ui, persistenceService, svgFilePath, false);
+    }
+
+    /**
+     * Constructs an SvgApplication instance, optionally in watch mode.
+     * In watch mode, changes other processes make to the SVG file are applied to the drawing
+     * before each menu action, see {@link DrawingFileWatcher}.
+     *
+     * @param ui The console user interface handler.
+     * @param persistenceService The service responsible for loading and saving figures.
+     * @param svgFilePath The path to the SVG file used for persistence.
+     * @param watchFile Whether to keep the drawing in sync with external changes to the file.
+     */
+    public SvgApplication(ConsoleUI ui, SvgPersistenceService persistenceService, Path svgFilePath, boolean watchFile) {
+        this(ui, persistenceService, svgFilePath, watchFile, null);
+    }
+
+    /**
+     * Constructs an SvgApplication instance, optionally in watch mode and with timed operations.
+     * With metrics, every load, save and drawing query is timed in the given registry,
+     * see {@link InstrumentedSvgPersistenceService} and {@link InstrumentedDrawing}. Menu actions
+     * are not timed as a whole, since their durations would mostly be the time the user takes to answer.
+     *
+     * @param ui The console user interface handler.
+     * @param persistenceService The service responsible for loading and saving figures.
+     * @param svgFilePath The path to the SVG file used for persistence.
+     * @param watchFile Whether to keep the drawing in sync with external changes to the file.
+     * @param metrics The registry operations are timed in, or null to not time them.
+     */
+    public SvgApplication(ConsoleUI ui, SvgPersistenceService persistenceService, Path svgFilePath, boolean watchFile,
+                          OperationMetrics metrics) {
         this.ui = ui;
-        this.drawing = new SvgDrawing(persistenceService, svgFilePath);
-        this.drawing.loadFromFile(); // Load initial figures
+        this.svgFilePath = svgFilePath;
+        this.watchFile = watchFile;
+        this.drawing = new SvgDrawing(metrics == null ? persistenceService
+                : InstrumentedSvgPersistenceService.instrument(persistenceService, metrics), svgFilePath);
+        this.actionDrawing = metrics == null ? this.drawing : new InstrumentedDrawing(this.drawing, metrics);
+        this.loading = this.drawing.loadFromFileAsync(); // Load initial figures
 
         this.menu = createMenu();
         this.menuActions = createMenuActions();
@@ -55,6 +102,10 @@ public class SvgApplication {
         menuMap.put(6, "Translate figure(s)");
         menuMap.put(7, "Show all figures");
         menuMap.put(8, "Save and Exit");
+        menuMap.put(9, "Begin/End edit session");
+        menuMap.put(10, "Undo");
+        menuMap.put(11, "Redo");
+        menuMap.put(12, "Scale/Rotate figure(s)");
         return menuMap;
     }
 
@@ -66,14 +117,18 @@ public class SvgApplication {
      */
     private Map<Integer, MenuAction> createMenuActions() {
         Map<Integer, MenuAction> actions = new HashMap<>();
-        actions.put(1, new CreateCircleAction(ui, drawing));
-        actions.put(2, new CreateRectangleAction(ui, drawing));
-        actions.put(3, new CreateLineAction(ui, drawing));
-        actions.put(4, new DeleteFigureAction(ui, drawing));
-        actions.put(5, new ShowFiguresWithinAction(ui, drawing));
-        actions.put(6, new TranslateFigureAction(ui, drawing));
-        actions.put(7, new ShowAllFiguresAction(ui, drawing));
-        actions.put(8, new SaveAndExitAction(ui, drawing));
+        actions.put(1, new CreateCircleAction(ui, actionDrawing));
+        actions.put(2, new CreateRectangleAction(ui, actionDrawing));
+        actions.put(3, new CreateLineAction(ui, actionDrawing));
+        actions.put(4, new DeleteFigureAction(ui, actionDrawing));
+        actions.put(5, new ShowFiguresWithinAction(ui, actionDrawing));
+        actions.put(6, new TranslateFigureAction(ui, actionDrawing));
+        actions.put(7, new ShowAllFiguresAction(ui, actionDrawing));
+        actions.put(8, new SaveAndExitAction(ui, actionDrawing));
+        actions.put(9, new EditSessionAction(ui, actionDrawing));
+        actions.put(10, new UndoAction(ui, drawing));
+        actions.put(11, new RedoAction(ui, drawing));
+        actions.put(12, new TransformFigureAction(ui, actionDrawing));
         return actions;
     }
 
@@ -90,11 +145,58 @@ public class SvgApplication {
             MenuAction action = menuActions.get(choice);
 
             if (action != null) {
+                awaitLoading(); // Every action works on the loaded drawing
+                applyExternalChanges();
                 running = action.execute();
             } else {
                 ui.showError("Invalid option. Please try again.");
             }
         }
+        if (watcher != null) {
+            watcher.close();
+        }
         ui.showMessage("Exiting application.");
     }
+
+    /**
+     * In watch mode, applies the changes other processes made to the file since the last action.
+     * Nothing is applied during an edit session; the changes are picked up once it ends.
+     */
+    private void applyExternalChanges() {
+        if (watcher == null || drawing.isInTransaction()) {
+            return;
+        }
+        DrawingFileWatcher.Reload reload = watcher.poll();
+        if (reload != DrawingFileWatcher.Reload.NONE) {
+            ui.showMessage("The file changed on disk; the drawing was updated ("
+                    + (reload == DrawingFileWatcher.Reload.FULL ? "full reload" : "changed figures only") + ").");
+        }
+    }
+
+    /**
+     * Waits for the initial load to finish, if it has not been awaited yet.
+     * If loading failed, an error is shown and the application continues with an empty drawing.
+     */
+    private void awaitLoading() {
+        if (loading == null) {
+            return;
+        }
+        if (!loading.isDone()) {
+            ui.showMessage("Waiting for the drawing to finish loading...");
+        }
+        try {
+            loading.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            ui.showError("Could not load the drawing: " + cause.getMessage() + ". Starting with an empty drawing.");
+        }
+        loading = null;
+        if (watchFile) {
+            try {
+                watcher = new DrawingFileWatcher(drawing, svgFilePath);
+            } catch (IOException e) {
+                ui.showError("Could not watch the file for changes: " + e.getMessage());
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -1,30 +1,118 @@
 package svgcreator.app;
 
+import svgcreator.persistence.AsyncSvgPersistenceService;
 import svgcreator.persistence.SvgPersistenceService;
 import svgcreator.shapes.Figure;
+import svgcreator.utils.BoundingBox;
 import svgcreator.utils.GeometryUtils;
+import svgcreator.utils.Transform;
 
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
 
 /**
  * Concrete implementation of the {@link Drawing} interface.
  * Manages a list of {@link Figure} objects and uses an {@link SvgPersistenceService}
  * for loading and saving them to an SVG file.
+ * A {@link SpatialGridIndex} is built on the first region-intersection query and then
+ * kept up to date by every mutation.
+ * While a transaction is open, every mutation is recorded as a {@link DrawingChange}
+ * so it can be reverted on rollback, and saving is deferred until commit.
+ * Outside transactions, the same changes feed a bounded undo/redo history; a committed
+ * transaction is undone as a single step.
+ * Every applied change, including those applied by undo, redo and rollback, is also published
+ * to the subscribers of {@link #changes()}.
  */
 public class SvgDrawing implements Drawing {
-    private final List<Figure> figures;
+
+    /**
+     * Default maximum number of steps kept in the undo history.
+     */
+    public static final int DEFAULT_UNDO_DEPTH = 100;
+
+    /**
+     * Default estimated memory, in bytes, the undo history may retain.
+     */
+    public static final long DEFAULT_UNDO_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+    // Rough per-item costs used to estimate the memory retained by the undo history
+    private static final long CHANGE_OVERHEAD_BYTES = 64;
+    private static final long REFERENCE_BYTES = 8;
+    private static final long POSITION_BYTES = 4;
+    private static final long FIGURE_BYTES = 48; // A removed figure is kept alive only by the history
+
+    /**
+     * One undoable step: a single edit, or every edit of a committed transaction.
+     */
+    private static final class UndoStep {
+        final List<DrawingChange> changes;
+        final long bytes;
+
+        UndoStep(List<DrawingChange> changes) {
+            this.changes = changes;
+            long total = 0;
+            for (DrawingChange change : changes) {
+                total += estimateBytes(change);
+            }
+            this.bytes = total;
+        }
+    }
+
+    private final ArrayList<Figure> figures;
+    private final List<StandingQuery> standingQueries;
+    private SpatialGridIndex index; // Built lazily by the first intersection query
+    private List<DrawingChange> transactionLog; // Non-null while a transaction is open
+    private boolean savePending; // Whether saveToFile was requested inside the open transaction
+    private final Deque<UndoStep> undoHistory; // Most recent step first
+    private final Deque<UndoStep> redoHistory;
+    private long undoBytes; // Estimated memory retained by undoHistory
+    private boolean replaying; // Set while undoing, redoing or rolling back, so nothing is recorded
+    private final int maxUndoDepth;
+    private final long undoMemoryBudget;
     private final SvgPersistenceService persistenceService;
     private final Path filePath;
+    private final DrawingChangePublisher changeFeed = new DrawingChangePublisher();
 
     /**
-     * Constructs an SvgDrawing instance.
+     * Constructs an SvgDrawing instance with the default undo history limits.
      * @param persistenceService The service used for file operations.
      * @param filePath The path to the SVG file.
      */
     public SvgDrawing(SvgPersistenceService persistenceService, Path filePath) {
+        this(persistenceService, filePath, DEFAULT_UNDO_DEPTH, DEFAULT_UNDO_MEMORY_BUDGET);
+    }
+
+    /**
+     * Constructs an SvgDrawing instance with the given undo history limits.
+     * When either limit is exceeded, the oldest steps are discarded first.
+     * @param persistenceService The service used for file operations.
+     * @param filePath The path to the SVG file.
+     * @param maxUndoDepth The maximum number of undoable steps, or 0 to disable undo.
+     * @param undoMemoryBudget The estimated memory, in bytes, the undo history may retain.
+     */
+    public SvgDrawing(SvgPersistenceService persistenceService, Path filePath, int maxUndoDepth, long undoMemoryBudget) {
+        if (maxUndoDepth < 0 || undoMemoryBudget < 0) {
+            throw new IllegalArgumentException("Undo depth and memory budget cannot be negative.");
+        }
         this.figures = new ArrayList<>();
+        this.standingQueries = new ArrayList<>();
+        this.undoHistory = new ArrayDeque<>();
+        this.redoHistory = new ArrayDeque<>();
+        this.maxUndoDepth = maxUndoDepth;
+        this.undoMemoryBudget = undoMemoryBudget;
         this.persistenceService = persistenceService;
         this.filePath = filePath;
     }
@@ -33,18 +121,48 @@ public class SvgDrawing implements Drawing {
     public void addFigure(Figure figure) {
         if (figure != null) {
             this.figures.add(figure);
+            figureAdded(figure);
+            record(new DrawingChange.Added(this.figures.size() - 1, List.of(figure)));
+        }
+    }
+
+    @Override
+    public void addFigures(Collection<? extends Figure> figuresToAdd) {
+        int position = this.figures.size();
+        this.figures.ensureCapacity(position + figuresToAdd.size());
+        for (Figure figure : figuresToAdd) {
+            if (figure != null) {
+                this.figures.add(figure);
+                figureAdded(figure);
+            }
+        }
+        if (this.figures.size() > position) {
+            record(new DrawingChange.Added(position, List.copyOf(this.figures.subList(position, this.figures.size()))));
         }
     }
 
     @Override
     public boolean removeFigure(int displayIndex) {
         if (displayIndex > 0 && displayIndex <= this.figures.size()) {
-            this.figures.remove(displayIndex - 1); // Convert 1-based to 0-based
+            Figure removed = this.figures.remove(displayIndex - 1); // Convert 1-based to 0-based
+            figureRemoved(removed);
+            record(new DrawingChange.Removed(new int[]{displayIndex - 1}, List.of(removed)));
             return true;
         }
         return false;
     }
 
+    @Override
+    public int removeFigures(Set<Integer> displayIndices) {
+        BitSet selected = toPositions(displayIndices);
+        return compact(selected::get);
+    }
+
+    @Override
+    public int removeFiguresIf(Predicate<? super Figure> filter) {
+        return compact(position -> filter.test(this.figures.get(position)));
+    }
+
     @Override
     public Figure getFigure(int displayIndex) {
         if (displayIndex > 0 && displayIndex <= this.figures.size()) {
@@ -58,11 +176,32 @@ public class SvgDrawing implements Drawing {
         return new ArrayList<>(this.figures); // Return a copy
     }
 
+    @Override
+    public List<Figure> getFigures(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit cannot be negative.");
+        }
+        int from = Math.min(offset, this.figures.size());
+        int to = (int) Math.min(this.figures.size(), (long) offset + limit);
+        return new ArrayList<>(this.figures.subList(from, to)); // Return a copy
+    }
+
     @Override
     public void translateAllFigures(int dx, int dy) {
+        BulkTransformEvent event = BulkTransformEvent.start("translateAllFigures");
         for (Figure figure : this.figures) {
             GeometryUtils.translateFigure(figure, dx, dy);
         }
+        if (this.index != null) {
+            this.index.translateAll(dx, dy);
+        }
+        for (StandingQuery query : this.standingQueries) {
+            for (Figure figure : this.figures) {
+                query.evaluate(figure);
+            }
+        }
+        record(new DrawingChange.Translated(null, dx, dy));
+        event.finish(this.figures.size(), this.figures.size());
     }
 
     @Override
@@ -70,37 +209,692 @@ public class SvgDrawing implements Drawing {
         if (displayIndex > 0 && displayIndex <= this.figures.size()) {
             Figure figureToTranslate = this.figures.get(displayIndex - 1);
             GeometryUtils.translateFigure(figureToTranslate, dx, dy);
+            figureMoved(figureToTranslate);
+            record(new DrawingChange.Translated(new int[]{displayIndex - 1}, dx, dy));
             return true;
         }
         return false;
     }
 
+    @Override
+    public int translateFigures(Set<Integer> displayIndices, int dx, int dy) {
+        BulkTransformEvent event = BulkTransformEvent.start("translateFigures");
+        BitSet selected = toPositions(displayIndices);
+        event.selected();
+        int translated = translateFigures(selected, dx, dy);
+        event.finish(this.figures.size(), translated);
+        return translated;
+    }
+
+    @Override
+    public int translateFiguresIf(Predicate<? super Figure> filter, int dx, int dy) {
+        BulkTransformEvent event = BulkTransformEvent.start("translateFiguresIf");
+        BitSet selected = new BitSet(this.figures.size());
+        for (int position = 0; position < this.figures.size(); position++) {
+            if (filter.test(this.figures.get(position))) {
+                selected.set(position);
+            }
+        }
+        event.selected();
+        int translated = translateFigures(selected, dx, dy);
+        event.finish(this.figures.size(), translated);
+        return translated;
+    }
+
+    @Override
+    public void transformAllFigures(Transform transform) {
+        requireInvertible(transform);
+        BulkTransformEvent event = BulkTransformEvent.start("transformAllFigures");
+        transformAt(null, transform);
+        record(new DrawingChange.Transformed(null, transform));
+        event.finish(this.figures.size(), this.figures.size());
+    }
+
+    @Override
+    public boolean transformSingleFigure(int displayIndex, Transform transform) {
+        requireInvertible(transform);
+        if (displayIndex > 0 && displayIndex <= this.figures.size()) {
+            transformAt(new int[]{displayIndex - 1}, transform);
+            record(new DrawingChange.Transformed(new int[]{displayIndex - 1}, transform));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int transformFiguresIf(Predicate<? super Figure> filter, Transform transform) {
+        requireInvertible(transform);
+        BulkTransformEvent event = BulkTransformEvent.start("transformFiguresIf");
+        BitSet selected = new BitSet(this.figures.size());
+        for (int position = 0; position < this.figures.size(); position++) {
+            if (filter.test(this.figures.get(position))) {
+                selected.set(position);
+            }
+        }
+        event.selected();
+        int[] positions = selected.stream().toArray();
+        if (positions.length > 0) {
+            transformAt(positions, transform);
+            record(new DrawingChange.Transformed(positions, transform));
+        }
+        event.finish(this.figures.size(), positions.length);
+        return positions.length;
+    }
+
     @Override
     public List<Figure> getFiguresWithinBoundary(String boundaryType, int bx, int by, int bParam1, int bParam2) {
+        BoundaryQueryEvent event = BoundaryQueryEvent.start();
         List<Figure> figuresWithin = new ArrayList<>();
         for (Figure figure : this.figures) {
             if (GeometryUtils.isFigureWithinBoundary(figure, boundaryType, bx, by, bParam1, bParam2)) {
                 figuresWithin.add(figure);
             }
         }
+        event.finish(boundaryType, bx, by, bParam1, bParam2, this.figures.size(), figuresWithin.size());
         return figuresWithin;
     }
 
+    @Override
+    public List<Figure> getFiguresIntersecting(int x, int y, int width, int height) {
+        if (this.index == null) {
+            this.index = new SpatialGridIndex(this.figures);
+        }
+        return this.index.query(new BoundingBox(x, y, x + width, y + height));
+    }
+
+    @Override
+    public void exportViewport(Path targetPath, int x, int y, int width, int height) {
+        List<Figure> visible = getFiguresIntersecting(x, y, width, height);
+        persistenceService.saveFigures(visible, targetPath, new BoundingBox(x, y, x + width, y + height));
+    }
+
+    @Override
+    public StandingQuery registerStandingQuery(String boundaryType, int bx, int by, int bParam1, int bParam2,
+                                               StandingQueryListener listener) {
+        StandingQuery query = new StandingQuery(boundaryType, bx, by, bParam1, bParam2, listener);
+        query.reset(this.figures);
+        this.standingQueries.add(query);
+        return query;
+    }
+
+    @Override
+    public boolean unregisterStandingQuery(StandingQuery query) {
+        return this.standingQueries.remove(query);
+    }
+
     @Override
     public void loadFromFile() {
-        this.figures.clear();
-        this.figures.addAll(persistenceService.loadFigures(this.filePath));
+        // Inside a transaction the reload must be revertible; outside one it starts a fresh history
+        boolean inTransaction = this.transactionLog != null;
+        List<Figure> previous = inTransaction || this.changeFeed.hasSubscribers() ? new ArrayList<>(this.figures) : null;
+        replaceContent(persistenceService.loadFigures(this.filePath));
+        if (inTransaction) {
+            record(new DrawingChange.Replaced(previous, new ArrayList<>(this.figures)));
+        } else {
+            clearUndoHistory();
+            if (previous != null) {
+                this.changeFeed.publish(new DrawingChange.Replaced(previous, new ArrayList<>(this.figures)));
+            }
+        }
         // System.out.println("Loaded " + this.figures.size() + " figures from " + this.filePath); // Optional debug
     }
 
+    /**
+     * Loads the figures from the file without blocking the caller, if the persistence service is an
+     * {@link AsyncSvgPersistenceService}; otherwise loads them synchronously before returning.
+     * The drawing must not be used until the returned future completes. Unlike {@link #loadFromFile()},
+     * a read failure is reported through the future, and the drawing then keeps its current figures.
+     * @return A future completed once the loaded figures are in place.
+     * @throws IllegalStateException if a transaction is active.
+     */
+    public CompletableFuture<Void> loadFromFileAsync() {
+        if (this.transactionLog != null) {
+            throw new IllegalStateException("Cannot load asynchronously while a transaction is active.");
+        }
+        if (!(persistenceService instanceof AsyncSvgPersistenceService asyncService)) {
+            loadFromFile();
+            return CompletableFuture.completedFuture(null);
+        }
+        return asyncService.loadFiguresAsync(this.filePath).thenAccept(loaded -> {
+            List<Figure> previous = this.changeFeed.hasSubscribers() ? new ArrayList<>(this.figures) : null;
+            replaceContent(loaded);
+            clearUndoHistory();
+            if (previous != null) {
+                this.changeFeed.publish(new DrawingChange.Replaced(previous, new ArrayList<>(this.figures)));
+            }
+        });
+    }
+
     @Override
     public void saveToFile() {
+        if (this.transactionLog != null) {
+            this.savePending = true; // Written once when the transaction commits
+            return;
+        }
         persistenceService.saveFigures(this.figures, this.filePath);
         // System.out.println("Saved " + this.figures.size() + " figures to " + this.filePath); // Optional debug
     }
 
+    @Override
+    public void beginTransaction() {
+        if (this.transactionLog != null) {
+            throw new IllegalStateException("A transaction is already active.");
+        }
+        this.transactionLog = new ArrayList<>();
+        this.savePending = false;
+    }
+
+    @Override
+    public void commitTransaction() {
+        commitTransaction(true);
+    }
+
+    @Override
+    public void commitTransaction(boolean persist) {
+        if (this.transactionLog == null) {
+            throw new IllegalStateException("No transaction is active.");
+        }
+        List<DrawingChange> log = this.transactionLog;
+        boolean changed = !log.isEmpty();
+        this.transactionLog = null;
+        if (changed) {
+            pushUndoStep(new UndoStep(log)); // The whole transaction is undone as one step
+            this.redoHistory.clear();
+        }
+        if ((changed && persist) || this.savePending) {
+            saveToFile();
+        }
+        this.savePending = false;
+    }
+
+    @Override
+    public void rollbackTransaction() {
+        if (this.transactionLog == null) {
+            throw new IllegalStateException("No transaction is active.");
+        }
+        List<DrawingChange> log = this.transactionLog;
+        this.transactionLog = null;
+        replay(log, false);
+        this.savePending = false;
+    }
+
+    @Override
+    public boolean isInTransaction() {
+        return this.transactionLog != null;
+    }
+
+    /**
+     * Gets the feed of changes applied to this drawing. Subscribers receive every change in the
+     * order it was applied, in batches, without ever stalling edits; see {@link DrawingChangePublisher}.
+     * Undo, redo and rollback are published as the changes they apply, e.g. undoing an addition
+     * publishes a removal.
+     * @return The change feed.
+     */
+    public Flow.Publisher<DrawingChangePublisher.Batch> changes() {
+        return this.changeFeed;
+    }
+
+    /**
+     * Undoes the most recent edit, or the most recent committed transaction as a whole.
+     * The drawing is not saved; callers persist the result as for any other edit.
+     * @return true if a step was undone, false if the undo history is empty.
+     * @throws IllegalStateException if a transaction is active.
+     */
+    public boolean undo() {
+        if (this.transactionLog != null) {
+            throw new IllegalStateException("Cannot undo while a transaction is active.");
+        }
+        UndoStep step = this.undoHistory.pollFirst();
+        if (step == null) {
+            return false;
+        }
+        this.undoBytes -= step.bytes;
+        replay(step.changes, false);
+        this.redoHistory.push(step);
+        return true;
+    }
+
+    /**
+     * Re-applies the most recently undone step.
+     * The redo history is cleared by any new edit.
+     * @return true if a step was redone, false if there is nothing to redo.
+     * @throws IllegalStateException if a transaction is active.
+     */
+    public boolean redo() {
+        if (this.transactionLog != null) {
+            throw new IllegalStateException("Cannot redo while a transaction is active.");
+        }
+        UndoStep step = this.redoHistory.pollFirst();
+        if (step == null) {
+            return false;
+        }
+        replay(step.changes, true);
+        pushUndoStep(step);
+        return true;
+    }
+
+    /**
+     * Checks whether there is a step that can be undone.
+     * @return true if the undo history is not empty.
+     */
+    public boolean canUndo() {
+        return !this.undoHistory.isEmpty();
+    }
+
+    /**
+     * Checks whether there is a step that can be redone.
+     * @return true if the redo history is not empty.
+     */
+    public boolean canRedo() {
+        return !this.redoHistory.isEmpty();
+    }
+
+    /**
+     * Discards the undo and redo history.
+     */
+    public void clearUndoHistory() {
+        this.undoHistory.clear();
+        this.redoHistory.clear();
+        this.undoBytes = 0;
+    }
+
     @Override
     public int getFigureCount() {
         return this.figures.size();
     }
+
+    /**
+     * Converts 1-based display indices into a set of 0-based list positions,
+     * ignoring indices that are out of range.
+     */
+    private BitSet toPositions(Set<Integer> displayIndices) {
+        BitSet positions = new BitSet(this.figures.size());
+        for (Integer displayIndex : displayIndices) {
+            if (displayIndex != null && displayIndex > 0 && displayIndex <= this.figures.size()) {
+                positions.set(displayIndex - 1);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Removes every figure whose list position is selected, in a single compaction pass
+     * over the list, so removing k figures from n costs O(n) rather than O(n*k). Once more than
+     * one figure is removed, the spatial index is dropped and rebuilt by the next query instead of
+     * removing each figure from its cells.
+     * @param selected Tests a 0-based position, evaluated before the figure at it is moved.
+     * @return The number of figures removed.
+     */
+    private int compact(IntPredicate selected) {
+        int size = this.figures.size();
+        boolean recording = isRecording();
+        List<Figure> removed = recording ? new ArrayList<>() : null;
+        int[] removedPositions = recording ? new int[16] : null;
+        int kept = 0;
+        for (int position = 0; position < size; position++) {
+            Figure figure = this.figures.get(position);
+            if (selected.test(position)) {
+                if (position - kept == 1) {
+                    this.index = null; // A second removal, so rebuilding beats updating the index for each
+                }
+                figureRemoved(figure);
+                if (recording) {
+                    if (removed.size() == removedPositions.length) {
+                        removedPositions = Arrays.copyOf(removedPositions, removedPositions.length * 2);
+                    }
+                    removedPositions[removed.size()] = position;
+                    removed.add(figure);
+                }
+            } else {
+                this.figures.set(kept++, figure);
+            }
+        }
+        this.figures.subList(kept, size).clear();
+        if (recording && !removed.isEmpty()) {
+            record(new DrawingChange.Removed(Arrays.copyOf(removedPositions, removed.size()), removed));
+        }
+        return size - kept;
+    }
+
+    /**
+     * Translates the figures at the given 0-based positions without recording the change.
+     */
+    private void translateAt(int[] positions, int dx, int dy) {
+        for (int position : positions) {
+            Figure figure = this.figures.get(position);
+            GeometryUtils.translateFigure(figure, dx, dy);
+            figureMoved(figure);
+        }
+    }
+
+    /**
+     * Transforms the figures at the given 0-based positions, or every figure if positions is null,
+     * without recording the change. Figures that shared a transform before share the composed one
+     * afterwards, so transforming a whole drawing allocates one matrix per distinct transform
+     * rather than one per figure.
+     */
+    private void transformAt(int[] positions, Transform transform) {
+        Map<Transform, Transform> composed = new IdentityHashMap<>();
+        int count = positions == null ? this.figures.size() : positions.length;
+        for (int i = 0; i < count; i++) {
+            Figure figure = this.figures.get(positions == null ? i : positions[i]);
+            Transform current = figure.getTransform();
+            figure.setTransform(current == null ? transform : composed.computeIfAbsent(current, t -> t.then(transform)));
+            if (positions != null) {
+                figureMoved(figure);
+            }
+        }
+        if (positions == null) {
+            this.index = null; // Every box changed, so rebuilding on the next query beats updating each entry
+            for (StandingQuery query : this.standingQueries) {
+                for (Figure figure : this.figures) {
+                    query.evaluate(figure);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rejects transforms that cannot be undone, such as a scaling by zero.
+     */
+    private static void requireInvertible(Transform transform) {
+        if (transform == null || transform.determinant() == 0) {
+            throw new IllegalArgumentException("Transform must be invertible.");
+        }
+    }
+
+    /**
+     * Translates the figures at the selected 0-based positions and records the change.
+     * @return The number of figures translated.
+     */
+    private int translateFigures(BitSet selected, int dx, int dy) {
+        int[] positions = selected.stream().toArray();
+        translateAt(positions, dx, dy);
+        if (positions.length > 0) {
+            record(new DrawingChange.Translated(positions, dx, dy));
+        }
+        return positions.length;
+    }
+
+    /**
+     * Replaces every figure in the drawing without recording the change.
+     */
+    private void replaceContent(List<Figure> content) {
+        this.figures.clear();
+        this.figures.addAll(content);
+        this.index = null; // Rebuilt on the next intersection query
+        for (StandingQuery query : this.standingQueries) {
+            query.reset(this.figures);
+        }
+    }
+
+    /**
+     * Re-inserts removed figures at the positions they occupied before removal,
+     * merging them back into the list in a single pass.
+     */
+    private void insertAt(int[] positions, List<Figure> inserted) {
+        List<Figure> merged = new ArrayList<>(this.figures.size() + inserted.size());
+        int next = 0;
+        int source = 0;
+        for (int position = 0; position < this.figures.size() + inserted.size(); position++) {
+            if (next < positions.length && positions[next] == position) {
+                merged.add(inserted.get(next++));
+            } else {
+                merged.add(this.figures.get(source++));
+            }
+        }
+        this.figures.clear();
+        this.figures.addAll(merged);
+        this.index = null; // Insertion order changed, so the index is rebuilt on the next query
+        for (Figure figure : inserted) {
+            for (StandingQuery query : this.standingQueries) {
+                query.evaluate(figure);
+            }
+        }
+    }
+
+    /**
+     * Replays recorded changes without recording them again: backwards as inverses when undoing,
+     * or forwards as originally applied when redoing.
+     */
+    private void replay(List<DrawingChange> changes, boolean forward) {
+        this.replaying = true;
+        try {
+            if (forward) {
+                for (DrawingChange change : changes) {
+                    reapply(change);
+                    this.changeFeed.publish(change);
+                }
+            } else {
+                boolean publishing = this.changeFeed.hasSubscribers();
+                for (int i = changes.size() - 1; i >= 0; i--) {
+                    revert(changes.get(i));
+                    if (publishing) {
+                        publishInverse(changes.get(i));
+                    }
+                }
+            }
+        } finally {
+            this.replaying = false;
+        }
+    }
+
+    /**
+     * Applies a recorded change again, exactly as it was originally applied.
+     */
+    private void reapply(DrawingChange change) {
+        if (change instanceof DrawingChange.Added added) {
+            if (added.position() == this.figures.size()) {
+                for (Figure figure : added.figures()) {
+                    this.figures.add(figure);
+                    figureAdded(figure);
+                }
+            } else {
+                int[] positions = new int[added.figures().size()];
+                Arrays.setAll(positions, i -> added.position() + i);
+                insertAt(positions, added.figures());
+            }
+        } else if (change instanceof DrawingChange.Removed removed) {
+            BitSet selected = new BitSet(this.figures.size());
+            for (int position : removed.positions()) {
+                selected.set(position);
+            }
+            compact(selected::get);
+        } else if (change instanceof DrawingChange.Translated translated) {
+            if (translated.positions() == null) {
+                translateAllFigures(translated.dx(), translated.dy());
+            } else {
+                translateAt(translated.positions(), translated.dx(), translated.dy());
+            }
+        } else if (change instanceof DrawingChange.Transformed transformed) {
+            transformAt(transformed.positions(), transformed.transform());
+        } else if (change instanceof DrawingChange.Replaced replaced) {
+            replaceContent(replaced.current());
+        }
+    }
+
+    /**
+     * Applies the inverse of a recorded change.
+     */
+    private void revert(DrawingChange change) {
+        if (change instanceof DrawingChange.Added added) {
+            int from = added.position();
+            int to = from + added.figures().size();
+            compact(position -> position >= from && position < to);
+        } else if (change instanceof DrawingChange.Removed removed) {
+            insertAt(removed.positions(), removed.figures());
+        } else if (change instanceof DrawingChange.Translated translated) {
+            if (translated.positions() == null) {
+                translateAllFigures(-translated.dx(), -translated.dy());
+            } else {
+                translateAt(translated.positions(), -translated.dx(), -translated.dy());
+            }
+        } else if (change instanceof DrawingChange.Transformed transformed) {
+            transformAt(transformed.positions(), transformed.transform().inverse());
+        } else if (change instanceof DrawingChange.Replaced replaced) {
+            replaceContent(replaced.previous());
+        }
+    }
+
+    /**
+     * Publishes the changes that undo a recorded change, as applied by {@link #revert(DrawingChange)}.
+     * Re-inserted figures are published as one addition per run of consecutive positions, which,
+     * applied in order, restores every figure to its original position.
+     */
+    private void publishInverse(DrawingChange change) {
+        if (change instanceof DrawingChange.Added added) {
+            int[] positions = new int[added.figures().size()];
+            Arrays.setAll(positions, i -> added.position() + i);
+            this.changeFeed.publish(new DrawingChange.Removed(positions, added.figures()));
+        } else if (change instanceof DrawingChange.Removed removed) {
+            int[] positions = removed.positions();
+            int start = 0;
+            for (int i = 1; i <= positions.length; i++) {
+                if (i == positions.length || positions[i] != positions[i - 1] + 1) {
+                    this.changeFeed.publish(new DrawingChange.Added(positions[start], removed.figures().subList(start, i)));
+                    start = i;
+                }
+            }
+        } else if (change instanceof DrawingChange.Translated translated) {
+            this.changeFeed.publish(new DrawingChange.Translated(translated.positions(), -translated.dx(), -translated.dy()));
+        } else if (change instanceof DrawingChange.Transformed transformed) {
+            this.changeFeed.publish(new DrawingChange.Transformed(transformed.positions(), transformed.transform().inverse()));
+        } else if (change instanceof DrawingChange.Replaced replaced) {
+            this.changeFeed.publish(new DrawingChange.Replaced(replaced.current(), replaced.previous()));
+        }
+    }
+
+    /**
+     * Whether mutations are currently being recorded as {@link DrawingChange}s,
+     * for a transaction, the undo history or the change feed.
+     */
+    private boolean isRecording() {
+        return !this.replaying && (this.transactionLog != null || this.maxUndoDepth > 0 || this.changeFeed.hasSubscribers());
+    }
+
+    /**
+     * Records a change: inside a transaction it is appended to the transaction's log, merging it
+     * into the previous change where possible so repeated edits keep the log compact; otherwise
+     * it becomes a new undo step and invalidates the redo history. Either way it is published
+     * to the change feed.
+     */
+    private void record(DrawingChange change) {
+        if (this.replaying) {
+            return;
+        }
+        this.changeFeed.publish(change);
+        if (this.transactionLog == null) {
+            if (this.maxUndoDepth > 0) {
+                pushUndoStep(new UndoStep(List.of(change)));
+                this.redoHistory.clear();
+            }
+            return;
+        }
+        int last = this.transactionLog.size() - 1;
+        if (last >= 0) {
+            DrawingChange merged = merge(this.transactionLog.get(last), change);
+            if (merged != null) {
+                this.transactionLog.set(last, merged);
+                return;
+            }
+        }
+        this.transactionLog.add(change);
+    }
+
+    /**
+     * Pushes a step onto the undo history, then discards the oldest steps until the history
+     * fits both its depth and its memory budget. A step larger than the whole budget is
+     * therefore not kept at all.
+     */
+    private void pushUndoStep(UndoStep step) {
+        this.undoHistory.push(step);
+        this.undoBytes += step.bytes;
+        while (!this.undoHistory.isEmpty()
+                && (this.undoHistory.size() > this.maxUndoDepth || this.undoBytes > this.undoMemoryBudget)) {
+            this.undoBytes -= this.undoHistory.pollLast().bytes;
+        }
+    }
+
+    /**
+     * Estimates the memory a recorded change keeps reachable. Figures still in the drawing cost
+     * only a reference, while removed figures are counted in full because only the history holds them.
+     */
+    private static long estimateBytes(DrawingChange change) {
+        if (change instanceof DrawingChange.Added added) {
+            return CHANGE_OVERHEAD_BYTES + REFERENCE_BYTES * added.figures().size();
+        } else if (change instanceof DrawingChange.Removed removed) {
+            return CHANGE_OVERHEAD_BYTES + (POSITION_BYTES + REFERENCE_BYTES + FIGURE_BYTES) * removed.figures().size();
+        } else if (change instanceof DrawingChange.Translated translated) {
+            return CHANGE_OVERHEAD_BYTES + (translated.positions() == null ? 0 : POSITION_BYTES * translated.positions().length);
+        } else if (change instanceof DrawingChange.Transformed transformed) {
+            return CHANGE_OVERHEAD_BYTES + (transformed.positions() == null ? 0 : POSITION_BYTES * transformed.positions().length);
+        } else if (change instanceof DrawingChange.Replaced replaced) {
+            return CHANGE_OVERHEAD_BYTES + (REFERENCE_BYTES + FIGURE_BYTES) * replaced.previous().size()
+                    + REFERENCE_BYTES * replaced.current().size();
+        }
+        return CHANGE_OVERHEAD_BYTES;
+    }
+
+    /**
+     * Merges two consecutive changes into one, or returns null if they cannot be merged.
+     * Appends following appends, and translations or transforms of the same figures, are merged.
+     */
+    private static DrawingChange merge(DrawingChange previous, DrawingChange next) {
+        if (previous instanceof DrawingChange.Added a && next instanceof DrawingChange.Added b
+                && a.position() + a.figures().size() == b.position()) {
+            if (a.figures() instanceof ArrayList<Figure> run) { // Already a merged run owned by the log
+                run.addAll(b.figures());
+                return a;
+            }
+            List<Figure> figures = new ArrayList<>(a.figures());
+            figures.addAll(b.figures());
+            return new DrawingChange.Added(a.position(), figures);
+        }
+        if (previous instanceof DrawingChange.Translated a && next instanceof DrawingChange.Translated b
+                && Arrays.equals(a.positions(), b.positions())) {
+            return new DrawingChange.Translated(a.positions(), a.dx() + b.dx(), a.dy() + b.dy());
+        }
+        if (previous instanceof DrawingChange.Transformed a && next instanceof DrawingChange.Transformed b
+                && Arrays.equals(a.positions(), b.positions())) {
+            Transform combined = a.transform().then(b.transform());
+            return combined.isIdentity() ? null : new DrawingChange.Transformed(a.positions(), combined);
+        }
+        return null;
+    }
+
+    /**
+     * Brings the index and standing queries up to date after a figure was added.
+     */
+    private void figureAdded(Figure figure) {
+        if (this.index != null) {
+            this.index.insert(figure);
+        }
+        for (StandingQuery query : this.standingQueries) {
+            query.evaluate(figure);
+        }
+    }
+
+    /**
+     * Brings the index and standing queries up to date after a figure was removed.
+     */
+    private void figureRemoved(Figure figure) {
+        if (this.index != null) {
+            this.index.remove(figure);
+        }
+        for (StandingQuery query : this.standingQueries) {
+            query.discard(figure);
+        }
+    }
+
+    /**
+     * Brings the index and standing queries up to date after a figure was translated or transformed.
+     */
+    private void figureMoved(Figure figure) {
+        if (this.index != null) {
+            this.index.update(figure);
+        }
+        for (StandingQuery query : this.standingQueries) {
+            query.evaluate(figure);
+        }
+    }
 }
\ No newline at end of file
@@ -2,14 +2,19 @@ package svgcreator.persistence;
 
 import svgcreator.shapes.Circle;
 import svgcreator.shapes.Figure;
+import svgcreator.shapes.FigureGroup;
 import svgcreator.shapes.Line;
 import svgcreator.shapes.Rectangle;
+import svgcreator.utils.BoundingBox;
+import svgcreator.utils.Transform;
 
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -22,6 +27,17 @@ import java.util.regex.Pattern;
  */
 public class SvgFilePersistenceService implements SvgPersistenceService {
 
+    /**
+     * Matches a group's {@code translate(x,y)} transform, optionally preceded by a {@code matrix(...)},
+     * capturing the matrix components and both offsets.
+     */
+    private static final Pattern TRANSLATE_PATTERN = Pattern.compile("(?:matrix\\(([^)]*)\\)\\s*)?translate\\(\\s*(-?\\d+)[\\s,]+(-?\\d+)\\s*\\)");
+
+    /**
+     * Matches a figure's {@code matrix(a,b,c,d,e,f)} transform, capturing the six components.
+     */
+    private static final Pattern MATRIX_PATTERN = Pattern.compile("matrix\\(([^)]*)\\)");
+
     /**
      * Extracts the value of a specified attribute from an SVG element string.
      * This method uses regular expressions to find attributes in the format {@code attributeName='value'}.
@@ -43,7 +59,7 @@ public class SvgFilePersistenceService implements SvgPersistenceService {
      * Loads a list of {@link Figure} objects from the specified SVG file.
      * If the file does not exist, an empty list is returned.
      * The method parses SVG elements like {@code <circle>}, {@code <rect>}, and {@code <line>}
-     * from the file content.
+     * from the file content, as well as {@code <g>} groups, which may be nested.
      *
      * @param filePath The {@link Path} to the SVG file to load figures from.
      * @return A {@link List} of {@link Figure} objects parsed from the file.
@@ -52,50 +68,174 @@ public class SvgFilePersistenceService implements SvgPersistenceService {
      */
     @Override
     public List<Figure> loadFigures(Path filePath) {
-        List<Figure> loadedFigures = new ArrayList<>();
         if (!Files.exists(filePath)) {
             // System.out.println("Info: SVG file not found at " + filePath + ". Starting with no figures."); // Optional info message
-            return loadedFigures; // Return empty list if file doesn't exist
+            return new ArrayList<>(); // Return empty list if file doesn't exist
         }
 
         try {
+            LoadFiguresEvent event = LoadFiguresEvent.start(filePath);
+            long size = event.isEnabled() ? Files.size(filePath) : 0; // Only needed for the event
             String svgContent = Files.readString(filePath);
-            // Find indices for inner content, skipping the main <svg ...> tag itself
-            int startIndex = svgContent.indexOf('>');
-            int endIndex = svgContent.lastIndexOf("</svg>");
+            event.read(size);
+            List<Figure> figures = parseFigures(svgContent, filePath);
+            event.parsed(figures.size());
+            return figures;
+        } catch (IOException e) {
+            System.err.println("Error reading file for loading figures: " + filePath + " - " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
 
-            if (startIndex == -1 || endIndex == -1 || startIndex >= endIndex) {
-                System.err.println("Warning: Invalid or empty SVG structure in file: " + filePath + ". Cannot load figures.");
-                return loadedFigures;
-            }
-            startIndex += 1; // Move past the '>' of the opening <svg> tag
+    /**
+     * Parses the figures of an SVG document that has already been read into memory.
+     * Malformed lines are skipped with a warning on {@code System.err}, as in {@link #loadFigures(Path)}.
+     *
+     * @param svgContent The complete text of the SVG document.
+     * @param filePath The {@link Path} the document was read from, used in warnings.
+     * @return A {@link List} of the top-level {@link Figure} objects in the document.
+     */
+    public List<Figure> parseFigures(String svgContent, Path filePath) {
+        List<Figure> loadedFigures = new ArrayList<>();
+        // Find indices for inner content, skipping the main <svg ...> tag itself
+        int startIndex = svgContent.indexOf('>');
+        int endIndex = svgContent.lastIndexOf("</svg>");
 
-            String innerContent = svgContent.substring(startIndex, endIndex).trim();
+        if (startIndex == -1 || endIndex == -1 || startIndex >= endIndex) {
+            System.err.println("Warning: Invalid or empty SVG structure in file: " + filePath + ". Cannot load figures.");
+            return loadedFigures;
+        }
+        startIndex += 1; // Move past the '>' of the opening <svg> tag
 
-            if (!innerContent.isEmpty()) {
-                String[] shapeLines = innerContent.split("\\r?\\n"); // Split by newline characters
-                for (String line : shapeLines) {
-                    parseAndAddFigure(line.trim(), loadedFigures);
+        String innerContent = svgContent.substring(startIndex, endIndex).trim();
+
+        if (!innerContent.isEmpty()) {
+            String[] shapeLines = innerContent.split("\\r?\\n"); // Split by newline characters
+            Deque<FigureGroup> openGroups = new ArrayDeque<>(); // Innermost group first
+            for (String line : shapeLines) {
+                parseLine(line.trim(), loadedFigures, openGroups);
+            }
+            if (!openGroups.isEmpty()) {
+                System.err.println("Warning: Unclosed group(s) in file: " + filePath + ". Closing them at the end of the file.");
+                while (!openGroups.isEmpty()) {
+                    closeGroup(loadedFigures, openGroups);
                 }
             }
-        } catch (IOException e) {
-            System.err.println("Error reading file for loading figures: " + filePath + " - " + e.getMessage());
         }
         return loadedFigures;
     }
 
     /**
-     * Parses a single line of SVG content, attempts to create a {@link Figure} object from it,
-     * and adds it to the provided list of figures.
-     * This method supports parsing {@code <circle>}, {@code <rect>}, and {@code <line>} elements.
+     * Parses a single line of SVG content and adds the resulting figure to the innermost open
+     * group, or to the top-level list if no group is open.
+     * Lines opening a {@code <g>} element start a new group; lines closing one finish it.
+     *
+     * @param line The trimmed SVG string line to parse.
+     * @param figures The list of top-level figures.
+     * @param openGroups The groups opened but not yet closed, innermost first.
+     */
+    private void parseLine(String line, List<Figure> figures, Deque<FigureGroup> openGroups) {
+        if (line.startsWith("<g ") || line.startsWith("<g>")) {
+            openGroups.push(parseGroup(line));
+        } else if (line.startsWith("</g")) {
+            if (openGroups.isEmpty()) {
+                System.err.println("Warning: Unmatched closing group tag in file: " + line);
+            } else {
+                closeGroup(figures, openGroups);
+            }
+        } else {
+            Figure figure = parseFigure(line);
+            if (figure != null) {
+                if (openGroups.isEmpty()) {
+                    figures.add(figure);
+                } else {
+                    openGroups.peek().addChild(figure);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates an empty {@link FigureGroup} from an opening {@code <g>} tag.
+     * Only a {@code translate(x,y)} transform, optionally preceded by a {@code matrix(...)}, is understood;
+     * any other transform is ignored with a warning.
+     *
+     * @param line The opening tag (e.g., {@code "<g transform='translate(10,20)' id='layer1'>"}).
+     * @return The new, still empty group.
+     */
+    private FigureGroup parseGroup(String line) {
+        int x = 0, y = 0;
+        Transform matrix = null;
+        String transform = getAttributeValue(line, "transform");
+        if (transform != null) {
+            Matcher matcher = TRANSLATE_PATTERN.matcher(transform.trim());
+            if (matcher.matches()) {
+                x = Integer.parseInt(matcher.group(2));
+                y = Integer.parseInt(matcher.group(3));
+                if (matcher.group(1) != null) {
+                    matrix = parseMatrix(matcher.group(1), line);
+                }
+            } else {
+                System.err.println("Warning: Unsupported group transform in line from file: " + line);
+            }
+        }
+        FigureGroup group = new FigureGroup(x, y, getAttributeValue(line, "id"));
+        group.setTransform(matrix);
+        return group;
+    }
+
+    /**
+     * Parses the components of a {@code matrix(...)} transform.
+     *
+     * @param components The text between the parentheses, six numbers separated by commas or whitespace.
+     * @param line The line being parsed, for the warning message.
+     * @return The transform, or {@code null} if the components are malformed (a warning is printed).
+     */
+    private Transform parseMatrix(String components, String line) {
+        String[] parts = components.trim().split("[\\s,]+");
+        if (parts.length != 6) {
+            System.err.println("Warning: Invalid matrix transform in line from file: " + line);
+            return null;
+        }
+        double[] values = new double[6];
+        try {
+            for (int i = 0; i < 6; i++) {
+                values[i] = Double.parseDouble(parts[i]);
+            }
+        } catch (NumberFormatException nfe) {
+            System.err.println("Warning: Invalid number format in matrix transform in line from file: " + line + " - " + nfe.getMessage());
+            return null;
+        }
+        return new Transform(values[0], values[1], values[2], values[3], values[4], values[5]);
+    }
+
+    /**
+     * Closes the innermost open group and adds it to its parent group, or to the top-level list.
+     *
+     * @param figures The list of top-level figures.
+     * @param openGroups The groups opened but not yet closed, innermost first.
+     */
+    private void closeGroup(List<Figure> figures, Deque<FigureGroup> openGroups) {
+        FigureGroup group = openGroups.pop();
+        if (openGroups.isEmpty()) {
+            figures.add(group);
+        } else {
+            openGroups.peek().addChild(group);
+        }
+    }
+
+    /**
+     * Parses a single line of SVG content and attempts to create a {@link Figure} object from it.
+     * This method supports parsing {@code <circle>}, {@code <rect>}, and {@code <line>} elements,
+     * including an optional {@code transform='matrix(...)'} attribute.
      *
      * @param line The SVG string line to parse (e.g., {@code "<circle cx='50' cy='50' r='40' fill='red' />"}).
-     * @param figures The list to which the parsed {@link Figure} object will be added.
-     *                Warnings are printed to {@code System.err} if parsing fails for a line.
+     * @return The parsed {@link Figure}, or {@code null} if the line holds no figure.
+     *         Warnings are printed to {@code System.err} if parsing fails for a line.
      */
-    private void parseAndAddFigure(String line, List<Figure> figures) {
+    private Figure parseFigure(String line) {
         if (line.isEmpty() || !line.startsWith("<")) {
-            return; // Skip empty lines or lines not starting with an opening tag
+            return null; // Skip empty lines or lines not starting with an opening tag
         }
 
         Figure figure = null;
@@ -128,16 +268,25 @@ public class SvgFilePersistenceService implements SvgPersistenceService {
                 }
             }
 
-            if (figure != null) {
-                figures.add(figure);
-            } else if (line.startsWith("<")) { // Only warn if it looked like an SVG tag but wasn't recognized
+            if (figure == null && line.startsWith("<")) { // Only warn if it looked like an SVG tag but wasn't recognized
                 System.err.println("Warning: Could not parse or missing attributes in line from file: " + line);
             }
+
+            String transform = figure == null ? null : getAttributeValue(line, "transform");
+            if (transform != null) {
+                Matcher matcher = MATRIX_PATTERN.matcher(transform.trim());
+                if (matcher.matches()) {
+                    figure.setTransform(parseMatrix(matcher.group(1), line));
+                } else {
+                    System.err.println("Warning: Unsupported transform in line from file: " + line);
+                }
+            }
         } catch (NumberFormatException nfe) {
             System.err.println("Warning: Invalid number format in line from file: " + line + " - " + nfe.getMessage());
         } catch (Exception e) { // Catch any other unexpected errors during parsing of a line
             System.err.println("Warning: Error parsing line from file: " + line + " - " + e.getMessage());
         }
+        return figure;
     }
 
 
@@ -154,21 +303,96 @@ public class SvgFilePersistenceService implements SvgPersistenceService {
      */
     @Override
     public void saveFigures(List<Figure> figures, Path filePath) {
-        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(filePath))) { // Use Files.newBufferedWriter for better charset handling
-            writer.println("<svg xmlns='http://www.w3.org/2000/svg' width='500' height='500'>"); // Standard SVG header
-            if (figures != null) {
-                for (Figure figure : figures) {
-                    if (figure != null) { // Add a null check for robustness
-                        writer.println("  " + figure.drawFigure()); // Indent for readability
-                    }
-                }
-            }
-            writer.println("</svg>");
+        saveFigures(figures, filePath, null);
+    }
+
+    /**
+     * Saves {@link Figure} objects to the specified SVG file, using the given region as the canvas.
+     * This method OVERWRITES the existing file if it exists, or creates a new file.
+     * Figures are written one by one as they are iterated, so only the figures themselves
+     * (and not their SVG text) need to be held by the caller.
+     *
+     * @param figures The figures to save, in paint order.
+     *                If {@code null} or empty, an empty SVG structure will be written.
+     * @param filePath The {@link Path} to the SVG file where the figures will be saved.
+     *                 Error messages are printed to {@code System.err} if an {@link IOException} occurs.
+     * @param viewport The region written as the SVG {@code viewBox}, with a canvas of the same size,
+     *                 or {@code null} for the default 500x500 canvas.
+     */
+    @Override
+    public void saveFigures(Iterable<? extends Figure> figures, Path filePath, BoundingBox viewport) {
+        try {
+            writeFile(figures, filePath, viewport);
             // Success message is typically handled by the calling layer (e.g., SvgApplication)
         } catch (IOException e) {
             System.err.println("Error overwriting SVG file: " + filePath + " - " + e.getMessage());
-            // Consider re-throwing as a custom runtime exception or returning a boolean status
-            // e.g., throw new PersistenceException("Failed to save SVG file", e);
         }
     }
+
+    /**
+     * Saves a list of {@link Figure} objects to the specified SVG file like {@link #saveFigures(List, Path)},
+     * but throws instead of printing an error message if the file cannot be written.
+     *
+     * @param figures The {@link List} of {@link Figure} objects to save.
+     * @param filePath The {@link Path} to the SVG file where the figures will be saved.
+     * @throws IOException if the file cannot be written completely.
+     */
+    @Override
+    public void saveFiguresOrThrow(List<Figure> figures, Path filePath) throws IOException {
+        writeFile(figures, filePath, null);
+    }
+
+    /**
+     * Overwrites the file with an SVG document containing the given figures.
+     * A {@link PrintWriter} does not throw on write errors, so they are checked for before closing.
+     */
+    private void writeFile(Iterable<? extends Figure> figures, Path filePath, BoundingBox viewport) throws IOException {
+        SaveFiguresEvent event = SaveFiguresEvent.start(filePath);
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(filePath))) { // Use Files.newBufferedWriter for better charset handling
+            event.rendered(writeFigures(figures, viewport, writer));
+            if (writer.checkError()) {
+                throw new IOException("Write failed");
+            }
+        }
+        event.written(event.isEnabled() ? Files.size(filePath) : 0); // The size is only needed for the event
+    }
+
+    /**
+     * Writes a complete SVG document containing the given figures.
+     *
+     * @param figures The figures to write, in paint order; {@code null} writes an empty document.
+     * @param viewport The region written as the SVG {@code viewBox}, or {@code null} for the default canvas.
+     * @param writer The writer receiving the document.
+     * @return The number of top-level figures written.
+     */
+    protected int writeFigures(Iterable<? extends Figure> figures, BoundingBox viewport, PrintWriter writer) {
+        int written = 0;
+        writer.println(svgHeader(viewport));
+        if (figures != null) {
+            for (Figure figure : figures) {
+                if (figure != null) { // Add a null check for robustness
+                    writer.println("  " + figure.drawFigure().replace("\n", "\n  ")); // Indent every line (groups span several) for readability
+                    written++;
+                }
+            }
+        }
+        writer.println("</svg>");
+        return written;
+    }
+
+    /**
+     * Builds the opening {@code <svg>} tag for a file.
+     *
+     * @param viewport The region shown by the canvas, or {@code null} for the default 500x500 canvas.
+     * @return The opening tag.
+     */
+    private String svgHeader(BoundingBox viewport) {
+        if (viewport == null) {
+            return "<svg xmlns='http://www.w3.org/2000/svg' width='500' height='500'>"; // Standard SVG header
+        }
+        long width = (long) viewport.maxX() - viewport.minX();
+        long height = (long) viewport.maxY() - viewport.minY();
+        return "<svg xmlns='http://www.w3.org/2000/svg' width='" + width + "' height='" + height
+                + "' viewBox='" + viewport.minX() + " " + viewport.minY() + " " + width + " " + height + "'>";
+    }
 }
\ No newline at end of file
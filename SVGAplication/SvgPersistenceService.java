@@ -1,7 +1,9 @@
 package svgcreator.persistence;
 
 import svgcreator.shapes.Figure;
+import svgcreator.utils.BoundingBox;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
 
@@ -35,4 +37,33 @@ public interface SvgPersistenceService {
      *                 where the figures will be saved.
      */
     void saveFigures(List<Figure> figures, Path filePath); // Overwrites
+
+    /**
+     * Saves a list of {@link Figure} objects like {@link #saveFigures(List, Path)}, but reports a
+     * failure to the caller instead of only logging it, so the caller can tell whether the data is safe.
+     * The default implementation just calls {@link #saveFigures(List, Path)}; implementations that
+     * handle failures there themselves must override it.
+     *
+     * @param figures The {@link List} of {@link Figure} objects to be saved.
+     * @param filePath The {@link Path} to the data destination (e.g., an SVG file)
+     *                 where the figures will be saved.
+     * @throws IOException if the data could not be written.
+     */
+    default void saveFiguresOrThrow(List<Figure> figures, Path filePath) throws IOException {
+        saveFigures(figures, filePath);
+    }
+
+    /**
+     * Saves {@link Figure} objects to a persistent storage using the given region as the canvas.
+     * The figures are written in iteration order as they are produced, so callers can stream
+     * them without materializing a complete list.
+     * This method typically overwrites the existing data at the specified path.
+     *
+     * @param figures The figures to be saved, in paint order.
+     * @param filePath The {@link Path} to the data destination (e.g., an SVG file)
+     *                 where the figures will be saved.
+     * @param viewport The region of the drawing the canvas shows, written as the SVG {@code viewBox},
+     *                 or {@code null} to use the default canvas.
+     */
+    void saveFigures(Iterable<? extends Figure> figures, Path filePath, BoundingBox viewport); // Overwrites
 }
\ No newline at end of file
@@ -0,0 +1,334 @@
+package svgcreator.factories;
+
+import svgcreator.shapes.Circle;
+import svgcreator.shapes.Figure;
+import svgcreator.shapes.Line;
+import svgcreator.shapes.Rectangle;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * A factory producing a deterministic sequence of random figures, for load testing and benchmarks.
+ * Each call to {@link #createFigure()} returns the next {@link Circle}, {@link Rectangle} or {@link Line}
+ * of a sequence fully determined by the factory's {@link Settings}, including the seed: the same settings
+ * always produce the same figures.
+ * <p>
+ * Use {@link #figures(Settings, long)} to stream a large drawing straight to a persistence service,
+ * e.g. {@code persistence.saveFigures(SyntheticFigureFactory.figures(settings, 10_000_000), path, null)};
+ * figures are then created while the file is written, and none are retained.
+ * </p>
+ * Instances are not thread-safe.
+ */
+public class SyntheticFigureFactory implements FigureFactory {
+
+    /**
+     * How figure sizes are distributed between the minimum and maximum size.
+     */
+    public enum SizeDistribution {
+        /** Every size between the minimum and maximum is equally likely. */
+        UNIFORM,
+        /** Sizes are spread evenly on a logarithmic scale, so small figures are much more common than large ones. */
+        LOG_UNIFORM
+    }
+
+    /**
+     * How figures are positioned on the canvas.
+     */
+    public enum SpatialDistribution {
+        /** Positions are spread evenly over the canvas. */
+        UNIFORM,
+        /** Positions follow Gaussian distributions around random cluster centers. */
+        CLUSTERED,
+        /** Figures are placed on consecutive cells of a regular grid, row by row, wrapping around when it is full. */
+        GRID
+    }
+
+    /**
+     * The parameters of a generated sequence of figures.
+     * Sizes are radii for circles, widths and heights for rectangles, and lengths for lines.
+     *
+     * @param circleWeight        The relative frequency of circles.
+     * @param rectangleWeight     The relative frequency of rectangles.
+     * @param lineWeight          The relative frequency of lines.
+     * @param sizeDistribution    How sizes are distributed.
+     * @param minSize             The smallest size.
+     * @param maxSize             The largest size.
+     * @param spatialDistribution How figures are positioned.
+     * @param canvasWidth         The width of the canvas positions are chosen from.
+     * @param canvasHeight        The height of the canvas positions are chosen from.
+     * @param clusterCount        The number of clusters, for {@link SpatialDistribution#CLUSTERED}.
+     * @param clusterSpread       The standard deviation of a position from its cluster center, per axis.
+     * @param gridSpacing         The distance between grid cells, for {@link SpatialDistribution#GRID}.
+     * @param colorCount          The number of distinct colors used.
+     * @param seed                The seed the sequence is generated from.
+     */
+    public static record Settings(double circleWeight, double rectangleWeight, double lineWeight,
+                                  SizeDistribution sizeDistribution, int minSize, int maxSize,
+                                  SpatialDistribution spatialDistribution, int canvasWidth, int canvasHeight,
+                                  int clusterCount, int clusterSpread, int gridSpacing,
+                                  int colorCount, long seed) {
+
+        /**
+         * Equal parts circles, rectangles and lines of uniform sizes 1 to 50, spread uniformly over a
+         * 10000x10000 canvas in 16 colors, from seed 0.
+         */
+        public static final Settings DEFAULT = new Settings(1, 1, 1, SizeDistribution.UNIFORM, 1, 50,
+                SpatialDistribution.UNIFORM, 10_000, 10_000, 16, 200, 20, 16, 0);
+
+        /**
+         * Validates the settings.
+         *
+         * @throws IllegalArgumentException if a weight is negative or all are zero, the size range is empty
+         *                                  or negative (or starts at 0 for {@link SizeDistribution#LOG_UNIFORM}),
+         *                                  the canvas, cluster count, grid spacing or color count is not
+         *                                  positive, the cluster spread is negative, or there are more colors
+         *                                  than 24-bit RGB provides.
+         */
+        public Settings {
+            if (!(circleWeight >= 0 && rectangleWeight >= 0 && lineWeight >= 0)
+                    || circleWeight + rectangleWeight + lineWeight <= 0) {
+                throw new IllegalArgumentException("Type weights must not be negative, and at least one must be positive.");
+            }
+            if (sizeDistribution == null || spatialDistribution == null) {
+                throw new IllegalArgumentException("Size and spatial distributions cannot be null.");
+            }
+            if (minSize < (sizeDistribution == SizeDistribution.LOG_UNIFORM ? 1 : 0) || maxSize < minSize) {
+                throw new IllegalArgumentException("Invalid size range " + minSize + " to " + maxSize + ".");
+            }
+            if (canvasWidth <= 0 || canvasHeight <= 0 || clusterCount <= 0 || clusterSpread < 0 || gridSpacing <= 0) {
+                throw new IllegalArgumentException("Canvas, cluster and grid dimensions must be positive.");
+            }
+            if (colorCount <= 0 || colorCount > 1 << 24) {
+                throw new IllegalArgumentException("Color count must be between 1 and " + (1 << 24) + ", got " + colorCount + ".");
+            }
+        }
+
+        /**
+         * Returns these settings with another mix of figure types.
+         *
+         * @param circles    The relative frequency of circles.
+         * @param rectangles The relative frequency of rectangles.
+         * @param lines      The relative frequency of lines.
+         * @return The new settings.
+         */
+        public Settings withTypeMix(double circles, double rectangles, double lines) {
+            return new Settings(circles, rectangles, lines, sizeDistribution, minSize, maxSize, spatialDistribution,
+                    canvasWidth, canvasHeight, clusterCount, clusterSpread, gridSpacing, colorCount, seed);
+        }
+
+        /**
+         * Returns these settings with other figure sizes.
+         *
+         * @param distribution How sizes are distributed.
+         * @param min          The smallest size.
+         * @param max          The largest size.
+         * @return The new settings.
+         */
+        public Settings withSizes(SizeDistribution distribution, int min, int max) {
+            return new Settings(circleWeight, rectangleWeight, lineWeight, distribution, min, max, spatialDistribution,
+                    canvasWidth, canvasHeight, clusterCount, clusterSpread, gridSpacing, colorCount, seed);
+        }
+
+        /**
+         * Returns these settings with another canvas size.
+         *
+         * @param width  The width of the canvas.
+         * @param height The height of the canvas.
+         * @return The new settings.
+         */
+        public Settings withCanvas(int width, int height) {
+            return new Settings(circleWeight, rectangleWeight, lineWeight, sizeDistribution, minSize, maxSize,
+                    spatialDistribution, width, height, clusterCount, clusterSpread, gridSpacing, colorCount, seed);
+        }
+
+        /**
+         * Returns these settings with figures spread uniformly over the canvas.
+         *
+         * @return The new settings.
+         */
+        public Settings withUniformPositions() {
+            return withSpatialDistribution(SpatialDistribution.UNIFORM, clusterCount, clusterSpread, gridSpacing);
+        }
+
+        /**
+         * Returns these settings with figures gathered in Gaussian clusters.
+         *
+         * @param count  The number of clusters.
+         * @param spread The standard deviation of a position from its cluster center, per axis.
+         * @return The new settings.
+         */
+        public Settings withClusters(int count, int spread) {
+            return withSpatialDistribution(SpatialDistribution.CLUSTERED, count, spread, gridSpacing);
+        }
+
+        /**
+         * Returns these settings with figures placed on a regular grid.
+         *
+         * @param spacing The distance between grid cells.
+         * @return The new settings.
+         */
+        public Settings withGrid(int spacing) {
+            return withSpatialDistribution(SpatialDistribution.GRID, clusterCount, clusterSpread, spacing);
+        }
+
+        /**
+         * Returns these settings with another number of distinct colors.
+         *
+         * @param count The number of colors.
+         * @return The new settings.
+         */
+        public Settings withColorCount(int count) {
+            return new Settings(circleWeight, rectangleWeight, lineWeight, sizeDistribution, minSize, maxSize,
+                    spatialDistribution, canvasWidth, canvasHeight, clusterCount, clusterSpread, gridSpacing, count, seed);
+        }
+
+        /**
+         * Returns these settings with another seed.
+         *
+         * @param newSeed The seed.
+         * @return The new settings.
+         */
+        public Settings withSeed(long newSeed) {
+            return new Settings(circleWeight, rectangleWeight, lineWeight, sizeDistribution, minSize, maxSize,
+                    spatialDistribution, canvasWidth, canvasHeight, clusterCount, clusterSpread, gridSpacing, colorCount, newSeed);
+        }
+
+        private Settings withSpatialDistribution(SpatialDistribution distribution, int count, int spread, int spacing) {
+            return new Settings(circleWeight, rectangleWeight, lineWeight, sizeDistribution, minSize, maxSize,
+                    distribution, canvasWidth, canvasHeight, count, spread, spacing, colorCount, seed);
+        }
+    }
+
+    /**
+     * Palettes up to this size are built once, so figures share their color strings.
+     */
+    private static final int CACHED_PALETTE_LIMIT = 4096;
+
+    private final Settings settings;
+    private final SplittableRandom random;
+    private final int[][] clusterCenters; // Null unless the positions are clustered
+    private final String[] palette; // Null if the palette is too large to cache
+    private long sequence; // Number of figures created so far
+
+    /**
+     * Constructs a {@code SyntheticFigureFactory} at the start of the sequence the settings describe.
+     *
+     * @param settings The parameters of the sequence.
+     */
+    public SyntheticFigureFactory(Settings settings) {
+        this.settings = settings;
+        this.random = new SplittableRandom(settings.seed());
+        if (settings.spatialDistribution() == SpatialDistribution.CLUSTERED) {
+            this.clusterCenters = new int[settings.clusterCount()][];
+            for (int i = 0; i < settings.clusterCount(); i++) {
+                this.clusterCenters[i] = new int[]{random.nextInt(settings.canvasWidth()), random.nextInt(settings.canvasHeight())};
+            }
+        } else {
+            this.clusterCenters = null;
+        }
+        if (settings.colorCount() <= CACHED_PALETTE_LIMIT) {
+            this.palette = new String[settings.colorCount()];
+            for (int i = 0; i < palette.length; i++) {
+                palette[i] = color(i);
+            }
+        } else {
+            this.palette = null;
+        }
+    }
+
+    /**
+     * Returns a sequence of generated figures that is created lazily while it is iterated, so only the
+     * figure currently being consumed needs to be in memory. Every iteration yields the same figures.
+     *
+     * @param settings The parameters of the sequence.
+     * @param count    The number of figures in the sequence.
+     * @return The figures, as an {@link Iterable} that can be iterated any number of times.
+     * @throws IllegalArgumentException if the count is negative.
+     */
+    public static Iterable<Figure> figures(Settings settings, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Figure count cannot be negative, got " + count + ".");
+        }
+        return () -> new Iterator<>() {
+            private final SyntheticFigureFactory factory = new SyntheticFigureFactory(settings);
+
+            @Override
+            public boolean hasNext() {
+                return factory.sequence < count;
+            }
+
+            @Override
+            public Figure next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return factory.createFigure();
+            }
+        };
+    }
+
+    /**
+     * Creates and returns the next figure of the sequence.
+     *
+     * @return A new {@link Circle}, {@link Rectangle} or {@link Line}.
+     */
+    @Override
+    public Figure createFigure() {
+        double pick = random.nextDouble() * (settings.circleWeight() + settings.rectangleWeight() + settings.lineWeight());
+        int x;
+        int y;
+        switch (settings.spatialDistribution()) {
+            case CLUSTERED -> {
+                int[] center = clusterCenters[random.nextInt(clusterCenters.length)];
+                x = Math.clamp(Math.round(center[0] + random.nextGaussian() * settings.clusterSpread()), 0, settings.canvasWidth() - 1);
+                y = Math.clamp(Math.round(center[1] + random.nextGaussian() * settings.clusterSpread()), 0, settings.canvasHeight() - 1);
+            }
+            case GRID -> {
+                long columns = Math.max(1, settings.canvasWidth() / settings.gridSpacing());
+                long rows = Math.max(1, settings.canvasHeight() / settings.gridSpacing());
+                long cell = sequence % (columns * rows);
+                x = (int) (cell % columns) * settings.gridSpacing();
+                y = (int) (cell / columns) * settings.gridSpacing();
+            }
+            default -> {
+                x = random.nextInt(settings.canvasWidth());
+                y = random.nextInt(settings.canvasHeight());
+            }
+        }
+        String color = palette != null ? palette[random.nextInt(palette.length)] : color(random.nextInt(settings.colorCount()));
+        sequence++;
+
+        if (pick < settings.circleWeight()) {
+            return new Circle(x, y, size(), color);
+        } else if (pick < settings.circleWeight() + settings.rectangleWeight()) {
+            int width = size();
+            return new Rectangle(x, y, color, width, size());
+        }
+        double length = size();
+        double angle = random.nextDouble() * 2 * Math.PI;
+        return new Line(x, y, color, x + (int) Math.round(length * Math.cos(angle)), y + (int) Math.round(length * Math.sin(angle)));
+    }
+
+    /**
+     * Draws a size from the configured distribution.
+     */
+    private int size() {
+        int min = settings.minSize();
+        int max = settings.maxSize();
+        if (settings.sizeDistribution() == SizeDistribution.LOG_UNIFORM) {
+            return (int) Math.min(max, Math.floor(min * Math.pow((max + 1.0) / min, random.nextDouble())));
+        }
+        return min + random.nextInt(max - min + 1);
+    }
+
+    /**
+     * Gets the i-th color of the palette. Colors are spread over the RGB space by multiplying with an
+     * odd constant, which is a bijection modulo 2<sup>24</sup>, so distinct indices give distinct colors.
+     */
+    private static String color(int index) {
+        int rgb = (index * 0x9E3779B1) & 0xFFFFFF;
+        return "#" + Integer.toHexString(0x1000000 | rgb).substring(1);
+    }
+}
\ No newline at end of file
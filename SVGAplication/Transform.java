@@ -0,0 +1,185 @@
+package svgcreator.utils;
+
+/**
+ * An immutable 2D affine transform, using the same matrix layout as SVG's
+ * {@code matrix(a,b,c,d,e,f)}: a point (x, y) maps to
+ * (a*x + c*y + e, b*x + d*y + f).
+ * <p>
+ * Transforms are attached to figures and composed lazily: scaling or rotating a figure
+ * only replaces its matrix, and the matrix is applied when the figure is queried or
+ * exported, or baked into its coordinates on demand through
+ * {@link GeometryUtils#bakeTransform}.
+ * </p>
+ *
+ * @param a The x-scale component.
+ * @param b The y-shear component.
+ * @param c The x-shear component.
+ * @param d The y-scale component.
+ * @param e The x-translation component.
+ * @param f The y-translation component.
+ */
+public record Transform(double a, double b, double c, double d, double e, double f) {
+
+    /**
+     * Components closer than this to the identity are treated as exactly the identity,
+     * so composing a transform with its inverse does not leave rounding noise behind.
+     */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * The transform that leaves every point unchanged.
+     */
+    public static final Transform IDENTITY = new Transform(1, 0, 0, 1, 0, 0);
+
+    /**
+     * Creates a translation.
+     *
+     * @param dx The horizontal translation amount.
+     * @param dy The vertical translation amount.
+     * @return The translation transform.
+     */
+    public static Transform translation(double dx, double dy) {
+        return new Transform(1, 0, 0, 1, dx, dy);
+    }
+
+    /**
+     * Creates a scaling about a center point.
+     *
+     * @param sx The horizontal scale factor.
+     * @param sy The vertical scale factor.
+     * @param cx The x-coordinate of the point that stays fixed.
+     * @param cy The y-coordinate of the point that stays fixed.
+     * @return The scaling transform.
+     */
+    public static Transform scaling(double sx, double sy, double cx, double cy) {
+        return new Transform(sx, 0, 0, sy, cx - sx * cx, cy - sy * cy);
+    }
+
+    /**
+     * Creates a rotation about a center point.
+     * As in SVG, positive angles rotate clockwise on screen, since the y-axis points down.
+     *
+     * @param degrees The rotation angle in degrees.
+     * @param cx The x-coordinate of the point that stays fixed.
+     * @param cy The y-coordinate of the point that stays fixed.
+     * @return The rotation transform.
+     */
+    public static Transform rotation(double degrees, double cx, double cy) {
+        double radians = Math.toRadians(degrees);
+        double cos = Math.cos(radians), sin = Math.sin(radians);
+        return new Transform(cos, sin, -sin, cos, cx - cos * cx + sin * cy, cy - sin * cx - cos * cy);
+    }
+
+    /**
+     * Composes this transform with another one applied afterwards.
+     *
+     * @param next The transform to apply after this one.
+     * @return A transform equivalent to applying this transform, then {@code next}.
+     */
+    public Transform then(Transform next) {
+        return new Transform(
+                next.a * a + next.c * b, next.b * a + next.d * b,
+                next.a * c + next.c * d, next.b * c + next.d * d,
+                next.a * e + next.c * f + next.e, next.b * e + next.d * f + next.f).normalized();
+    }
+
+    /**
+     * Computes the inverse of this transform.
+     *
+     * @return The transform undoing this one.
+     * @throws IllegalStateException if the transform is singular (e.g. a scale by zero).
+     */
+    public Transform inverse() {
+        double det = determinant();
+        if (det == 0) {
+            throw new IllegalStateException("Transform is not invertible.");
+        }
+        return new Transform(d / det, -b / det, -c / det, a / det,
+                (c * f - d * e) / det, (b * e - a * f) / det).normalized();
+    }
+
+    /**
+     * Maps the x-coordinate of a point.
+     *
+     * @param x The x-coordinate of the point.
+     * @param y The y-coordinate of the point.
+     * @return The transformed x-coordinate.
+     */
+    public double applyX(double x, double y) {
+        return a * x + c * y + e;
+    }
+
+    /**
+     * Maps the y-coordinate of a point.
+     *
+     * @param x The x-coordinate of the point.
+     * @param y The y-coordinate of the point.
+     * @return The transformed y-coordinate.
+     */
+    public double applyY(double x, double y) {
+        return b * x + d * y + f;
+    }
+
+    /**
+     * Gets the determinant of the linear part, i.e. the factor by which areas are scaled.
+     *
+     * @return The determinant.
+     */
+    public double determinant() {
+        return a * d - b * c;
+    }
+
+    /**
+     * Checks whether this transform preserves shapes, i.e. is a combination of uniform scaling,
+     * rotation and translation without reflection. Circles stay circles under such transforms.
+     *
+     * @return {@code true} if the transform is a similarity, {@code false} otherwise.
+     */
+    public boolean isSimilarity() {
+        return Math.abs(a - d) < EPSILON && Math.abs(b + c) < EPSILON;
+    }
+
+    /**
+     * Checks whether this transform keeps axis-aligned rectangles axis-aligned,
+     * i.e. has no rotation other than by multiples of 90 degrees and no shear.
+     *
+     * @return {@code true} if the transform preserves axis alignment, {@code false} otherwise.
+     */
+    public boolean isAxisAligned() {
+        return (Math.abs(b) < EPSILON && Math.abs(c) < EPSILON) || (Math.abs(a) < EPSILON && Math.abs(d) < EPSILON);
+    }
+
+    /**
+     * Checks whether this transform is the identity.
+     *
+     * @return {@code true} if every point maps to itself, {@code false} otherwise.
+     */
+    public boolean isIdentity() {
+        return a == 1 && b == 0 && c == 0 && d == 1 && e == 0 && f == 0; // Unlike equals, treats -0.0 as 0
+    }
+
+    /**
+     * Formats this transform as an SVG {@code transform} attribute value.
+     *
+     * @return A string of the form {@code matrix(a,b,c,d,e,f)}.
+     */
+    public String toSvg() {
+        return "matrix(" + format(a) + "," + format(b) + "," + format(c) + ","
+                + format(d) + "," + format(e) + "," + format(f) + ")";
+    }
+
+    /**
+     * Snaps components within {@link #EPSILON} of the identity onto it.
+     */
+    private Transform normalized() {
+        if (Math.abs(a - 1) < EPSILON && Math.abs(b) < EPSILON && Math.abs(c) < EPSILON
+                && Math.abs(d - 1) < EPSILON && Math.abs(e) < EPSILON && Math.abs(f) < EPSILON) {
+            return IDENTITY;
+        }
+        return this;
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+    }
+}
\ No newline at end of file
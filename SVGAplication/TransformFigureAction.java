@@ -0,0 +1,111 @@
+package svgcreator.app.actions;
+
+import svgcreator.app.Drawing;
+import svgcreator.app.MenuAction;
+import svgcreator.ui.ConsoleUI;
+import svgcreator.utils.Transform;
+
+/**
+ * Represents the action of scaling or rotating figures in the drawing.
+ * This class implements the {@link MenuAction} interface and encapsulates
+ * the logic for prompting the user for which figures to transform (a single figure
+ * by number, all figures within a region, of a type or of a color, or all figures)
+ * and for the kind of transform and its center, applying the transform to the {@link Drawing},
+ * and persisting the changes. The figures are only listed if the user asks for it.
+ * The transform is composed into each figure's matrix; coordinates are not rewritten.
+ */
+public class TransformFigureAction implements MenuAction {
+    private final ConsoleUI ui;
+    private final Drawing drawing;
+
+    /**
+     * Constructs a {@code TransformFigureAction} instance.
+     *
+     * @param ui The console user interface used for interacting with the user
+     *           (e.g., displaying figures, getting transform parameters).
+     * @param drawing The {@link Drawing} model whose figures will be transformed
+     *                and which will be responsible for saving the changes.
+     */
+    public TransformFigureAction(ConsoleUI ui, Drawing drawing) {
+        this.ui = ui;
+        this.drawing = drawing;
+    }
+
+    /**
+     * Executes the figure transform process.
+     * <p>
+     * This method performs the following steps:
+     * <ol>
+     *   <li>If the {@link Drawing} has no figures, displays a message and returns.</li>
+     *   <li>Prompts the user to select the figures to transform via {@link FigureSelection}.</li>
+     *   <li>Prompts the user for the transform type, "scale" (with factors sx and sy) or "rotate"
+     *       (with an angle in degrees), and the center point that stays fixed.</li>
+     *   <li>If the user cancels or the input is invalid, a message is shown, and the action ends.</li>
+     *   <li>Depending on the selection:
+     *       <ul>
+     *           <li>For all figures, calls {@link Drawing#transformAllFigures(Transform)}.</li>
+     *           <li>For a single figure, calls {@link Drawing#transformSingleFigure(int, Transform)}.</li>
+     *           <li>For several figures, calls {@link Drawing#transformFiguresIf}, which transforms every
+     *               matching figure in one pass, and displays how many were transformed.</li>
+     *       </ul>
+     *   </li>
+     *   <li>If any transform occurred, instructs the {@link Drawing} to save its current state to the persistent store
+     *       and displays a message confirming the update.</li>
+     * </ol>
+     *
+     * @return {@code true} to indicate that the application should continue running.
+     *         This action does not terminate the application.
+     */
+    @Override
+    public boolean execute() {
+        if (drawing.getFigureCount() == 0) {
+            ui.showMessage("No figures available to transform.");
+            return true; // Continue running
+        }
+
+        ui.showMessage("--- Scale/Rotate Figure(s) ---");
+        FigureSelection.Selection selection = FigureSelection.select(ui, drawing, "transform", true);
+        if (selection == null) {
+            ui.showMessage("Transform cancelled.");
+            return true; // Continue running
+        }
+        ConsoleUI.TransformData data = ui.getTransformParams();
+        if (data == null) {
+            ui.showError("Transform cancelled due to invalid input.");
+            return true; // Continue running
+        }
+
+        Transform transform = data.type().equals("scale")
+                ? Transform.scaling(data.param1(), data.param2(), data.cx(), data.cy())
+                : Transform.rotation(data.param1(), data.cx(), data.cy());
+        String description = data.type().equals("scale")
+                ? "Scaled by sx=" + data.param1() + ", sy=" + data.param2()
+                : "Rotated by " + data.param1() + " degrees";
+        String center = " around (" + data.cx() + ", " + data.cy() + ")";
+
+        boolean transformed = false;
+        if (selection.index() > 0) { // User chose to transform a single figure
+            if (drawing.transformSingleFigure(selection.index(), transform)) {
+                ui.showMessage(description + center + " for figure #" + selection.index() + ".");
+                transformed = true;
+            } else {
+                // Defensive: the index was validated against the figure count when it was entered
+                ui.showError("Failed to transform figure #" + selection.index() + ". Invalid index.");
+            }
+        } else if (selection.filter() == null) { // User chose to transform all figures
+            drawing.transformAllFigures(transform);
+            ui.showMessage(description + center + " for all figures.");
+            transformed = true;
+        } else {
+            int count = drawing.transformFiguresIf(selection.filter(), transform);
+            ui.showMessage(description + center + " for " + count + " figure(s) " + selection.description() + ".");
+            transformed = count > 0;
+        }
+
+        if (transformed) {
+            drawing.saveToFile(); // Persist the changes if any transform occurred
+            ui.showMessage("Drawing updated and saved.");
+        }
+        return true; // Always continue running after this action
+    }
+}
\ No newline at end of file
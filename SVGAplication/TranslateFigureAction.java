@@ -2,16 +2,15 @@ package svgcreator.app.actions;
 
 import svgcreator.app.Drawing;
 import svgcreator.app.MenuAction;
-import svgcreator.shapes.Figure;
 import svgcreator.ui.ConsoleUI;
-import java.util.List;
 
 /**
- * Represents the action of translating one or all figures in the drawing.
+ * Represents the action of translating figures in the drawing.
  * This class implements the {@link MenuAction} interface and encapsulates
- * the logic for displaying available figures, prompting the user for translation
- * parameters (which figure to translate or all, and the dx/dy offsets),
- * performing the translation on the {@link Drawing}, and persisting the changes.
+ * the logic for prompting the user for which figures to translate (a single figure
+ * by number, all figures within a region, of a type or of a color, or all figures)
+ * and for the dx/dy offsets, performing the translation on the {@link Drawing},
+ * and persisting the changes. The figures are only listed if the user asks for it.
  */
 public class TranslateFigureAction implements MenuAction {
     private final ConsoleUI ui;
@@ -21,7 +20,7 @@ public class TranslateFigureAction implements MenuAction {
      * Constructs a {@code TranslateFigureAction} instance.
      *
      * @param ui The console user interface used for interacting with the user
-     *           (e.g., displaying figures, getting translation parameters).
+     *           (e.g., selecting the figures, getting translation parameters).
      * @param drawing The {@link Drawing} model whose figures will be translated
      *                and which will be responsible for saving the changes.
      */
@@ -35,28 +34,16 @@ public class TranslateFigureAction implements MenuAction {
      * <p>
      * This method performs the following steps:
      * <ol>
-     *   <li>Retrieves all figures from the {@link Drawing}.</li>
-     *   <li>If no figures are available, displays a message and returns.</li>
-     *   <li>Displays the list of available figures to the user via the {@link ConsoleUI}.</li>
-     *   <li>Prompts the user to enter translation parameters:
+     *   <li>If the {@link Drawing} has no figures, displays a message and returns.</li>
+     *   <li>Prompts the user to select the figures to translate via {@link FigureSelection}.</li>
+     *   <li>Prompts the user for the horizontal (dx) and vertical (dy) translation amounts.</li>
+     *   <li>If the user cancels or the input is invalid, a message is shown, and the action ends.</li>
+     *   <li>Depending on the selection:
      *       <ul>
-     *           <li>The 1-based index of the figure to translate, or 0 to translate all figures.</li>
-     *           <li>The horizontal translation amount (dx).</li>
-     *           <li>The vertical translation amount (dy).</li>
-     *       </ul>
-     *   </li>
-     *   <li>If the translation data is invalid or the user cancels, an error message is shown, and the action ends.</li>
-     *   <li>If the user chose to translate all figures (index 0):
-     *       <ul>
-     *           <li>Calls {@link Drawing#translateAllFigures(int, int)}.</li>
-     *           <li>Displays a confirmation message.</li>
-     *       </ul>
-     *   </li>
-     *   <li>If the user chose to translate a single figure:
-     *       <ul>
-     *           <li>Calls {@link Drawing#translateSingleFigure(int, int, int)}.</li>
-     *           <li>If successful, displays a confirmation message.</li>
-     *           <li>If unsuccessful (e.g., invalid index), displays an error message.</li>
+     *           <li>For all figures, calls {@link Drawing#translateAllFigures(int, int)}.</li>
+     *           <li>For a single figure, calls {@link Drawing#translateSingleFigure(int, int, int)}.</li>
+     *           <li>For several figures, calls {@link Drawing#translateFiguresIf}, which translates every
+     *               matching figure in one pass, and displays how many were translated.</li>
      *       </ul>
      *   </li>
      *   <li>If any translation occurred, instructs the {@link Drawing} to save its current state to the persistent store
@@ -68,36 +55,45 @@ public class TranslateFigureAction implements MenuAction {
      */
     @Override
     public boolean execute() {
-        List<Figure> allFigures = drawing.getAllFigures();
-        if (allFigures.isEmpty()) {
+        if (drawing.getFigureCount() == 0) {
             ui.showMessage("No figures available to translate.");
             return true; // Continue running
         }
 
-        ui.displayFigures("--- Translate Figure(s) --- \nAvailable figures:", allFigures);
-        ConsoleUI.TranslateData data = ui.getTranslateParams(allFigures.size());
-
-        if (data == null) {
+        ui.showMessage("--- Translate Figure(s) ---");
+        FigureSelection.Selection selection = FigureSelection.select(ui, drawing, "translate", true);
+        if (selection == null) {
+            ui.showMessage("Translation cancelled.");
+            return true; // Continue running
+        }
+        ConsoleUI.OffsetData offsets = ui.getTranslationOffsets();
+        if (offsets == null) {
             ui.showError("Translation cancelled due to invalid input.");
             return true; // Continue running
         }
+        int dx = offsets.dx();
+        int dy = offsets.dy();
 
         boolean translated = false;
-        if (data.index() == 0) { // User chose to translate all figures
-            ui.showMessage("Translating all figures by dx=" + data.dx() + ", dy=" + data.dy() + "...");
-            drawing.translateAllFigures(data.dx(), data.dy());
-            ui.showMessage("Translated all figures vertical=" + data.dy() + " horizontal=" + data.dx());
-            translated = true;
-        } else { // User chose to translate a single figure
-            ui.showMessage("Translating figure #" + data.index() + " by dx=" + data.dx() + ", dy=" + data.dy() + "...");
+        if (selection.index() > 0) { // User chose to translate a single figure
+            ui.showMessage("Translating figure #" + selection.index() + " by dx=" + dx + ", dy=" + dy + "...");
             // Drawing.translateSingleFigure expects a 1-based index
-            if (drawing.translateSingleFigure(data.index(), data.dx(), data.dy())) {
-                ui.showMessage("Translation complete for figure #" + data.index() + ".");
+            if (drawing.translateSingleFigure(selection.index(), dx, dy)) {
+                ui.showMessage("Translation complete for figure #" + selection.index() + ".");
                 translated = true;
             } else {
-                // This case should ideally not be reached if ui.getTranslateParams and drawing.translateSingleFigure are robust
-                ui.showError("Failed to translate figure #" + data.index() + ". Invalid index.");
+                // Defensive: the index was validated against the figure count when it was entered
+                ui.showError("Failed to translate figure #" + selection.index() + ". Invalid index.");
             }
+        } else if (selection.filter() == null) { // User chose to translate all figures
+            ui.showMessage("Translating all figures by dx=" + dx + ", dy=" + dy + "...");
+            drawing.translateAllFigures(dx, dy);
+            ui.showMessage("Translated all figures vertical=" + dy + " horizontal=" + dx);
+            translated = true;
+        } else {
+            int count = drawing.translateFiguresIf(selection.filter(), dx, dy);
+            ui.showMessage("Translated " + count + " figure(s) " + selection.description() + " by dx=" + dx + ", dy=" + dy + ".");
+            translated = count > 0;
         }
 
         if (translated) {
@@ -0,0 +1,57 @@
+package svgcreator.app.actions;
+
+import svgcreator.app.MenuAction;
+import svgcreator.app.SvgDrawing;
+import svgcreator.ui.ConsoleUI;
+
+/**
+ * Represents the action of undoing the most recent edit in the drawing.
+ * This class implements the {@link MenuAction} interface and encapsulates
+ * the logic for asking the {@link SvgDrawing} to undo its last step and persisting
+ * the result, just as the edit itself was persisted.
+ */
+public class UndoAction implements MenuAction {
+    private final ConsoleUI ui;
+    private final SvgDrawing drawing;
+
+    /**
+     * Constructs an {@code UndoAction} instance.
+     *
+     * @param ui The console user interface used for displaying messages to the user.
+     * @param drawing The {@link SvgDrawing} whose history is used
+     *                and which will be responsible for saving the changes.
+     */
+    public UndoAction(ConsoleUI ui, SvgDrawing drawing) {
+        this.ui = ui;
+        this.drawing = drawing;
+    }
+
+    /**
+     * Executes the undo process.
+     * <p>
+     * This method performs the following steps:
+     * <ol>
+     *   <li>If an edit session is open, displays an error and returns, since the session must end first.</li>
+     *   <li>Asks the {@link SvgDrawing} to undo its last step; if there is none, displays a message and returns.</li>
+     *   <li>Instructs the {@link SvgDrawing} to save its current state to the persistent store.</li>
+     * </ol>
+     *
+     * @return {@code true} to indicate that the application should continue running.
+     *         This action does not terminate the application.
+     */
+    @Override
+    public boolean execute() {
+        if (drawing.isInTransaction()) {
+            ui.showError("Cannot undo while an edit session is open. Commit or roll it back first.");
+            return true; // Continue running
+        }
+
+        if (drawing.undo()) {
+            drawing.saveToFile(); // Persist the changes
+            ui.showMessage("Last step undone. Drawing updated and saved.");
+        } else {
+            ui.showMessage("Nothing to undo.");
+        }
+        return true; // Always continue running after this action
+    }
+}
\ No newline at end of file
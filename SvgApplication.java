@@ -12,7 +12,12 @@ import svgcreator.factories.RectangleFactory;
 import svgcreator.factories.LineFactory;
 import svgcreator.utils.GeometryUtils;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.HashMap;
@@ -43,6 +48,9 @@ public class SvgApplication {
     private final SvgPersistenceService persistenceService;
     private final Path svgFilePath;
     private final List<Figure> currentSessionShapes;
+    private List<Figure> savedFigures; // Figures last parsed from or written to the SVG file; null if unknown
+    private long savedSize; // Size of the SVG file when savedFigures matched it
+    private FileTime savedModified; // Modification time of the SVG file when savedFigures matched it
     private final Map<Integer, String> menu; // For display text
     private final Map<Integer, MenuAction> menuActions; // For executing actions
 
@@ -200,12 +208,74 @@ public class SvgApplication {
      * @return A list containing all figures.
      */
     private List<Figure> getAllFiguresCombined() {
-        List<Figure> loaded = persistenceService.loadFigures(svgFilePath);
-        List<Figure> combined = new ArrayList<>(loaded);
+        List<Figure> loaded = getSavedFigures();
+        List<Figure> combined = new ArrayList<>(loaded.size() + currentSessionShapes.size());
+        combined.addAll(loaded);
         combined.addAll(currentSessionShapes);
         return combined;
     }
 
+    /**
+     * Retrieves the figures saved in the SVG file. The file is only parsed again if its size or
+     * modification time differs from when it was last parsed or written, so repeated menu actions
+     * on an unchanged file reuse the parsed figures instead of reading the whole file each time.
+     *
+     * @return The saved figures. The list must not be modified; the figures in it may be,
+     *         as long as the result is then saved with {@link #saveFigures(List)}.
+     */
+    private List<Figure> getSavedFigures() {
+        BasicFileAttributes attributes = readFileAttributes();
+        if (attributes == null) {
+            savedFigures = null;
+            return persistenceService.loadFigures(svgFilePath); // Missing or unreadable; nothing to cache
+        }
+        if (savedFigures == null || attributes.size() != savedSize || !attributes.lastModifiedTime().equals(savedModified)) {
+            // The attributes are read before the file, so a change made while parsing is noticed next time
+            savedFigures = persistenceService.loadFigures(svgFilePath);
+            savedSize = attributes.size();
+            savedModified = attributes.lastModifiedTime();
+        }
+        return savedFigures;
+    }
+
+    /**
+     * Writes figures to the SVG file and keeps them as the cached state of the file.
+     * If the file's size and modification time did not change, the write may have failed (the
+     * persistence service only reports failures), so the cache is dropped and the file is
+     * parsed again when next needed.
+     *
+     * @param figures The figures to save.
+     */
+    private void saveFigures(List<Figure> figures) {
+        BasicFileAttributes before = readFileAttributes();
+        persistenceService.saveFigures(figures, svgFilePath);
+        BasicFileAttributes after = readFileAttributes();
+        if (after != null && (before == null || after.size() != before.size()
+                || !after.lastModifiedTime().equals(before.lastModifiedTime()))) {
+            savedFigures = new ArrayList<>(figures);
+            savedSize = after.size();
+            savedModified = after.lastModifiedTime();
+        } else {
+            savedFigures = null;
+        }
+    }
+
+    /**
+     * Reads the SVG file's size and modification time.
+     *
+     * @return The file's attributes, or null if it does not exist or cannot be read.
+     */
+    private BasicFileAttributes readFileAttributes() {
+        try {
+            return Files.readAttributes(svgFilePath, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("Warning: Could not read attributes of " + svgFilePath + " - " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Formats a list of {@link Figure} objects into a list of strings for display.
      * Each string includes an index and the figure's details.
@@ -274,7 +344,7 @@ public class SvgApplication {
         Figure removed = allFigures.remove(listIndex);
         ui.showMessage("Removed figure #" + indexToDelete + ": " + removed.getClass().getSimpleName());
 
-        persistenceService.saveFigures(allFigures, svgFilePath);
+        saveFigures(allFigures);
         currentSessionShapes.clear(); // Reset session as its state is now in the file
         ui.showMessage("File updated. Session cleared.");
     }
@@ -312,7 +382,7 @@ public class SvgApplication {
             ui.showMessage("Translation complete for figure #" + data.index() + ".");
         }
 
-        persistenceService.saveFigures(allFigures, svgFilePath);
+        saveFigures(allFigures);
         currentSessionShapes.clear(); // Reset session
         ui.showMessage("File updated. Session cleared.");
     }
@@ -354,7 +424,7 @@ public class SvgApplication {
      */
     private void saveAndExit() {
         List<Figure> finalFigures = getAllFiguresCombined();
-        persistenceService.saveFigures(finalFigures, svgFilePath);
+        saveFigures(finalFigures);
         currentSessionShapes.clear();
         ui.showMessage("All figures saved to " + svgFilePath);
     }
@@ -0,0 +1,126 @@
+package svgcreator.benchmarks;
+
+import svgcreator.factories.SyntheticFigureFactory;
+import svgcreator.shapes.Figure;
+import svgcreator.shapes.FigureGroup;
+import svgcreator.utils.Transform;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates the drawings measured by the benchmarks, as sequences of {@link SyntheticFigureFactory}
+ * figures arranged in the requested layout.
+ * Drawings are built from a fixed seed, so every run and every fork measures exactly the same figures.
+ * This class cannot be instantiated.
+ */
+final class BenchmarkDrawings {
+
+    /**
+     * The seed every drawing is generated from.
+     */
+    static final long SEED = 20240517L;
+
+    /**
+     * The number of figures placed in each group of a {@code grouped} layout.
+     */
+    static final int GROUP_SIZE = 100;
+
+    /**
+     * The side of the square canvas the figures are spread over.
+     */
+    static final int CANVAS_SIZE = 100_000;
+
+    /**
+     * The number of clusters the figures of a {@code clustered} drawing are gathered in.
+     */
+    static final int CLUSTER_COUNT = 64;
+
+    /**
+     * The standard deviation of the figures' distance from their cluster's center, per axis.
+     */
+    static final int CLUSTER_SPREAD = CANVAS_SIZE / 200;
+
+    /**
+     * The settings shared by every drawing: figures of sizes 1 to 100 in a few colors on the canvas.
+     */
+    private static final SyntheticFigureFactory.Settings BASE_SETTINGS = SyntheticFigureFactory.Settings.DEFAULT
+            .withCanvas(CANVAS_SIZE, CANVAS_SIZE)
+            .withSizes(SyntheticFigureFactory.SizeDistribution.UNIFORM, 1, 100)
+            .withColorCount(6)
+            .withSeed(SEED);
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private BenchmarkDrawings() {
+        // This class is not meant to be instantiated.
+    }
+
+    /**
+     * Generates a drawing whose shapes are spread uniformly over the canvas.
+     *
+     * @param figureCount The number of shapes; groups are not counted.
+     * @param shapeMix    The kinds of shapes, see {@link #generate(int, String, String, String)}.
+     * @param layout      How the shapes are arranged, see {@link #generate(int, String, String, String)}.
+     * @return The figures, in paint order.
+     * @throws IllegalArgumentException if the shape mix or layout is unknown.
+     */
+    static List<Figure> generate(int figureCount, String shapeMix, String layout) {
+        return generate(figureCount, shapeMix, layout, "uniform");
+    }
+
+    /**
+     * Generates a drawing.
+     *
+     * @param figureCount The number of shapes; groups are not counted.
+     * @param shapeMix    {@code circles} for circles only, {@code lines} for lines only, or {@code mixed}
+     *                    for circles, rectangles and lines in equal parts.
+     * @param layout      {@code flat} for top-level shapes, {@code grouped} for shapes nested in groups of
+     *                    {@link #GROUP_SIZE}, or {@code transformed} for top-level shapes that each carry a rotation.
+     * @param distribution {@code uniform} to spread the shapes evenly over the canvas, or {@code clustered} to
+     *                    gather them around {@link #CLUSTER_COUNT} random points, as in drawings made of dense details.
+     * @return The figures, in paint order.
+     * @throws IllegalArgumentException if the shape mix, layout or distribution is unknown.
+     */
+    static List<Figure> generate(int figureCount, String shapeMix, String layout, String distribution) {
+        SyntheticFigureFactory.Settings settings = switch (shapeMix) {
+            case "circles" -> BASE_SETTINGS.withTypeMix(1, 0, 0);
+            case "lines" -> BASE_SETTINGS.withTypeMix(0, 0, 1);
+            case "mixed" -> BASE_SETTINGS.withTypeMix(1, 1, 1);
+            default -> throw new IllegalArgumentException("Unknown shape mix: " + shapeMix);
+        };
+        settings = switch (distribution) {
+            case "uniform" -> settings.withUniformPositions();
+            case "clustered" -> settings.withClusters(CLUSTER_COUNT, CLUSTER_SPREAD);
+            default -> throw new IllegalArgumentException("Unknown distribution: " + distribution);
+        };
+        if (!layout.equals("flat") && !layout.equals("transformed") && !layout.equals("grouped")) {
+            throw new IllegalArgumentException("Unknown layout: " + layout);
+        }
+
+        SyntheticFigureFactory factory = new SyntheticFigureFactory(settings);
+        List<Figure> figures = new ArrayList<>(layout.equals("grouped") ? figureCount / GROUP_SIZE + 1 : figureCount);
+        FigureGroup group = null;
+        for (int i = 0; i < figureCount; i++) {
+            Figure shape = factory.createFigure();
+            switch (layout) {
+                case "transformed" -> {
+                    // Angles and group offsets only need to vary, so they are derived from the position
+                    shape.setTransform(Transform.rotation(i * 37 % 360, shape.getXAxis(), shape.getYAxis()));
+                    figures.add(shape);
+                }
+                case "grouped" -> {
+                    if (i % GROUP_SIZE == 0) {
+                        int layer = i / GROUP_SIZE;
+                        group = new FigureGroup(layer * 37 % 100, layer * 61 % 100, "layer" + layer);
+                        figures.add(group);
+                    }
+                    group.addChild(shape);
+                }
+                default -> figures.add(shape);
+            }
+        }
+        return figures;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package svgcreator.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmark suite with the settings used for comparing results between versions.
+ * <p>
+ * The benchmarks use JMH, which is not part of the application, so they are built separately by
+ * {@code benchmarks/pom.xml} into a jar that also contains the application. From the repository root, run
+ * </p>
+ * <pre>
+ * mvn -f benchmarks/pom.xml package &amp;&amp; java -jar benchmarks/target/benchmarks.jar [JMH options]
+ * </pre>
+ * Without options, every benchmark in this package is run with the GC profiler, which adds the
+ * allocation rate ({@code gc.alloc.rate.norm} is bytes per operation) to each result, and the results
+ * are written to {@code benchmark-results.json}. Any JMH command-line option can be given, e.g. a
+ * benchmark name pattern or {@code -p figureCount=1000}; a pattern, result file or result format
+ * given there replaces the default.
+ * This class cannot be instantiated.
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * The file results are written to unless another one is given with {@code -rff}.
+     */
+    public static final String DEFAULT_RESULT_FILE = "benchmark-results.json";
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private BenchmarkRunner() {
+        // This class is not meant to be instantiated.
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args JMH command-line options.
+     * @throws Exception if the options are invalid or a benchmark fails.
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(BenchmarkRunner.class.getPackageName() + "\\.");
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT_FILE);
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        new Runner(options.build()).run();
+    }
+}
\ No newline at end of file
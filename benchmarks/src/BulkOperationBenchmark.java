@@ -0,0 +1,92 @@
+package svgcreator.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import svgcreator.app.SvgDrawing;
+import svgcreator.persistence.SvgFilePersistenceService;
+import svgcreator.shapes.Figure;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the operations of {@link SvgDrawing} that touch every figure:
+ * {@link SvgDrawing#translateAllFigures} and {@link SvgDrawing#getAllFigures}.
+ * <p>
+ * With {@code indexed}, the drawing's spatial index is built during setup, so each translation also
+ * pays for keeping the index current, as it does in a drawing that has been queried by region.
+ * The undo history is disabled, so only the operation itself is measured.
+ * </p>
+ * Run with {@link BenchmarkRunner}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"}) // A fixed heap keeps GC behavior comparable between runs
+public class BulkOperationBenchmark {
+
+    /**
+     * The number of figures in the drawing.
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int figureCount;
+
+    /**
+     * How the figures are spread over the canvas: {@code uniform} or {@code clustered}.
+     */
+    @Param({"uniform", "clustered"})
+    public String distribution;
+
+    /**
+     * Whether the drawing's spatial index is built, and so maintained by every translation.
+     */
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private SvgDrawing drawing;
+    private int direction = 1; // Alternates, so the figures move back and forth instead of drifting away
+
+    /**
+     * Generates the drawing and, if requested, builds its spatial index.
+     */
+    @Setup(Level.Trial)
+    public void createDrawing() {
+        drawing = new SvgDrawing(new SvgFilePersistenceService(), Path.of("unused.svg"), 0, 0); // Never saved
+        drawing.addFigures(BenchmarkDrawings.generate(figureCount, "mixed", "flat", distribution));
+        if (indexed) {
+            drawing.getFiguresIntersecting(0, 0, 0, 0); // Builds the index outside the measurement
+        }
+    }
+
+    /**
+     * Translates every figure by a small offset.
+     */
+    @Benchmark
+    public void translateAllFigures() {
+        direction = -direction;
+        drawing.translateAllFigures(3 * direction, -2 * direction);
+    }
+
+    /**
+     * Copies the list of all figures.
+     *
+     * @return The copy.
+     */
+    @Benchmark
+    public List<Figure> getAllFigures() {
+        return drawing.getAllFigures();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package svgcreator.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import svgcreator.persistence.SvgFilePersistenceService;
+import svgcreator.shapes.Figure;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link SvgFilePersistenceService#loadFigures} and {@link SvgFilePersistenceService#saveFigures}
+ * across drawing sizes, shape mixes and file layouts (see {@link BenchmarkDrawings#generate}).
+ * <p>
+ * Each benchmark reports throughput and, through sampling, latency percentiles; run it with
+ * {@link BenchmarkRunner} to also get the allocation rate from the GC profiler.
+ * The file to load is written once per trial by the service itself, so it has exactly the layout
+ * the application produces. Saves overwrite a second file in the same temporary directory.
+ * </p>
+ * The full matrix takes long, mostly because of the 10M-figure drawings; select a part of it with
+ * JMH's {@code -p} option, e.g. {@code -p figureCount=1000,100000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 2, jvmArgsAppend = {"-Xms8g", "-Xmx8g"}) // A fixed heap keeps GC behavior comparable between runs
+public class PersistenceBenchmark {
+
+    /**
+     * The number of shapes in the drawing.
+     */
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int figureCount;
+
+    /**
+     * The kinds of shapes in the drawing: {@code circles}, {@code lines} or {@code mixed}.
+     */
+    @Param({"circles", "lines", "mixed"})
+    public String shapeMix;
+
+    /**
+     * How the shapes are arranged: {@code flat}, {@code grouped} or {@code transformed}.
+     */
+    @Param({"flat", "grouped", "transformed"})
+    public String layout;
+
+    private final SvgFilePersistenceService persistence = new SvgFilePersistenceService();
+    private List<Figure> figures;
+    private Path directory;
+    private Path loadPath;
+    private Path savePath;
+
+    /**
+     * Generates the drawing and writes the file the load benchmark reads.
+     *
+     * @throws IOException if the temporary directory cannot be created.
+     */
+    @Setup(Level.Trial)
+    public void writeDrawing() throws IOException {
+        figures = BenchmarkDrawings.generate(figureCount, shapeMix, layout);
+        directory = Files.createTempDirectory("svg-benchmark");
+        loadPath = directory.resolve("load.svg");
+        savePath = directory.resolve("save.svg");
+        persistence.saveFigures(figures, loadPath);
+    }
+
+    /**
+     * Deletes the files written during the trial.
+     *
+     * @throws IOException if a file cannot be deleted.
+     */
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(loadPath);
+        Files.deleteIfExists(savePath);
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Loads and parses the whole drawing.
+     *
+     * @return The loaded figures, so the work cannot be eliminated.
+     */
+    @Benchmark
+    public List<Figure> loadFigures() {
+        return persistence.loadFigures(loadPath);
+    }
+
+    /**
+     * Renders and writes the whole drawing, overwriting the previous file.
+     */
+    @Benchmark
+    public void saveFigures() {
+        persistence.saveFigures(figures, savePath);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,184 @@
+package svgcreator.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import svgcreator.app.SvgDrawing;
+import svgcreator.persistence.SvgFilePersistenceService;
+import svgcreator.shapes.Figure;
+import svgcreator.utils.GeometryUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the "figures within a boundary" query, comparing the linear scan the application uses
+ * ({@link SvgDrawing#getFiguresWithinBoundary}) with a parallel scan and with a lookup through the
+ * drawing's spatial index ({@link SvgDrawing#getFiguresIntersecting}) followed by the exact test.
+ * <p>
+ * The boundary is centered on the canvas and sized during setup so that it contains the requested
+ * fraction ({@code selectivity}) of the figures, so results are comparable between spatial distributions.
+ * </p>
+ * Run with {@link BenchmarkRunner}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"}) // A fixed heap keeps GC behavior comparable between runs
+public class SpatialQueryBenchmark {
+
+    /**
+     * The number of figures in the drawing.
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int figureCount;
+
+    /**
+     * The fraction of the figures completely within the boundary.
+     */
+    @Param({"0.0001", "0.01", "0.5"})
+    public double selectivity;
+
+    /**
+     * The kind of boundary: {@code rectangle} or {@code circle}.
+     */
+    @Param({"rectangle", "circle"})
+    public String boundaryType;
+
+    /**
+     * How the figures are spread over the canvas: {@code uniform} or {@code clustered}.
+     */
+    @Param({"uniform", "clustered"})
+    public String distribution;
+
+    private List<Figure> figures;
+    private SvgDrawing drawing;
+    private int bx;
+    private int by;
+    private int bParam1;
+    private int bParam2;
+
+    /**
+     * Generates the drawing, builds its spatial index and sizes the boundary.
+     */
+    @Setup(Level.Trial)
+    public void createDrawing() {
+        if (!boundaryType.equals("rectangle") && !boundaryType.equals("circle")) {
+            throw new IllegalArgumentException("Unknown boundary type: " + boundaryType);
+        }
+        figures = BenchmarkDrawings.generate(figureCount, "mixed", "flat", distribution);
+        // Undo is disabled; only queries run against this drawing, and it is never saved
+        drawing = new SvgDrawing(new SvgFilePersistenceService(), Path.of("unused.svg"), 0, 0);
+        drawing.addFigures(figures);
+        drawing.getFiguresIntersecting(0, 0, 0, 0); // Builds the index outside the measurement
+        sizeBoundary(Math.max(1, Math.round(selectivity * figureCount)));
+    }
+
+    /**
+     * Tests every figure with {@link GeometryUtils#isFigureWithinBoundary}, without collecting the result.
+     *
+     * @return The number of figures within the boundary, so the work cannot be eliminated.
+     */
+    @Benchmark
+    public int isFigureWithinBoundary() {
+        int count = 0;
+        for (Figure figure : figures) {
+            if (GeometryUtils.isFigureWithinBoundary(figure, boundaryType, bx, by, bParam1, bParam2)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Runs the application's query, a linear scan of the drawing.
+     *
+     * @return The figures within the boundary.
+     */
+    @Benchmark
+    public List<Figure> linearScan() {
+        return drawing.getFiguresWithinBoundary(boundaryType, bx, by, bParam1, bParam2);
+    }
+
+    /**
+     * Scans the drawing's figures on all cores with a parallel stream.
+     *
+     * @return The figures within the boundary.
+     */
+    @Benchmark
+    public List<Figure> parallelScan() {
+        return figures.parallelStream()
+                .filter(figure -> GeometryUtils.isFigureWithinBoundary(figure, boundaryType, bx, by, bParam1, bParam2))
+                .toList();
+    }
+
+    /**
+     * Looks up the figures whose bounding boxes intersect the boundary's box in the drawing's spatial
+     * index, then keeps those completely within the boundary.
+     *
+     * @return The figures within the boundary.
+     */
+    @Benchmark
+    public List<Figure> indexedLookup() {
+        List<Figure> candidates = boundaryType.equals("rectangle")
+                ? drawing.getFiguresIntersecting(bx, by, bParam1, bParam2)
+                : drawing.getFiguresIntersecting(bx - bParam1, by - bParam1, 2 * bParam1, 2 * bParam1);
+        List<Figure> within = new ArrayList<>();
+        for (Figure candidate : candidates) {
+            if (GeometryUtils.isFigureWithinBoundary(candidate, boundaryType, bx, by, bParam1, bParam2)) {
+                within.add(candidate);
+            }
+        }
+        return within;
+    }
+
+    /**
+     * Finds the smallest boundary centered on the canvas that contains at least the given number of
+     * figures, by binary search over its size.
+     */
+    private void sizeBoundary(long target) {
+        int center = BenchmarkDrawings.CANVAS_SIZE / 2;
+        int low = 0;
+        int high = 2 * BenchmarkDrawings.CANVAS_SIZE; // Half-size or radius covering every figure
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            setBoundary(center, middle);
+            if (isFigureWithinBoundary() >= target) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        setBoundary(center, low);
+    }
+
+    /**
+     * Sets a boundary centered on a point: a square with the given half side, or a circle with the given radius.
+     */
+    private void setBoundary(int center, int extent) {
+        if (boundaryType.equals("rectangle")) {
+            bx = center - extent;
+            by = center - extent;
+            bParam1 = 2 * extent;
+            bParam2 = 2 * extent;
+        } else {
+            bx = center;
+            by = center;
+            bParam1 = extent;
+            bParam2 = 0;
+        }
+    }
+}
\ No newline at end of file